@@ -0,0 +1,79 @@
+package br.gov.corregedoria.agentes.benchmark;
+
+import br.gov.corregedoria.agentes.entity.AgenteVoluntario;
+import br.gov.corregedoria.agentes.service.CarteirinhaService;
+import br.gov.corregedoria.agentes.util.SpoolOutputStream;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Carteirinha individual: renderização completa (cache de 1 entrada e agentes alternados,
+ * portanto sempre miss) nos dois renderizadores e nos dois formatos de QR, e o caminho com
+ * cache quente.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class CarteirinhaBenchmark {
+
+    private static final int AGENTES = 8;
+
+    @Param({"html", "direto"})
+    public String renderizador;
+
+    @Param({"true", "false"})
+    public boolean vetorial;
+
+    private CarteirinhaService semCache;
+    private CarteirinhaService comCache;
+
+    @State(Scope.Thread)
+    public static class Sequencia {
+        long proximo;
+    }
+
+    @Setup
+    public void preparar() {
+        List<AgenteVoluntario> agentes = Fixtures.agentes(AGENTES);
+        semCache = Fixtures.carteirinhaService(agentes, renderizador, 1, vetorial);
+        comCache = Fixtures.carteirinhaService(agentes, renderizador, AGENTES, vetorial);
+    }
+
+    @TearDown
+    public void encerrar() {
+        ReflectionTestUtils.invokeMethod(semCache, "encerrarPool");
+        ReflectionTestUtils.invokeMethod(comCache, "encerrarPool");
+    }
+
+    @Benchmark
+    public long gerarPdf(Sequencia seq) throws Exception {
+        SpoolOutputStream pdf = semCache.gerarPdfSpool(seq.proximo++ % AGENTES + 1, true);
+        try {
+            return pdf.tamanho();
+        } finally {
+            pdf.descartar();
+        }
+    }
+
+    @Benchmark
+    public byte[] gerarPdfEmCache(Sequencia seq) throws Exception {
+        return comCache.gerarPdf(seq.proximo++ % AGENTES + 1, true);
+    }
+}
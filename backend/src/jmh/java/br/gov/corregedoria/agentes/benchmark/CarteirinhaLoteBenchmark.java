@@ -0,0 +1,67 @@
+package br.gov.corregedoria.agentes.benchmark;
+
+import br.gov.corregedoria.agentes.entity.AgenteVoluntario;
+import br.gov.corregedoria.agentes.service.CarteirinhaService;
+import br.gov.corregedoria.agentes.util.SpoolOutputStream;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+/**
+ * Lote de carteirinhas (busca, QR, layout paralelo e mesclagem) para tamanhos de lote variados,
+ * com o QR vetorial (SVG) e em PNG.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 10)
+@Measurement(iterations = 3, time = 10)
+@Fork(1)
+public class CarteirinhaLoteBenchmark {
+
+    @Param({"20", "100"})
+    public int tamanhoLote;
+
+    @Param({"true", "false"})
+    public boolean vetorial;
+
+    private CarteirinhaService service;
+    private List<Long> ids;
+
+    @Setup
+    public void preparar() {
+        List<AgenteVoluntario> agentes = Fixtures.agentes(tamanhoLote);
+        service = Fixtures.carteirinhaService(agentes, "html", 1, vetorial);
+        ids = LongStream.rangeClosed(1, tamanhoLote).boxed().collect(Collectors.toList());
+    }
+
+    @TearDown
+    public void encerrar() {
+        ReflectionTestUtils.invokeMethod(service, "encerrarPool");
+    }
+
+    @Benchmark
+    public long gerarPdfLote() throws Exception {
+        SpoolOutputStream pdf = service.gerarPdfLote(ids);
+        try {
+            return pdf.tamanho();
+        } finally {
+            pdf.descartar();
+        }
+    }
+}
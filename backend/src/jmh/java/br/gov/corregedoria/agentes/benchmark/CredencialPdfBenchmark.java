@@ -0,0 +1,46 @@
+package br.gov.corregedoria.agentes.benchmark;
+
+import br.gov.corregedoria.agentes.service.CredencialService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * PDF A6 da credencial (iText), alternando entre credenciais distintas.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 3)
+@Measurement(iterations = 5, time = 3)
+@Fork(1)
+public class CredencialPdfBenchmark {
+
+    private static final int AGENTES = 8;
+
+    private CredencialService service;
+
+    @State(Scope.Thread)
+    public static class Sequencia {
+        long proximo;
+    }
+
+    @Setup
+    public void preparar() {
+        service = Fixtures.credencialService(Fixtures.agentes(AGENTES));
+    }
+
+    @Benchmark
+    public byte[] gerarPDFCredencial(Sequencia seq) throws Exception {
+        return service.gerarPDFCredencial(1001 + seq.proximo++ % AGENTES);
+    }
+}
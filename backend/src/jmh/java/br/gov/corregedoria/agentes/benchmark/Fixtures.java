@@ -0,0 +1,256 @@
+package br.gov.corregedoria.agentes.benchmark;
+
+import br.gov.corregedoria.agentes.entity.AgenteVoluntario;
+import br.gov.corregedoria.agentes.entity.Comarca;
+import br.gov.corregedoria.agentes.entity.Credencial;
+import br.gov.corregedoria.agentes.entity.StatusAgente;
+import br.gov.corregedoria.agentes.repository.AgenteVoluntarioRepository;
+import br.gov.corregedoria.agentes.repository.CredencialRepository;
+import br.gov.corregedoria.agentes.service.CarteirinhaPdfDireto;
+import br.gov.corregedoria.agentes.service.CarteirinhaService;
+import br.gov.corregedoria.agentes.service.CredencialService;
+import br.gov.corregedoria.agentes.util.HtmlPdfRenderer;
+import br.gov.corregedoria.agentes.util.QRCodeUtil;
+import br.gov.corregedoria.agentes.util.RecursosEstaticos;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.util.unit.DataSize;
+import org.thymeleaf.spring6.SpringTemplateEngine;
+import org.thymeleaf.templatemode.TemplateMode;
+import org.thymeleaf.templateresolver.ClassLoaderTemplateResolver;
+
+import javax.imageio.ImageIO;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+import java.util.Set;
+
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+/**
+ * Massa de dados e montagem dos serviços para os benchmarks, sem Spring nem banco.
+ *
+ * Os agentes têm foto (JPEG 3x4 com ruído, ~tamanho de uma foto real), várias comarcas
+ * e nomes/filiação longos, para exercitar quebra de linha e imagens no layout.
+ */
+final class Fixtures {
+
+    static final String BASE_URL = "https://agentes.tjmg.jus.br";
+
+    private static final String[] NOMES = {
+            "MARIA APARECIDA DOS SANTOS OLIVEIRA PEREIRA DA SILVA",
+            "JOÃO BATISTA DE ALBUQUERQUE CAVALCANTI FERREIRA NETO",
+            "ANA CLÁUDIA RODRIGUES MAGALHÃES DE VASCONCELOS",
+            "FRANCISCO DE ASSIS GONÇALVES TEIXEIRA JÚNIOR",
+            "LUÍZA HELENA BRAGANÇA COUTINHO DE MEDEIROS",
+            "JOSÉ ROBERTO NASCIMENTO FIGUEIREDO DOS REIS",
+            "ANTÔNIA CONCEIÇÃO MARTINS DE ANDRADE LIMA",
+            "PEDRO HENRIQUE VIEIRA DE CARVALHO BITTENCOURT"
+    };
+
+    private static final String[] COMARCAS = {
+            "BELO HORIZONTE", "CONTAGEM", "JUIZ DE FORA", "UBERLÂNDIA", "MONTES CLAROS",
+            "GOVERNADOR VALADARES", "SÃO JOÃO DEL-REI", "TEÓFILO OTONI"
+    };
+
+    private Fixtures() {}
+
+    /** Agentes ativos (ids 1..quantidade), cada um com uma credencial emitida. */
+    static List<AgenteVoluntario> agentes(int quantidade) {
+        Random random = new Random(42);
+        List<AgenteVoluntario> agentes = new ArrayList<>(quantidade);
+        for (int i = 1; i <= quantidade; i++) {
+            AgenteVoluntario a = new AgenteVoluntario();
+            a.setId((long) i);
+            a.setNomeCompleto(NOMES[(i - 1) % NOMES.length]);
+            a.setCpf(String.format("%011d", 10000000000L + i * 7919L));
+            a.setNumeroCarteiraIdentidade("MG-" + (10000000 + i));
+            a.setDataExpedicaoCI(LocalDate.of(2005, 3, 1).plusDays(i));
+            a.setNacionalidade("Brasileira");
+            a.setNaturalidade("São Sebastião do Paraíso");
+            a.setUf("MG");
+            a.setDataNascimento(LocalDate.of(1975, 1, 1).plusDays(i * 37L));
+            a.setFiliacaoPai("SEBASTIÃO FERNANDES DE OLIVEIRA CASTRO");
+            a.setFiliacaoMae("MARIA DE LOURDES APARECIDA DOS SANTOS CASTRO");
+            a.setStatus(StatusAgente.ATIVO);
+            a.setFoto(foto(random));
+
+            Set<Comarca> comarcas = new LinkedHashSet<>();
+            for (int c = 0; c < 3; c++) {
+                Comarca comarca = new Comarca(COMARCAS[(i + c) % COMARCAS.length]);
+                comarca.setId((long) ((i + c) % COMARCAS.length + 1));
+                comarcas.add(comarca);
+            }
+            a.setComarcas(comarcas);
+
+            Credencial credencial = new Credencial(a, BASE_URL + "/public/verificar/" + (1000 + i), "benchmark");
+            credencial.setId((long) (1000 + i));
+            credencial.setDataEmissao(LocalDateTime.of(2025, 6, 1, 10, 0).plusHours(i));
+            a.setCredenciais(new LinkedHashSet<>(List.of(credencial)));
+            agentes.add(a);
+        }
+        return agentes;
+    }
+
+    static Credencial credencial(AgenteVoluntario agente) {
+        return agente.getCredenciais().iterator().next();
+    }
+
+    /** Foto 3x4 (450 x 600) com gradiente e ruído, codificada em JPEG. */
+    private static byte[] foto(Random random) {
+        BufferedImage img = new BufferedImage(450, 600, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = img.createGraphics();
+        g.setColor(new Color(200, 190, 170));
+        g.fillRect(0, 0, 450, 600);
+        g.setColor(new Color(120, 90, 70));
+        g.fillOval(110, 90, 230, 290);
+        g.fillRect(60, 400, 330, 200);
+        g.dispose();
+        for (int y = 0; y < 600; y++) {
+            for (int x = 0; x < 450; x++) {
+                int rgb = img.getRGB(x, y);
+                int ruido = random.nextInt(24) - 12;
+                int r = clamp(((rgb >> 16) & 0xFF) + ruido);
+                int gr = clamp(((rgb >> 8) & 0xFF) + ruido);
+                int b = clamp((rgb & 0xFF) + ruido);
+                img.setRGB(x, y, (r << 16) | (gr << 8) | b);
+            }
+        }
+        try {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            ImageIO.write(img, "jpg", out);
+            return out.toByteArray();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static int clamp(int v) {
+        return Math.max(0, Math.min(255, v));
+    }
+
+    static AgenteVoluntarioRepository agenteRepository(List<AgenteVoluntario> agentes) {
+        AgenteVoluntarioRepository repo = mock(AgenteVoluntarioRepository.class, withSettings().stubOnly());
+        when(repo.findById(anyLong())).thenAnswer(inv -> {
+            long id = inv.getArgument(0);
+            return id >= 1 && id <= agentes.size() ? Optional.of(agentes.get((int) id - 1)) : Optional.empty();
+        });
+        when(repo.findComComarcasByIdIn(anyCollection())).thenAnswer(inv -> {
+            Collection<Long> ids = inv.getArgument(0);
+            return ids.stream().filter(id -> id >= 1 && id <= agentes.size())
+                    .map(id -> agentes.get((int) (long) id - 1)).toList();
+        });
+        return repo;
+    }
+
+    static CredencialRepository credencialRepository(List<AgenteVoluntario> agentes) {
+        CredencialRepository repo = mock(CredencialRepository.class, withSettings().stubOnly());
+        when(repo.findFirstByAgenteIdOrderByDataEmissaoDescIdDesc(anyLong())).thenAnswer(inv -> {
+            long id = inv.getArgument(0);
+            return id >= 1 && id <= agentes.size() ? Optional.of(credencial(agentes.get((int) id - 1))) : Optional.empty();
+        });
+        when(repo.findById(anyLong())).thenAnswer(inv -> {
+            long id = inv.getArgument(0);
+            int indice = (int) (id - 1000);
+            return indice >= 1 && indice <= agentes.size()
+                    ? Optional.of(credencial(agentes.get(indice - 1))) : Optional.empty();
+        });
+        when(repo.findMaisRecentesByAgenteIdIn(anyCollection())).thenAnswer(inv -> {
+            Collection<Long> ids = inv.getArgument(0);
+            return ids.stream().filter(id -> id >= 1 && id <= agentes.size())
+                    .map(id -> credencial(agentes.get((int) (long) id - 1))).toList();
+        });
+        return repo;
+    }
+
+    /** @param capacidadeCache use 1 (e alterne URLs) para medir sempre a codificação completa */
+    static QRCodeUtil qrCodeUtil(int capacidadeCache) {
+        return new QRCodeUtil(capacidadeCache, new SimpleMeterRegistry());
+    }
+
+    static RecursosEstaticos recursosEstaticos() {
+        RecursosEstaticos recursos = new RecursosEstaticos();
+        ReflectionTestUtils.invokeMethod(recursos, "inicializar");
+        return recursos;
+    }
+
+    static HtmlPdfRenderer htmlPdfRenderer() {
+        HtmlPdfRenderer renderer = new HtmlPdfRenderer(new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(renderer, "poolSize", 4);
+        ReflectionTestUtils.setField(renderer, "aquecerNaInicializacao", true);
+        ReflectionTestUtils.invokeMethod(renderer, "inicializar");
+        return renderer;
+    }
+
+    static SpringTemplateEngine templateEngine() {
+        ClassLoaderTemplateResolver resolver = new ClassLoaderTemplateResolver();
+        resolver.setPrefix("templates/");
+        resolver.setSuffix(".html");
+        resolver.setTemplateMode(TemplateMode.HTML);
+        resolver.setCharacterEncoding("UTF-8");
+        resolver.setCacheable(true);
+        SpringTemplateEngine engine = new SpringTemplateEngine();
+        engine.setTemplateResolver(resolver);
+        return engine;
+    }
+
+    /**
+     * CarteirinhaService montado com as dependências reais de renderização e repositórios em memória.
+     *
+     * @param capacidadeCache use 1 (e alterne agentes) para medir sempre a renderização completa
+     * @param qrVetorial QR Code como SVG/retângulos (true) ou PNG (false)
+     */
+    static CarteirinhaService carteirinhaService(List<AgenteVoluntario> agentes, String renderizador,
+                                                 int capacidadeCache, boolean qrVetorial) {
+        RecursosEstaticos recursos = recursosEstaticos();
+        QRCodeUtil qrCodeUtil = qrCodeUtil(1);
+        ReflectionTestUtils.setField(qrCodeUtil, "vetorial", qrVetorial);
+        CarteirinhaPdfDireto direto = new CarteirinhaPdfDireto();
+        ReflectionTestUtils.setField(direto, "recursosEstaticos", recursos);
+        ReflectionTestUtils.setField(direto, "qrCodeUtil", qrCodeUtil);
+        ReflectionTestUtils.invokeMethod(direto, "inicializar");
+
+        CarteirinhaService service = new CarteirinhaService(4, capacidadeCache, new SimpleMeterRegistry(),
+                mock(PlatformTransactionManager.class, withSettings().stubOnly()));
+        ReflectionTestUtils.setField(service, "agenteRepository", agenteRepository(agentes));
+        ReflectionTestUtils.setField(service, "credencialRepository", credencialRepository(agentes));
+        ReflectionTestUtils.setField(service, "qrCodeUtil", qrCodeUtil);
+        ReflectionTestUtils.setField(service, "baseUrl", BASE_URL);
+        ReflectionTestUtils.setField(service, "templateEngine", templateEngine());
+        ReflectionTestUtils.setField(service, "pdfRenderer", htmlPdfRenderer());
+        ReflectionTestUtils.setField(service, "recursosEstaticos", recursos);
+        ReflectionTestUtils.setField(service, "cartaoDireto", direto);
+        ReflectionTestUtils.setField(service, "renderizador", renderizador);
+        ReflectionTestUtils.setField(service, "cartoesPorPagina", 4);
+        ReflectionTestUtils.setField(service, "agentesPorBloco", 100);
+        ReflectionTestUtils.setField(service, "entityManager", mock(EntityManager.class, withSettings().stubOnly()));
+        ReflectionTestUtils.setField(service, "limiteSpoolMemoria", DataSize.ofMegabytes(2));
+        ReflectionTestUtils.setField(service, "tamanhoMaximoEntradaCache", DataSize.ofKilobytes(512));
+        return service;
+    }
+
+    static CredencialService credencialService(List<AgenteVoluntario> agentes) {
+        CredencialService service = new CredencialService();
+        ReflectionTestUtils.setField(service, "credencialRepository", credencialRepository(agentes));
+        ReflectionTestUtils.setField(service, "agenteRepository", agenteRepository(agentes));
+        ReflectionTestUtils.setField(service, "qrCodeUtil", qrCodeUtil(1));
+        return service;
+    }
+}
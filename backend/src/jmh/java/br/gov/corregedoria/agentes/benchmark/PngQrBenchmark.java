@@ -0,0 +1,52 @@
+package br.gov.corregedoria.agentes.benchmark;
+
+import br.gov.corregedoria.agentes.util.PngMonocromatico;
+import com.google.zxing.BarcodeFormat;
+import com.google.zxing.client.j2se.MatrixToImageWriter;
+import com.google.zxing.common.BitMatrix;
+import com.google.zxing.qrcode.QRCodeWriter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayOutputStream;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Codificação PNG de uma matriz de QR 300x300 já gerada: MatrixToImageWriter (BufferedImage
+ * + ImageIO) contra o codificador de 1 bit. Rodar com {@code -prof gc} para comparar alocação.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PngQrBenchmark {
+
+    private BitMatrix matriz;
+
+    @Setup
+    public void preparar() throws Exception {
+        matriz = new QRCodeWriter().encode(Fixtures.BASE_URL + "/public/verificar/1001", BarcodeFormat.QR_CODE, 300, 300);
+    }
+
+    @Benchmark
+    public byte[] matrixToImageWriter() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        MatrixToImageWriter.writeToStream(matriz, "PNG", out);
+        return out.toByteArray();
+    }
+
+    @Benchmark
+    public byte[] pngMonocromatico() {
+        return PngMonocromatico.codificar(matriz);
+    }
+}
@@ -0,0 +1,51 @@
+package br.gov.corregedoria.agentes.benchmark;
+
+import br.gov.corregedoria.agentes.util.QRCodeUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Geração de QR Code (PNG) para URLs de verificação: codificação completa (cache de uma
+ * entrada e URLs alternadas) e leitura de URL já presente no cache.
+ */
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class QRCodeBenchmark {
+
+    private QRCodeUtil semCache;
+    private QRCodeUtil comCache;
+    private String urlEmCache;
+    private long sequencia;
+
+    @Setup
+    public void preparar() throws Exception {
+        semCache = Fixtures.qrCodeUtil(1);
+        comCache = Fixtures.qrCodeUtil(2000);
+        urlEmCache = comCache.gerarUrlVerificacao(Fixtures.BASE_URL, 1000L);
+        comCache.gerarPng(urlEmCache);
+    }
+
+    @Benchmark
+    public byte[] gerarSemCache() throws Exception {
+        return semCache.gerarPng(semCache.gerarUrlVerificacao(Fixtures.BASE_URL, 1000 + (sequencia++ & 1023)));
+    }
+
+    @Benchmark
+    public byte[] gerarComCache() throws Exception {
+        return comCache.gerarPng(urlEmCache);
+    }
+}
@@ -0,0 +1,21 @@
+package br.gov.corregedoria.agentes.config;
+
+/**
+ * Requisição pública recusada pelo {@link LimitePublico}; respondida com 429 e Retry-After.
+ */
+public class LimiteExcedidoException extends RuntimeException {
+
+    static final String MENSAGEM = "Limite de consultas excedido. Tente novamente em instantes.";
+
+    private final long esperaSegundos;
+
+    public LimiteExcedidoException(long esperaSegundos) {
+        super(MENSAGEM);
+        this.esperaSegundos = esperaSegundos;
+    }
+
+    /** Segundos até haver saldo para a requisição (valor do Retry-After). */
+    public long getEsperaSegundos() {
+        return esperaSegundos;
+    }
+}
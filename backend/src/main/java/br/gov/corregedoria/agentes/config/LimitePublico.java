@@ -0,0 +1,89 @@
+package br.gov.corregedoria.agentes.config;
+
+import br.gov.corregedoria.agentes.util.AuditoriaUtil;
+import br.gov.corregedoria.agentes.util.LimitadorTaxa;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Baldes de fichas das rotas públicas ({@code /public/**}, sem autenticação): um por IP de
+ * origem e um global, para que varreduras ou leitores de QR com defeito não esgotem o pool de
+ * conexões usado pelos servidores autenticados.
+ *
+ * O {@link LimitePublicoFilter} cobra uma ficha por requisição; rotas que fazem mais trabalho
+ * por requisição (consulta em lote) cobram o restante com {@link #exigir}. Recusas são contadas
+ * em {@code public.limite.rejeicoes} (tag {@code limite=ip|global}).
+ */
+@Component
+public class LimitePublico {
+
+    private final boolean habilitado;
+    private final LimitadorTaxa porIp;
+    private final LimitadorTaxa global;
+    private final Counter rejeicoesIp;
+    private final Counter rejeicoesGlobal;
+
+    public LimitePublico(@Value("${app.public.limite.habilitado:true}") boolean habilitado,
+                         @Value("${app.public.limite.por-ip.taxa:10}") double taxaPorIp,
+                         @Value("${app.public.limite.por-ip.rajada:20}") int rajadaPorIp,
+                         @Value("${app.public.limite.por-ip.listras:16384}") int listras,
+                         @Value("${app.public.limite.global.taxa:300}") double taxaGlobal,
+                         @Value("${app.public.limite.global.rajada:600}") int rajadaGlobal,
+                         MeterRegistry meterRegistry) {
+        this.habilitado = habilitado;
+        this.porIp = new LimitadorTaxa(taxaPorIp, rajadaPorIp, listras);
+        this.global = new LimitadorTaxa(taxaGlobal, rajadaGlobal, 1);
+        this.rejeicoesIp = Counter.builder("public.limite.rejeicoes")
+                .tag("limite", "ip")
+                .description("Requisições públicas recusadas pelo limite por IP")
+                .register(meterRegistry);
+        this.rejeicoesGlobal = Counter.builder("public.limite.rejeicoes")
+                .tag("limite", "global")
+                .description("Requisições públicas recusadas pelo limite global")
+                .register(meterRegistry);
+    }
+
+    public boolean isHabilitado() {
+        return habilitado;
+    }
+
+    /**
+     * Cobra {@code fichas} fichas nos baldes do IP de origem e global.
+     *
+     * @return 0 se admitida; senão, a espera (em segundos, arredondada para cima) até haver saldo
+     */
+    public long cobrar(HttpServletRequest request, int fichas) {
+        if (!habilitado || fichas < 1) {
+            return 0;
+        }
+        long espera = porIp.tentar(AuditoriaUtil.obterIpOrigem(request), fichas);
+        if (espera > 0) {
+            rejeicoesIp.increment();
+            return segundos(espera);
+        }
+        espera = global.tentarFichas(fichas);
+        if (espera > 0) {
+            rejeicoesGlobal.increment();
+            return segundos(espera);
+        }
+        return 0;
+    }
+
+    /**
+     * Cobra {@code fichas} fichas como {@link #cobrar}, recusando com {@link LimiteExcedidoException}
+     * (429 + Retry-After pelo {@link GlobalExceptionHandler}) se faltar saldo.
+     */
+    public void exigir(HttpServletRequest request, int fichas) {
+        long espera = cobrar(request, fichas);
+        if (espera > 0) {
+            throw new LimiteExcedidoException(espera);
+        }
+    }
+
+    private static long segundos(long esperaNanos) {
+        return Math.max(1, (esperaNanos + 999_999_999L) / 1_000_000_000L);
+    }
+}
@@ -0,0 +1,56 @@
+package br.gov.corregedoria.agentes.config;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Controle de admissão das rotas públicas ({@code /public/**}): roda antes da cadeia do Spring
+ * Security e cobra uma ficha por requisição no {@link LimitePublico}. Requisições recusadas
+ * recebem 429 com Retry-After, escrito aqui por estarem fora do Spring MVC.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 10)
+public class LimitePublicoFilter extends OncePerRequestFilter {
+
+    private static final byte[] CORPO_429 = ("{\"error\":\"TOO_MANY_REQUESTS\","
+            + "\"message\":\"" + LimiteExcedidoException.MENSAGEM + "\"}")
+            .getBytes(StandardCharsets.UTF_8);
+
+    private final LimitePublico limite;
+
+    public LimitePublicoFilter(LimitePublico limite) {
+        this.limite = limite;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !limite.isHabilitado() || !request.getRequestURI().startsWith(request.getContextPath() + "/public/");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        long espera = limite.cobrar(request, 1);
+        if (espera > 0) {
+            response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+            response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(espera));
+            response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            response.setContentLength(CORPO_429.length);
+            response.getOutputStream().write(CORPO_429);
+            return;
+        }
+        chain.doFilter(request, response);
+    }
+}
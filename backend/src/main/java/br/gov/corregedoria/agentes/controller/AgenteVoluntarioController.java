@@ -4,6 +4,7 @@ import br.gov.corregedoria.agentes.dto.AgenteVoluntarioDTO;
 import br.gov.corregedoria.agentes.dto.AgenteVoluntarioResponseDTO;
 import br.gov.corregedoria.agentes.entity.StatusAgente;
 import br.gov.corregedoria.agentes.service.AgenteVoluntarioService;
+import br.gov.corregedoria.agentes.service.FotoBackfillService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
@@ -33,6 +34,9 @@ public class AgenteVoluntarioController {
     @Autowired
     private AgenteVoluntarioService agenteService;
 
+    @Autowired
+    private FotoBackfillService fotoBackfillService;
+
     @Operation(summary = "Cadastrar novo agente voluntário", 
                description = "Cadastra um novo agente voluntário no sistema")
     @ApiResponses(value = {
@@ -297,4 +301,25 @@ public class AgenteVoluntarioController {
         boolean podeEmitir = agenteService.podeEmitirCredencial(id);
         return ResponseEntity.ok(podeEmitir);
     }
+
+    @Operation(summary = "Normalizar fotos já cadastradas",
+               description = "Inicia em segundo plano a redução/recodificação das fotos gravadas antes da normalização no cadastro")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "202", description = "Normalização iniciada"),
+        @ApiResponse(responseCode = "409", description = "Normalização já em execução"),
+        @ApiResponse(responseCode = "403", description = "Acesso negado")
+    })
+    @PostMapping("/fotos/normalizar")
+    @PreAuthorize("hasRole('CORREGEDORIA')")
+    public ResponseEntity<FotoBackfillService.Andamento> normalizarFotos() {
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(fotoBackfillService.iniciar());
+    }
+
+    @Operation(summary = "Andamento da normalização de fotos",
+               description = "Retorna o progresso da última normalização de fotos iniciada")
+    @GetMapping("/fotos/normalizar")
+    @PreAuthorize("hasRole('CORREGEDORIA')")
+    public ResponseEntity<FotoBackfillService.Andamento> andamentoNormalizacaoFotos() {
+        return ResponseEntity.ok(fotoBackfillService.getAndamento());
+    }
 }
@@ -1,15 +1,21 @@
 package br.gov.corregedoria.agentes.controller;
 
+import br.gov.corregedoria.agentes.dto.CarteirinhaLoteJobDTO;
+import br.gov.corregedoria.agentes.service.CarteirinhaLoteJobService;
 import br.gov.corregedoria.agentes.service.CarteirinhaService;
 import br.gov.corregedoria.agentes.util.AuditoriaUtil;
+import br.gov.corregedoria.agentes.util.SpoolOutputStream;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
 import java.util.List;
 
 @RestController
@@ -19,10 +25,13 @@ import java.util.List;
 public class CarteirinhaController {
 
     private final CarteirinhaService carteirinhaService;
+    private final CarteirinhaLoteJobService loteJobService;
     private final AuditoriaUtil auditoriaUtil;
 
-    public CarteirinhaController(CarteirinhaService carteirinhaService, AuditoriaUtil auditoriaUtil) {
+    public CarteirinhaController(CarteirinhaService carteirinhaService, CarteirinhaLoteJobService loteJobService,
+                                 AuditoriaUtil auditoriaUtil) {
         this.carteirinhaService = carteirinhaService;
+        this.loteJobService = loteJobService;
         this.auditoriaUtil = auditoriaUtil;
     }
 
@@ -40,39 +49,79 @@ public class CarteirinhaController {
     @Operation(summary = "Preview da carteirinha (PDF inline)")
     @GetMapping("/preview/{agenteId}")
     @PreAuthorize("hasRole('CORREGEDORIA') or hasRole('AGENTE')")
-    public ResponseEntity<byte[]> preview(@PathVariable Long agenteId, Authentication authentication) throws Exception {
-        byte[] pdf = carteirinhaService.gerarPdf(agenteId, true);
+    public ResponseEntity<StreamingResponseBody> preview(@PathVariable Long agenteId, Authentication authentication) throws Exception {
+        SpoolOutputStream pdf = carteirinhaService.gerarPdfSpool(agenteId, true);
         //auditoriaUtil.registrarLog(authentication != null ? authentication.getName() : "anon", "PREVIEW_CARTEIRINHA", "Agente=" + agenteId);
-        return ResponseEntity.ok()
-                .header(HttpHeaders.CONTENT_DISPOSITION, "inline; filename=carteirinha_preview.pdf")
-                .contentType(MediaType.APPLICATION_PDF)
-                .body(pdf);
+        return responderPdf(pdf, "inline; filename=carteirinha_preview.pdf");
     }
 
     @Operation(summary = "Gerar carteirinha (PDF para download)")
     @GetMapping("/gerar/{agenteId}")
     @PreAuthorize("hasRole('CORREGEDORIA') or hasRole('AGENTE')")
-    public ResponseEntity<byte[]> gerar(@PathVariable Long agenteId, Authentication authentication) throws Exception {
-        byte[] pdf = carteirinhaService.gerarPdf(agenteId, false);
+    public ResponseEntity<StreamingResponseBody> gerar(@PathVariable Long agenteId, Authentication authentication) throws Exception {
+        SpoolOutputStream pdf = carteirinhaService.gerarPdfSpool(agenteId, false);
         //auditoriaUtil.registrarLog(authentication != null ? authentication.getName() : "anon", "GERAR_CARTEIRINHA", "Agente=" + agenteId);
-        return ResponseEntity.ok()
-                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=carteirinha_" + agenteId + ".pdf")
-                .contentType(MediaType.APPLICATION_PDF)
-                .body(pdf);
+        return responderPdf(pdf, "attachment; filename=carteirinha_" + agenteId + ".pdf");
     }
 
     @Operation(summary = "Gerar carteirinhas selecionadas (PDF único)")
     @PostMapping("/lote")
     @PreAuthorize("hasRole('CORREGEDORIA')")
-    public ResponseEntity<byte[]> gerarLote(@RequestBody List<Long> agenteIds, Authentication authentication) throws Exception {
+    public ResponseEntity<StreamingResponseBody> gerarLote(@RequestBody List<Long> agenteIds, Authentication authentication) throws Exception {
         if (agenteIds == null || agenteIds.isEmpty()) {
             return ResponseEntity.badRequest().build();
         }
-        byte[] pdf = carteirinhaService.gerarPdfLote(agenteIds);
+        SpoolOutputStream pdf = carteirinhaService.gerarPdfLote(agenteIds);
         //auditoriaUtil.registrarLog(authentication != null ? authentication.getName() : "anon", "GERAR_CARTEIRINHAS_LOTE", "qtde=" + agenteIds.size());
+        return responderPdf(pdf, "attachment; filename=carteirinhas_lote.pdf");
+    }
+
+    @Operation(summary = "Agendar geração de carteirinhas em lote (assíncrona)")
+    @PostMapping("/lote/jobs")
+    @PreAuthorize("hasRole('CORREGEDORIA')")
+    public ResponseEntity<CarteirinhaLoteJobDTO> criarJobLote(@RequestBody List<Long> agenteIds, Authentication authentication) {
+        String usuario = authentication != null ? authentication.getName() : "anon";
+        CarteirinhaLoteJobDTO job = loteJobService.criarJob(agenteIds, usuario);
+        return ResponseEntity.status(HttpStatus.ACCEPTED)
+                .header(HttpHeaders.LOCATION, "/carteirinha/lote/jobs/" + job.getId())
+                .body(job);
+    }
+
+    @Operation(summary = "Consultar andamento de um job de carteirinhas em lote")
+    @GetMapping("/lote/jobs/{jobId}")
+    @PreAuthorize("hasRole('CORREGEDORIA')")
+    public ResponseEntity<CarteirinhaLoteJobDTO> consultarJobLote(@PathVariable Long jobId) {
+        return ResponseEntity.ok(loteJobService.buscarJob(jobId));
+    }
+
+    @Operation(summary = "Baixar o PDF de um job de carteirinhas em lote concluído")
+    @GetMapping("/lote/jobs/{jobId}/arquivo")
+    @PreAuthorize("hasRole('CORREGEDORIA')")
+    public ResponseEntity<StreamingResponseBody> baixarJobLote(@PathVariable Long jobId) throws Exception {
+        long tamanho = loteJobService.obterTamanhoArquivo(jobId);
+        StreamingResponseBody body = out -> loteJobService.transferirArquivo(jobId, out);
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=carteirinhas_lote_" + jobId + ".pdf")
+                .contentType(MediaType.APPLICATION_PDF)
+                .contentLength(tamanho)
+                .body(body);
+    }
+
+    /**
+     * Transmite o PDF do spool para o cliente e remove o arquivo temporário ao final.
+     */
+    private ResponseEntity<StreamingResponseBody> responderPdf(SpoolOutputStream pdf, String contentDisposition) {
+        StreamingResponseBody body = out -> {
+            try {
+                pdf.transferirPara(out);
+            } finally {
+                pdf.descartar();
+            }
+        };
         return ResponseEntity.ok()
-                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=carteirinhas_lote.pdf")
+                .header(HttpHeaders.CONTENT_DISPOSITION, contentDisposition)
                 .contentType(MediaType.APPLICATION_PDF)
-                .body(pdf);
+                .contentLength(pdf.tamanho())
+                .body(body);
     }
 }
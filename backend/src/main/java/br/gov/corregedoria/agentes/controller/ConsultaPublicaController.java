@@ -1,15 +1,31 @@
 package br.gov.corregedoria.agentes.controller;
 
+import br.gov.corregedoria.agentes.config.LimitePublico;
 import br.gov.corregedoria.agentes.dto.ConsultaPublicaDTO;
+import br.gov.corregedoria.agentes.dto.ResultadoVerificacaoLoteDTO;
+import br.gov.corregedoria.agentes.dto.VerificacaoLoteDTO;
+import br.gov.corregedoria.agentes.dto.VerificacaoTokenDTO;
 import br.gov.corregedoria.agentes.service.ConsultaPublicaService;
+import br.gov.corregedoria.agentes.service.CredencialTokenService;
+import br.gov.corregedoria.agentes.service.PaginaVerificacaoService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+
+import java.time.Duration;
+import java.util.Map;
 
 
 @RestController
@@ -21,6 +37,23 @@ public class ConsultaPublicaController {
     @Autowired
     private ConsultaPublicaService consultaPublicaService;
 
+    @Autowired
+    private CredencialTokenService tokenService;
+
+    @Autowired
+    private PaginaVerificacaoService paginaVerificacaoService;
+
+    @Autowired
+    private LimitePublico limitePublico;
+
+    /** Tempo que navegadores e proxies podem reutilizar a resposta sem revalidar. */
+    @Value("${app.consulta-publica.http.max-age:PT1M}")
+    private Duration maxAge;
+
+    /** Tempo extra em que a resposta vencida pode ser servida enquanto é revalidada. */
+    @Value("${app.consulta-publica.http.stale-while-revalidate:PT5M}")
+    private Duration staleWhileRevalidate;
+
     @Operation(summary = "Verificar credencial via QR Code", 
                description = "Consulta pública para verificação de credencial através do QR Code")
     @ApiResponses(value = {
@@ -30,16 +63,75 @@ public class ConsultaPublicaController {
     @GetMapping("/verificar/{chave}")
     public ResponseEntity<ConsultaPublicaDTO> verificarCredencial(
             @Parameter(description = "Chave da credencial (ID numérico ou usuario_emissao)")
-            @PathVariable String chave) {
+            @PathVariable String chave,
+            WebRequest request) {
+
+        try {
+            ConsultaPublicaService.ConsultaVersionada consulta = consultaPublicaService.consultarVersionada(chave);
+            // checkNotModified grava ETag/Last-Modified na resposta e responde If-None-Match/If-Modified-Since
+            if (request.checkNotModified(consulta.etag(), consulta.ultimaAlteracao())) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).cacheControl(cacheControl()).build();
+            }
+            return ResponseEntity.ok().cacheControl(cacheControl()).body(consulta.dados());
+        } catch (Exception e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+
+    @Operation(summary = "Verificar credenciais em lote",
+               description = "Consulta pública de várias chaves de credencial (ID ou usuario_emissao) numa única "
+                       + "requisição, com o resultado de cada chave na ordem enviada")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Lote verificado (ver resultado por chave)"),
+        @ApiResponse(responseCode = "400", description = "Lote vazio ou acima do máximo permitido"),
+        @ApiResponse(responseCode = "429", description = "Limite de consultas excedido (uma ficha por chave)")
+    })
+    @PostMapping("/verificar/lote")
+    public ResponseEntity<ResultadoVerificacaoLoteDTO> verificarLote(@RequestBody VerificacaoLoteDTO pedido,
+                                                                     HttpServletRequest request) {
+        consultaPublicaService.validarLote(pedido.getChaves());
+        // O filtro já cobrou uma ficha pela requisição; cada chave adicional custa mais uma
+        limitePublico.exigir(request, pedido.getChaves().size() - 1);
+        return ResponseEntity.ok(consultaPublicaService.consultarLote(pedido.getChaves()));
+    }
+
+    @Operation(summary = "Verificar credencial via token assinado",
+               description = "Confere a assinatura do token do QR Code sem consulta ao banco; "
+                       + "apenas a revogação é checada no banco")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Token válido - dados públicos retornados"),
+        @ApiResponse(responseCode = "404", description = "Token inválido ou credencial revogada")
+    })
+    @GetMapping("/verificar/token/{token}")
+    public ResponseEntity<VerificacaoTokenDTO> verificarToken(
+            @Parameter(description = "Token assinado da credencial")
+            @PathVariable String token) {
 
         try {
-            ConsultaPublicaDTO response = consultaPublicaService.consultarCredencialPorChave(chave);
-            return ResponseEntity.ok(response);
+            return ResponseEntity.ok(consultaPublicaService.verificarToken(token));
         } catch (Exception e) {
             return ResponseEntity.notFound().build();
         }
     }
 
+    @Operation(summary = "Chave pública dos tokens de credencial",
+               description = "Chave para verificação offline dos tokens assinados dos QR Codes")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Chave pública retornada"),
+        @ApiResponse(responseCode = "404", description = "Tokens de credencial desabilitados")
+    })
+    @GetMapping("/credencial/chave-publica")
+    public ResponseEntity<Map<String, String>> chavePublicaToken() {
+        String chave = tokenService.getChavePublica();
+        if (chave == null) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(Map.of(
+                "algoritmo", tokenService.getAlgoritmo(),
+                "formato", "X.509",
+                "chavePublica", chave));
+    }
+
     @Operation(summary = "Verificar validade da credencial", 
                description = "Verifica apenas se uma credencial é válida (retorna true/false)")
     @ApiResponses(value = {
@@ -48,126 +140,60 @@ public class ConsultaPublicaController {
     @GetMapping("/validar/{credencialId}")
     public ResponseEntity<Boolean> validarCredencial(
             @Parameter(description = "ID da credencial")
-            @PathVariable Long credencialId) {
+            @PathVariable Long credencialId,
+            WebRequest request) {
         
         boolean valida = consultaPublicaService.credencialValida(credencialId);
-        return ResponseEntity.ok(valida);
+        // A resposta só depende da existência da credencial. Um "não existe" pode deixar de valer
+        // com a próxima emissão, então é sempre revalidado (If-None-Match) em vez de reaproveitado
+        CacheControl cacheControl = valida ? cacheControl() : CacheControl.noCache();
+        if (request.checkNotModified(valida ? "W/\"1\"" : "W/\"0\"")) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).cacheControl(cacheControl).build();
+        }
+        return ResponseEntity.ok().cacheControl(cacheControl).body(valida);
     }
 
     @Operation(summary = "Página de verificação", 
                description = "Página HTML para exibição dos dados públicos do agente")
     @GetMapping("/verificar/{credencialId}/pagina")
-    public ResponseEntity<String> paginaVerificacao(
+    public ResponseEntity<byte[]> paginaVerificacao(
             @Parameter(description = "ID da credencial")
-            @PathVariable Long credencialId) {
-        
+            @PathVariable Long credencialId,
+            WebRequest request) {
+
+        // Páginas pré-renderizadas e pré-comprimidas: nenhuma compressão por requisição
+        boolean gzip = PaginaVerificacaoService.aceitaGzip(request.getHeader(HttpHeaders.ACCEPT_ENCODING));
+        PaginaVerificacaoService.PaginaRenderizada pagina;
         try {
-            ConsultaPublicaDTO dados = consultaPublicaService.consultarCredencial(credencialId);
-            
-            String html = gerarPaginaHTML(dados);
-            return ResponseEntity.ok()
-                    .header("Content-Type", "text/html; charset=UTF-8")
-                    .body(html);
+            ConsultaPublicaService.ConsultaVersionada consulta =
+                    consultaPublicaService.consultarVersionada(String.valueOf(credencialId));
+            String etag = gzip ? PaginaVerificacaoService.etagGzip(consulta.etag()) : consulta.etag();
+            if (request.checkNotModified(etag, consulta.ultimaAlteracao())) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                        .cacheControl(cacheControl())
+                        .varyBy(HttpHeaders.ACCEPT_ENCODING)
+                        .build();
+            }
+            pagina = paginaVerificacaoService.obter(credencialId, consulta);
         } catch (Exception e) {
-            String htmlErro = gerarPaginaErro();
-            return ResponseEntity.ok()
-                    .header("Content-Type", "text/html; charset=UTF-8")
-                    .body(htmlErro);
+            return corpoPagina(ResponseEntity.ok(), paginaVerificacaoService.paginaErro(), gzip);
         }
+        return corpoPagina(ResponseEntity.ok().cacheControl(cacheControl()), pagina, gzip);
     }
 
-    private String gerarPaginaHTML(ConsultaPublicaDTO dados) {
-        return """
-            <!DOCTYPE html>
-            <html lang="pt-BR">
-            <head>
-                <meta charset="UTF-8">
-                <meta name="viewport" content="width=device-width, initial-scale=1.0">
-                <title>Verificação de Credencial - Agente Voluntário</title>
-                <style>
-                    body { font-family: Arial, sans-serif; margin: 20px; background-color: #f5f5f5; }
-                    .container { max-width: 600px; margin: 0 auto; background: white; padding: 30px; border-radius: 8px; box-shadow: 0 2px 10px rgba(0,0,0,0.1); }
-                    .header { text-align: center; margin-bottom: 30px; }
-                    .logo { color: #2c5aa0; font-size: 24px; font-weight: bold; }
-                    .status-ativo { color: #28a745; font-weight: bold; }
-                    .status-inativo { color: #dc3545; font-weight: bold; }
-                    .info-item { margin: 15px 0; padding: 10px; background-color: #f8f9fa; border-left: 4px solid #2c5aa0; }
-                    .info-label { font-weight: bold; color: #495057; }
-                    .info-value { color: #212529; margin-top: 5px; }
-                    .footer { text-align: center; margin-top: 30px; font-size: 12px; color: #6c757d; }
-                </style>
-            </head>
-            <body>
-                <div class="container">
-                    <div class="header">
-                        <div class="logo">🏛️ Corregedoria</div>
-                        <h2>Verificação de Credencial</h2>
-                        <p>Agente Voluntário da Infância e Juventude</p>
-                    </div>
-                    
-                    <div class="info-item">
-                        <div class="info-label">Nome Completo:</div>
-                        <div class="info-value">%s</div>
-                    </div>
-                    
-                    <div class="info-item">
-                        <div class="info-label">Situação Atual:</div>
-                        <div class="info-value %s">%s</div>
-                    </div>
-                    
-                    <div class="info-item">
-                        <div class="info-label">Comarca(s) de Atuação:</div>
-                        <div class="info-value">%s</div>
-                    </div>
-                    
-                    <div class="info-item">
-                        <div class="info-label">Data de Cadastro:</div>
-                        <div class="info-value">%s</div>
-                    </div>
-                    
-                    <div class="footer">
-                        <p>✅ Credencial verificada em %s</p>
-                        <p>Esta consulta é pública e exibe apenas informações básicas do agente.</p>
-                    </div>
-                </div>
-            </body>
-            </html>
-            """.formatted(
-                dados.getNomeCompleto(),
-                dados.getSituacao().equals("Ativo") ? "status-ativo" : "status-inativo",
-                dados.getSituacao(),
-                dados.getComarcasAtuacao(),
-                dados.getDataCadastro(),
-                java.time.LocalDateTime.now().format(java.time.format.DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm"))
-            );
+    private static ResponseEntity<byte[]> corpoPagina(ResponseEntity.BodyBuilder resposta,
+                                                      PaginaVerificacaoService.PaginaRenderizada pagina,
+                                                      boolean gzip) {
+        resposta.contentType(MediaType.parseMediaType("text/html; charset=UTF-8"))
+                .varyBy(HttpHeaders.ACCEPT_ENCODING);
+        if (gzip) {
+            resposta.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+            return resposta.body(pagina.gzip());
+        }
+        return resposta.body(pagina.html());
     }
 
-    private String gerarPaginaErro() {
-        return """
-            <!DOCTYPE html>
-            <html lang="pt-BR">
-            <head>
-                <meta charset="UTF-8">
-                <meta name="viewport" content="width=device-width, initial-scale=1.0">
-                <title>Credencial Inválida</title>
-                <style>
-                    body { font-family: Arial, sans-serif; margin: 20px; background-color: #f5f5f5; }
-                    .container { max-width: 600px; margin: 0 auto; background: white; padding: 30px; border-radius: 8px; box-shadow: 0 2px 10px rgba(0,0,0,0.1); text-align: center; }
-                    .error { color: #dc3545; font-size: 18px; margin: 20px 0; }
-                    .logo { color: #2c5aa0; font-size: 24px; font-weight: bold; margin-bottom: 20px; }
-                </style>
-            </head>
-            <body>
-                <div class="container">
-                    <div class="logo">🏛️ Corregedoria</div>
-                    <h2>❌ Credencial Inválida</h2>
-                    <div class="error">
-                        O QR Code escaneado não corresponde a uma credencial válida ou a credencial pode ter sido revogada.
-                    </div>
-                    <p>Por favor, verifique se o QR Code está correto ou entre em contato com a Corregedoria para mais informações.</p>
-                </div>
-            </body>
-            </html>
-            """;
+    private CacheControl cacheControl() {
+        return CacheControl.maxAge(maxAge).cachePublic().staleWhileRevalidate(staleWhileRevalidate);
     }
 }
@@ -1,6 +1,10 @@
 package br.gov.corregedoria.agentes.controller;
 
 import br.gov.corregedoria.agentes.dto.CredencialDTO;
+import br.gov.corregedoria.agentes.dto.EmissaoCredencialLoteDTO;
+import br.gov.corregedoria.agentes.dto.ResultadoEmissaoLoteDTO;
+import br.gov.corregedoria.agentes.service.ConsultaPublicaProjecaoService;
+import br.gov.corregedoria.agentes.service.CredencialArtefatoBackfillService;
 import br.gov.corregedoria.agentes.service.CredencialService;
 import com.google.zxing.WriterException;
 import io.swagger.v3.oas.annotations.Operation;
@@ -29,6 +33,12 @@ public class CredencialController {
     @Autowired
     private CredencialService credencialService;
 
+    @Autowired
+    private CredencialArtefatoBackfillService artefatoBackfillService;
+
+    @Autowired
+    private ConsultaPublicaProjecaoService projecaoService;
+
     @Operation(summary = "Emitir credencial para agente", 
                description = "Emite uma nova credencial para um agente ativo")
     @ApiResponses(value = {
@@ -48,6 +58,24 @@ public class CredencialController {
         return ResponseEntity.status(HttpStatus.CREATED).body(response);
     }
 
+    @Operation(summary = "Emitir credenciais em lote",
+               description = "Emite credenciais para uma lista de agentes ou para os agentes ativos de uma comarca, "
+                       + "retornando a situação de cada agente")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Lote processado (ver situação por agente)"),
+        @ApiResponse(responseCode = "400", description = "Lote acima do máximo permitido"),
+        @ApiResponse(responseCode = "403", description = "Acesso negado")
+    })
+    @PostMapping("/emitir/lote")
+    @PreAuthorize("hasRole('CORREGEDORIA')")
+    public ResponseEntity<ResultadoEmissaoLoteDTO> emitirCredenciaisEmLote(
+            @RequestBody EmissaoCredencialLoteDTO pedido,
+            Authentication authentication) {
+
+        String usuarioLogado = authentication.getName();
+        return ResponseEntity.ok(credencialService.emitirCredenciaisEmLote(pedido, usuarioLogado));
+    }
+
     @Operation(summary = "Listar credenciais do agente", 
                description = "Lista todas as credenciais emitidas para um agente")
     @ApiResponses(value = {
@@ -102,4 +130,46 @@ public class CredencialController {
                 .headers(headers)
                 .body(pdfBytes);
     }
+
+    @Operation(summary = "Gerar PDFs pré-renderizados das credenciais",
+               description = "Inicia em segundo plano a gravação do PDF das credenciais emitidas sem artefato")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "202", description = "Geração iniciada"),
+        @ApiResponse(responseCode = "409", description = "Artefatos desabilitados ou geração já em execução"),
+        @ApiResponse(responseCode = "403", description = "Acesso negado")
+    })
+    @PostMapping("/artefatos/gerar")
+    @PreAuthorize("hasRole('CORREGEDORIA')")
+    public ResponseEntity<CredencialArtefatoBackfillService.Andamento> gerarArtefatos() {
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(artefatoBackfillService.iniciar());
+    }
+
+    @Operation(summary = "Andamento da geração de artefatos",
+               description = "Retorna o progresso da última geração de PDFs pré-renderizados iniciada")
+    @GetMapping("/artefatos/gerar")
+    @PreAuthorize("hasRole('CORREGEDORIA')")
+    public ResponseEntity<CredencialArtefatoBackfillService.Andamento> andamentoArtefatos() {
+        return ResponseEntity.ok(artefatoBackfillService.getAndamento());
+    }
+
+    @Operation(summary = "Reconstruir projeção da consulta pública",
+               description = "Inicia em segundo plano a regravação dos dados públicos de todas as credenciais")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "202", description = "Reconstrução iniciada"),
+        @ApiResponse(responseCode = "409", description = "Reconstrução já em execução"),
+        @ApiResponse(responseCode = "403", description = "Acesso negado")
+    })
+    @PostMapping("/consulta-publica/reconstruir")
+    @PreAuthorize("hasRole('CORREGEDORIA')")
+    public ResponseEntity<ConsultaPublicaProjecaoService.Andamento> reconstruirConsultaPublica() {
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(projecaoService.iniciarReconstrucao());
+    }
+
+    @Operation(summary = "Andamento da reconstrução da consulta pública",
+               description = "Retorna o progresso da última reconstrução da projeção iniciada")
+    @GetMapping("/consulta-publica/reconstruir")
+    @PreAuthorize("hasRole('CORREGEDORIA')")
+    public ResponseEntity<ConsultaPublicaProjecaoService.Andamento> andamentoConsultaPublica() {
+        return ResponseEntity.ok(projecaoService.getAndamento());
+    }
 }
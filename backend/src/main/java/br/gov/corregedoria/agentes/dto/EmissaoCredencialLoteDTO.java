@@ -0,0 +1,46 @@
+package br.gov.corregedoria.agentes.dto;
+
+import java.util.List;
+
+/**
+ * Pedido de emissão de credenciais em lote: lista explícita de agentes ou filtro.
+ * Com {@code agenteIds} informado o filtro é ignorado.
+ */
+public class EmissaoCredencialLoteDTO {
+
+    private List<Long> agenteIds;
+
+    /** Filtro: agentes ativos da comarca informada (todas, se vazio). */
+    private String comarca;
+
+    /** Não emite para agentes que já possuem credencial (padrão). */
+    private boolean apenasSemCredencial = true;
+
+    // Construtores
+    public EmissaoCredencialLoteDTO() {}
+
+    // Getters e Setters
+    public List<Long> getAgenteIds() {
+        return agenteIds;
+    }
+
+    public void setAgenteIds(List<Long> agenteIds) {
+        this.agenteIds = agenteIds;
+    }
+
+    public String getComarca() {
+        return comarca;
+    }
+
+    public void setComarca(String comarca) {
+        this.comarca = comarca;
+    }
+
+    public boolean isApenasSemCredencial() {
+        return apenasSemCredencial;
+    }
+
+    public void setApenasSemCredencial(boolean apenasSemCredencial) {
+        this.apenasSemCredencial = apenasSemCredencial;
+    }
+}
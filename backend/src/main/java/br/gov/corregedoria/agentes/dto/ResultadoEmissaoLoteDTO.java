@@ -0,0 +1,97 @@
+package br.gov.corregedoria.agentes.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Relatório da emissão em lote, com a situação de cada agente solicitado.
+ */
+public class ResultadoEmissaoLoteDTO {
+
+    public static final String EMITIDA = "EMITIDA";
+    public static final String NAO_ENCONTRADO = "NAO_ENCONTRADO";
+    public static final String AGENTE_NAO_ATIVO = "AGENTE_NAO_ATIVO";
+    public static final String JA_POSSUI_CREDENCIAL = "JA_POSSUI_CREDENCIAL";
+
+    private int emitidas;
+    private int ignorados;
+    private List<Item> itens = new ArrayList<>();
+
+    public static class Item {
+        private Long agenteId;
+        private String situacao;
+        private Long credencialId;
+        private String mensagem;
+
+        // Construtores
+        public Item() {}
+
+        public Item(Long agenteId, String situacao, Long credencialId, String mensagem) {
+            this.agenteId = agenteId;
+            this.situacao = situacao;
+            this.credencialId = credencialId;
+            this.mensagem = mensagem;
+        }
+
+        // Getters e Setters
+        public Long getAgenteId() {
+            return agenteId;
+        }
+
+        public void setAgenteId(Long agenteId) {
+            this.agenteId = agenteId;
+        }
+
+        public String getSituacao() {
+            return situacao;
+        }
+
+        public void setSituacao(String situacao) {
+            this.situacao = situacao;
+        }
+
+        public Long getCredencialId() {
+            return credencialId;
+        }
+
+        public void setCredencialId(Long credencialId) {
+            this.credencialId = credencialId;
+        }
+
+        public String getMensagem() {
+            return mensagem;
+        }
+
+        public void setMensagem(String mensagem) {
+            this.mensagem = mensagem;
+        }
+    }
+
+    // Construtores
+    public ResultadoEmissaoLoteDTO() {}
+
+    // Getters e Setters
+    public int getEmitidas() {
+        return emitidas;
+    }
+
+    public void setEmitidas(int emitidas) {
+        this.emitidas = emitidas;
+    }
+
+    public int getIgnorados() {
+        return ignorados;
+    }
+
+    public void setIgnorados(int ignorados) {
+        this.ignorados = ignorados;
+    }
+
+    public List<Item> getItens() {
+        return itens;
+    }
+
+    public void setItens(List<Item> itens) {
+        this.itens = itens;
+    }
+}
@@ -0,0 +1,82 @@
+package br.gov.corregedoria.agentes.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Resultado da verificação pública em lote, um item por chave na ordem recebida.
+ */
+public class ResultadoVerificacaoLoteDTO {
+
+    private int encontradas;
+    private int naoEncontradas;
+    private List<Item> itens = new ArrayList<>();
+
+    public static class Item {
+        private String chave;
+        private boolean encontrada;
+        private ConsultaPublicaDTO credencial;
+
+        // Construtores
+        public Item() {}
+
+        public Item(String chave, boolean encontrada, ConsultaPublicaDTO credencial) {
+            this.chave = chave;
+            this.encontrada = encontrada;
+            this.credencial = credencial;
+        }
+
+        // Getters e Setters
+        public String getChave() {
+            return chave;
+        }
+
+        public void setChave(String chave) {
+            this.chave = chave;
+        }
+
+        public boolean isEncontrada() {
+            return encontrada;
+        }
+
+        public void setEncontrada(boolean encontrada) {
+            this.encontrada = encontrada;
+        }
+
+        public ConsultaPublicaDTO getCredencial() {
+            return credencial;
+        }
+
+        public void setCredencial(ConsultaPublicaDTO credencial) {
+            this.credencial = credencial;
+        }
+    }
+
+    // Construtores
+    public ResultadoVerificacaoLoteDTO() {}
+
+    // Getters e Setters
+    public int getEncontradas() {
+        return encontradas;
+    }
+
+    public void setEncontradas(int encontradas) {
+        this.encontradas = encontradas;
+    }
+
+    public int getNaoEncontradas() {
+        return naoEncontradas;
+    }
+
+    public void setNaoEncontradas(int naoEncontradas) {
+        this.naoEncontradas = naoEncontradas;
+    }
+
+    public List<Item> getItens() {
+        return itens;
+    }
+
+    public void setItens(List<Item> itens) {
+        this.itens = itens;
+    }
+}
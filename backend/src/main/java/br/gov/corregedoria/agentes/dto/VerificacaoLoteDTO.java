@@ -0,0 +1,27 @@
+package br.gov.corregedoria.agentes.dto;
+
+import java.util.List;
+
+/**
+ * Pedido de verificação pública em lote: chaves lidas dos QR Codes (ID ou usuarioEmissao).
+ */
+public class VerificacaoLoteDTO {
+
+    private List<String> chaves;
+
+    // Construtores
+    public VerificacaoLoteDTO() {}
+
+    public VerificacaoLoteDTO(List<String> chaves) {
+        this.chaves = chaves;
+    }
+
+    // Getters e Setters
+    public List<String> getChaves() {
+        return chaves;
+    }
+
+    public void setChaves(List<String> chaves) {
+        this.chaves = chaves;
+    }
+}
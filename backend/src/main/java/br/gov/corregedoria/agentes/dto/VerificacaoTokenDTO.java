@@ -0,0 +1,76 @@
+package br.gov.corregedoria.agentes.dto;
+
+/**
+ * Resultado da verificação pública de uma credencial por token assinado.
+ */
+public class VerificacaoTokenDTO {
+
+    private Long credencialId;
+    private Long agenteId;
+    private String nomeCompleto;
+    private String situacao;
+    private String dataEmissao;
+    private boolean revogacaoVerificada;
+
+    // Construtores
+    public VerificacaoTokenDTO() {}
+
+    public VerificacaoTokenDTO(Long credencialId, Long agenteId, String nomeCompleto, String situacao,
+                               String dataEmissao, boolean revogacaoVerificada) {
+        this.credencialId = credencialId;
+        this.agenteId = agenteId;
+        this.nomeCompleto = nomeCompleto;
+        this.situacao = situacao;
+        this.dataEmissao = dataEmissao;
+        this.revogacaoVerificada = revogacaoVerificada;
+    }
+
+    // Getters e Setters
+    public Long getCredencialId() {
+        return credencialId;
+    }
+
+    public void setCredencialId(Long credencialId) {
+        this.credencialId = credencialId;
+    }
+
+    public Long getAgenteId() {
+        return agenteId;
+    }
+
+    public void setAgenteId(Long agenteId) {
+        this.agenteId = agenteId;
+    }
+
+    public String getNomeCompleto() {
+        return nomeCompleto;
+    }
+
+    public void setNomeCompleto(String nomeCompleto) {
+        this.nomeCompleto = nomeCompleto;
+    }
+
+    public String getSituacao() {
+        return situacao;
+    }
+
+    public void setSituacao(String situacao) {
+        this.situacao = situacao;
+    }
+
+    public String getDataEmissao() {
+        return dataEmissao;
+    }
+
+    public void setDataEmissao(String dataEmissao) {
+        this.dataEmissao = dataEmissao;
+    }
+
+    public boolean isRevogacaoVerificada() {
+        return revogacaoVerificada;
+    }
+
+    public void setRevogacaoVerificada(boolean revogacaoVerificada) {
+        this.revogacaoVerificada = revogacaoVerificada;
+    }
+}
@@ -17,7 +17,7 @@ public class AgenteVoluntario {
 
     @Id
     @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "S_AGENTE_VOLUNTARIO")
-    @SequenceGenerator(name = "S_AGENTE_VOLUNTARIO", sequenceName = "S_AGENTE_VOLUNTARIO", allocationSize = 1)
+    @SequenceGenerator(name = "S_AGENTE_VOLUNTARIO", sequenceName = "S_AGENTE_VOLUNTARIO", allocationSize = 50)
     @Column(name = "id_agente", updatable = false, nullable = false)
     private Long id;
 
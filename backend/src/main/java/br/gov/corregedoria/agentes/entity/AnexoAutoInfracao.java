@@ -17,7 +17,7 @@ public class AnexoAutoInfracao {
     
     @Id
     @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "S_ANEXO_AUTO_INFRACAO")
-    @SequenceGenerator(name = "S_ANEXO_AUTO_INFRACAO", sequenceName = "S_ANEXO_AUTO_INFRACAO", allocationSize = 1)
+    @SequenceGenerator(name = "S_ANEXO_AUTO_INFRACAO", sequenceName = "S_ANEXO_AUTO_INFRACAO", allocationSize = 50)
     private Long id;
     
     @NotNull(message = "Auto de infração é obrigatório")
@@ -12,7 +12,7 @@ public class AreaAtuacao {
 
     @Id
     @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "S_AREA_ATUACAO")
-    @SequenceGenerator(name = "S_AREA_ATUACAO", sequenceName = "S_AREA_ATUACAO", allocationSize = 1)
+    @SequenceGenerator(name = "S_AREA_ATUACAO", sequenceName = "S_AREA_ATUACAO", allocationSize = 50)
     @Column(name = "id_area_atuacao", updatable = false, nullable = false)
     private Long id;
 
@@ -24,7 +24,7 @@ public class AutoInfracao {
     
     @Id
     @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "S_AUTO_INFRACAO")
-    @SequenceGenerator(name = "S_AUTO_INFRACAO", sequenceName = "S_AUTO_INFRACAO", allocationSize = 1)
+    @SequenceGenerator(name = "S_AUTO_INFRACAO", sequenceName = "S_AUTO_INFRACAO", allocationSize = 50)
     @Column(name = "id", updatable = false, nullable = false)
     private Long id;
 
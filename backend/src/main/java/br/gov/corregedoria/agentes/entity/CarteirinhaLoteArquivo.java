@@ -0,0 +1,60 @@
+package br.gov.corregedoria.agentes.entity;
+
+import jakarta.persistence.*;
+
+import java.sql.Blob;
+import java.time.LocalDateTime;
+
+/**
+ * PDF gerado por um job de carteirinhas em lote. Mapeado como {@link Blob} para que gravação e
+ * download sejam feitos em stream, sem carregar o documento inteiro no heap.
+ */
+@Entity
+@Table(name = "carteirinha_lote_job_arquivo")
+public class CarteirinhaLoteArquivo {
+
+    @Id
+    @Column(name = "id_job", updatable = false, nullable = false)
+    private Long idJob;
+
+    @Lob
+    @Column(name = "pdf", nullable = false)
+    private Blob pdf;
+
+    @Column(name = "data_geracao", nullable = false)
+    private LocalDateTime dataGeracao;
+
+    // Construtores
+    public CarteirinhaLoteArquivo() {}
+
+    public CarteirinhaLoteArquivo(Long idJob, Blob pdf, LocalDateTime dataGeracao) {
+        this.idJob = idJob;
+        this.pdf = pdf;
+        this.dataGeracao = dataGeracao;
+    }
+
+    // Getters e Setters
+    public Long getIdJob() {
+        return idJob;
+    }
+
+    public void setIdJob(Long idJob) {
+        this.idJob = idJob;
+    }
+
+    public Blob getPdf() {
+        return pdf;
+    }
+
+    public void setPdf(Blob pdf) {
+        this.pdf = pdf;
+    }
+
+    public LocalDateTime getDataGeracao() {
+        return dataGeracao;
+    }
+
+    public void setDataGeracao(LocalDateTime dataGeracao) {
+        this.dataGeracao = dataGeracao;
+    }
+}
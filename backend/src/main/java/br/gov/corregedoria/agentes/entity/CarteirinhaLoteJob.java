@@ -0,0 +1,212 @@
+package br.gov.corregedoria.agentes.entity;
+
+import jakarta.persistence.*;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.LocalDateTime;
+
+/**
+ * Job assíncrono de geração de carteirinhas em lote.
+ * Persistido para que o progresso sobreviva a reinícios do pod.
+ */
+@Entity
+@Table(name = "carteirinha_lote_job")
+public class CarteirinhaLoteJob {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "S_CARTEIRINHA_LOTE_JOB")
+    @SequenceGenerator(name = "S_CARTEIRINHA_LOTE_JOB", sequenceName = "S_CARTEIRINHA_LOTE_JOB", allocationSize = 50)
+    @Column(name = "id_job", updatable = false, nullable = false)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false, length = 20)
+    private StatusLoteJob status = StatusLoteJob.PENDENTE;
+
+    /** IDs dos agentes na ordem solicitada, separados por vírgula. */
+    @Lob
+    @Column(name = "agente_ids", nullable = false)
+    private String agenteIds;
+
+    @Column(name = "total", nullable = false)
+    private int total;
+
+    @Column(name = "concluidos", nullable = false)
+    private int concluidos;
+
+    @Column(name = "falhas", nullable = false)
+    private int falhas;
+
+    @Column(name = "mensagem_erro", length = 1000)
+    private String mensagemErro;
+
+    @Column(name = "tamanho_arquivo")
+    private Long tamanhoArquivo;
+
+    @Column(name = "usuario_solicitante", nullable = false, length = 100)
+    private String usuarioSolicitante;
+
+    @CreationTimestamp
+    @Column(name = "data_criacao", nullable = false, updatable = false)
+    private LocalDateTime dataCriacao;
+
+    @Column(name = "data_inicio")
+    private LocalDateTime dataInicio;
+
+    @Column(name = "data_conclusao")
+    private LocalDateTime dataConclusao;
+
+    /** Último sinal de vida da execução (reivindicação e cada progresso informado). */
+    @Column(name = "data_heartbeat")
+    private LocalDateTime dataHeartbeat;
+
+    /** Execuções iniciadas (reivindicações), inclusive as abandonadas. */
+    @Column(name = "tentativas", nullable = false)
+    private int tentativas;
+
+    // Construtores
+    public CarteirinhaLoteJob() {}
+
+    public CarteirinhaLoteJob(String agenteIds, int total, String usuarioSolicitante) {
+        this.agenteIds = agenteIds;
+        this.total = total;
+        this.usuarioSolicitante = usuarioSolicitante;
+    }
+
+    // Getters e Setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public StatusLoteJob getStatus() {
+        return status;
+    }
+
+    public void setStatus(StatusLoteJob status) {
+        this.status = status;
+    }
+
+    public String getAgenteIds() {
+        return agenteIds;
+    }
+
+    public void setAgenteIds(String agenteIds) {
+        this.agenteIds = agenteIds;
+    }
+
+    public int getTotal() {
+        return total;
+    }
+
+    public void setTotal(int total) {
+        this.total = total;
+    }
+
+    public int getConcluidos() {
+        return concluidos;
+    }
+
+    public void setConcluidos(int concluidos) {
+        this.concluidos = concluidos;
+    }
+
+    public int getFalhas() {
+        return falhas;
+    }
+
+    public void setFalhas(int falhas) {
+        this.falhas = falhas;
+    }
+
+    public String getMensagemErro() {
+        return mensagemErro;
+    }
+
+    public void setMensagemErro(String mensagemErro) {
+        this.mensagemErro = mensagemErro;
+    }
+
+    public Long getTamanhoArquivo() {
+        return tamanhoArquivo;
+    }
+
+    public void setTamanhoArquivo(Long tamanhoArquivo) {
+        this.tamanhoArquivo = tamanhoArquivo;
+    }
+
+    public String getUsuarioSolicitante() {
+        return usuarioSolicitante;
+    }
+
+    public void setUsuarioSolicitante(String usuarioSolicitante) {
+        this.usuarioSolicitante = usuarioSolicitante;
+    }
+
+    public LocalDateTime getDataCriacao() {
+        return dataCriacao;
+    }
+
+    public void setDataCriacao(LocalDateTime dataCriacao) {
+        this.dataCriacao = dataCriacao;
+    }
+
+    public LocalDateTime getDataInicio() {
+        return dataInicio;
+    }
+
+    public void setDataInicio(LocalDateTime dataInicio) {
+        this.dataInicio = dataInicio;
+    }
+
+    public LocalDateTime getDataConclusao() {
+        return dataConclusao;
+    }
+
+    public void setDataConclusao(LocalDateTime dataConclusao) {
+        this.dataConclusao = dataConclusao;
+    }
+
+    public LocalDateTime getDataHeartbeat() {
+        return dataHeartbeat;
+    }
+
+    public void setDataHeartbeat(LocalDateTime dataHeartbeat) {
+        this.dataHeartbeat = dataHeartbeat;
+    }
+
+    public int getTentativas() {
+        return tentativas;
+    }
+
+    public void setTentativas(int tentativas) {
+        this.tentativas = tentativas;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof CarteirinhaLoteJob)) return false;
+        CarteirinhaLoteJob that = (CarteirinhaLoteJob) o;
+        return id != null && id.equals(that.id);
+    }
+
+    @Override
+    public int hashCode() {
+        return getClass().hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return "CarteirinhaLoteJob{" +
+                "id=" + id +
+                ", status=" + status +
+                ", concluidos=" + concluidos +
+                "/" + total +
+                ", falhas=" + falhas +
+                '}';
+    }
+}
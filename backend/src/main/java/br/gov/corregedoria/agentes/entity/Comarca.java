@@ -12,7 +12,7 @@ public class Comarca {
 
     @Id
     @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "S_COMARCA")
-    @SequenceGenerator(name = "S_COMARCA", sequenceName = "S_COMARCA", allocationSize = 1)
+    @SequenceGenerator(name = "S_COMARCA", sequenceName = "S_COMARCA", allocationSize = 50)
     @Column(name = "id_comarca", updatable = false, nullable = false)
     private Long id;
 
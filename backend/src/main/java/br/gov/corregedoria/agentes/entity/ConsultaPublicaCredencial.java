@@ -0,0 +1,146 @@
+package br.gov.corregedoria.agentes.entity;
+
+import jakarta.persistence.*;
+import org.springframework.data.domain.Persistable;
+
+import java.time.LocalDateTime;
+
+/**
+ * Linha da projeção da consulta pública: dados públicos do agente já resolvidos por credencial
+ * (inclusive os nomes das comarcas concatenados), lidos com uma única busca pela chave.
+ *
+ * A chave é o ID da credencial, atribuído pela aplicação; {@link #isNew()} evita o SELECT do
+ * merge ao gravar linhas novas.
+ */
+@Entity
+@Table(name = "consulta_publica_credencial")
+public class ConsultaPublicaCredencial implements Persistable<Long> {
+
+    @Id
+    @Column(name = "id_credencial", updatable = false, nullable = false)
+    private Long idCredencial;
+
+    @Column(name = "usuario_emissao", nullable = false, length = 100)
+    private String usuarioEmissao;
+
+    @Column(name = "data_emissao", nullable = false)
+    private LocalDateTime dataEmissao;
+
+    @Column(name = "id_agente", nullable = false)
+    private Long idAgente;
+
+    @Column(name = "nome_completo", nullable = false, length = 255)
+    private String nomeCompleto;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false, length = 20)
+    private StatusAgente status;
+
+    @Column(name = "data_cadastro", nullable = false)
+    private LocalDateTime dataCadastro;
+
+    @Column(name = "comarcas", length = 4000)
+    private String comarcas;
+
+    @Column(name = "data_atualizacao", nullable = false)
+    private LocalDateTime dataAtualizacao;
+
+    @Transient
+    private boolean nova = true;
+
+    // Construtores
+    public ConsultaPublicaCredencial() {}
+
+    public ConsultaPublicaCredencial(Long idCredencial) {
+        this.idCredencial = idCredencial;
+    }
+
+    @PostLoad
+    @PostPersist
+    void marcarGravada() {
+        this.nova = false;
+    }
+
+    @Override
+    public Long getId() {
+        return idCredencial;
+    }
+
+    @Override
+    public boolean isNew() {
+        return nova;
+    }
+
+    // Getters e Setters
+    public Long getIdCredencial() {
+        return idCredencial;
+    }
+
+    public void setIdCredencial(Long idCredencial) {
+        this.idCredencial = idCredencial;
+    }
+
+    public String getUsuarioEmissao() {
+        return usuarioEmissao;
+    }
+
+    public void setUsuarioEmissao(String usuarioEmissao) {
+        this.usuarioEmissao = usuarioEmissao;
+    }
+
+    public LocalDateTime getDataEmissao() {
+        return dataEmissao;
+    }
+
+    public void setDataEmissao(LocalDateTime dataEmissao) {
+        this.dataEmissao = dataEmissao;
+    }
+
+    public Long getIdAgente() {
+        return idAgente;
+    }
+
+    public void setIdAgente(Long idAgente) {
+        this.idAgente = idAgente;
+    }
+
+    public String getNomeCompleto() {
+        return nomeCompleto;
+    }
+
+    public void setNomeCompleto(String nomeCompleto) {
+        this.nomeCompleto = nomeCompleto;
+    }
+
+    public StatusAgente getStatus() {
+        return status;
+    }
+
+    public void setStatus(StatusAgente status) {
+        this.status = status;
+    }
+
+    public LocalDateTime getDataCadastro() {
+        return dataCadastro;
+    }
+
+    public void setDataCadastro(LocalDateTime dataCadastro) {
+        this.dataCadastro = dataCadastro;
+    }
+
+    public String getComarcas() {
+        return comarcas;
+    }
+
+    public void setComarcas(String comarcas) {
+        this.comarcas = comarcas;
+    }
+
+    public LocalDateTime getDataAtualizacao() {
+        return dataAtualizacao;
+    }
+
+    public void setDataAtualizacao(LocalDateTime dataAtualizacao) {
+        this.dataAtualizacao = dataAtualizacao;
+    }
+}
@@ -2,16 +2,22 @@ package br.gov.corregedoria.agentes.entity;
 
 import jakarta.persistence.*;
 import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
 
 import java.time.LocalDateTime;
+import java.util.function.LongFunction;
 
 @Entity
 @Table(name = "credencial")
 public class Credencial {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "S_CREDENCIAL")
-    @SequenceGenerator(name = "S_CREDENCIAL", sequenceName = "S_CREDENCIAL", allocationSize = 1)
+    @GeneratedValue(generator = "S_CREDENCIAL")
+    @GenericGenerator(name = "S_CREDENCIAL", type = CredencialIdGenerator.class, parameters = {
+            @Parameter(name = "sequence_name", value = "S_CREDENCIAL"),
+            @Parameter(name = "increment_size", value = "50")
+    })
     @Column(name = "id_credencial", updatable = false, nullable = false)
     private Long id;
 
@@ -29,6 +35,10 @@ public class Credencial {
     @Column(name = "usuario_emissao", nullable = false, length = 100)
     private String usuarioEmissao;
 
+    /** Monta a URL de verificação a partir do ID alocado no persist (ver CredencialIdGenerator). */
+    @Transient
+    private LongFunction<String> montadorUrl;
+
     // Construtores
     public Credencial() {}
 
@@ -79,6 +89,16 @@ public class Credencial {
         this.usuarioEmissao = usuarioEmissao;
     }
 
+    public void setMontadorUrl(LongFunction<String> montadorUrl) {
+        this.montadorUrl = montadorUrl;
+    }
+
+    void aoAlocarId(Long id) {
+        if (montadorUrl != null) {
+            this.qrCodeUrl = montadorUrl.apply(id);
+        }
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
@@ -101,4 +121,3 @@ public class Credencial {
                 '}';
     }
 }
-
@@ -0,0 +1,68 @@
+package br.gov.corregedoria.agentes.entity;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * PDF da credencial já renderizado. A chave é o próprio ID da credencial; a versão dos
+ * dados (agente, comarca, status e credencial) indica se o PDF ainda corresponde ao cadastro.
+ */
+@Entity
+@Table(name = "credencial_artefato")
+public class CredencialArtefato {
+
+    @Id
+    @Column(name = "id_credencial", updatable = false, nullable = false)
+    private Long idCredencial;
+
+    @Lob
+    @Column(name = "pdf", nullable = false)
+    private byte[] pdf;
+
+    @Column(name = "versao_dados", nullable = false)
+    private long versaoDados;
+
+    @Column(name = "data_geracao", nullable = false)
+    private LocalDateTime dataGeracao;
+
+    // Construtores
+    public CredencialArtefato() {}
+
+    public CredencialArtefato(Long idCredencial) {
+        this.idCredencial = idCredencial;
+    }
+
+    // Getters e Setters
+    public Long getIdCredencial() {
+        return idCredencial;
+    }
+
+    public void setIdCredencial(Long idCredencial) {
+        this.idCredencial = idCredencial;
+    }
+
+    public byte[] getPdf() {
+        return pdf;
+    }
+
+    public void setPdf(byte[] pdf) {
+        this.pdf = pdf;
+    }
+
+    public long getVersaoDados() {
+        return versaoDados;
+    }
+
+    public void setVersaoDados(long versaoDados) {
+        this.versaoDados = versaoDados;
+    }
+
+    public LocalDateTime getDataGeracao() {
+        return dataGeracao;
+    }
+
+    public void setDataGeracao(LocalDateTime dataGeracao) {
+        this.dataGeracao = dataGeracao;
+    }
+}
@@ -0,0 +1,21 @@
+package br.gov.corregedoria.agentes.entity;
+
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
+
+/**
+ * Gerador de IDs da credencial: mesma sequência e otimizador (pooled-lo) das demais
+ * entidades, mas repassa o ID alocado à credencial antes do INSERT, para que a URL do
+ * QR Code (NOT NULL e dependente do ID) já seja gravada no mesmo comando.
+ */
+public class CredencialIdGenerator extends SequenceStyleGenerator {
+
+    @Override
+    public Object generate(SharedSessionContractImplementor session, Object object) {
+        Object id = super.generate(session, object);
+        if (object instanceof Credencial credencial) {
+            credencial.aoAlocarId((Long) id);
+        }
+        return id;
+    }
+}
@@ -11,7 +11,7 @@ public class LogAuditoria {
 
     @Id
     @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "S_LOG_AUDITORIA")
-    @SequenceGenerator(name = "S_LOG_AUDITORIA", sequenceName = "S_LOG_AUDITORIA", allocationSize = 1)
+    @SequenceGenerator(name = "S_LOG_AUDITORIA", sequenceName = "S_LOG_AUDITORIA", allocationSize = 50)
     @Column(name = "id_log", updatable = false, nullable = false)
     private Long id;
 
@@ -19,7 +19,7 @@ public class LogAuditoriaAutoInfracao {
     
     @Id
     @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "S_LOG_AUDITORIA_AUTO_INFRACAO")
-    @SequenceGenerator(name = "S_LOG_AUDITORIA_AUTO_INFRACAO", sequenceName = "S_LOG_AUDITORIA_AUTO_INFRACAO", allocationSize = 1)
+    @SequenceGenerator(name = "S_LOG_AUDITORIA_AUTO_INFRACAO", sequenceName = "S_LOG_AUDITORIA_AUTO_INFRACAO", allocationSize = 50)
     private Long id;
 
     @NotNull(message = "ID do auto de infração é obrigatório")
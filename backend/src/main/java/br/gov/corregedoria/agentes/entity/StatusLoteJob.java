@@ -0,0 +1,23 @@
+package br.gov.corregedoria.agentes.entity;
+
+public enum StatusLoteJob {
+    PENDENTE("Pendente"),
+    EM_EXECUCAO("Em Execução"),
+    CONCLUIDO("Concluído"),
+    FALHOU("Falhou");
+
+    private final String descricao;
+
+    StatusLoteJob(String descricao) {
+        this.descricao = descricao;
+    }
+
+    public String getDescricao() {
+        return descricao;
+    }
+
+    @Override
+    public String toString() {
+        return descricao;
+    }
+}
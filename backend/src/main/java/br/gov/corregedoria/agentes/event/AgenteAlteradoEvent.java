@@ -0,0 +1,7 @@
+package br.gov.corregedoria.agentes.event;
+
+/**
+ * Publicado quando dados, status ou comarcas de um agente são alterados.
+ * Usado para invalidar caches e projeções derivados do agente.
+ */
+public record AgenteAlteradoEvent(Long agenteId) {}
@@ -0,0 +1,6 @@
+package br.gov.corregedoria.agentes.event;
+
+/**
+ * Publicado quando uma nova credencial é emitida para um agente.
+ */
+public record CredencialEmitidaEvent(Long credencialId, Long agenteId) {}
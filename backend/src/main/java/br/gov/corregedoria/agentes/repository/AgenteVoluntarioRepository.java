@@ -9,6 +9,7 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -68,5 +69,35 @@ public interface AgenteVoluntarioRepository extends JpaRepository<AgenteVoluntar
      * Busca agentes cadastrados por um usuário específico
      */
     List<AgenteVoluntario> findByUsuarioCadastro(String usuarioCadastro);
-}
 
+    /**
+     * IDs dos agentes com foto cadastrada (usado na normalização retroativa das fotos)
+     */
+    @Query("SELECT a.id FROM AgenteVoluntario a WHERE a.foto IS NOT NULL ORDER BY a.id")
+    List<Long> findIdsComFoto();
+
+    /**
+     * Busca agentes pelos IDs já com as comarcas carregadas (uma consulta por lista).
+     * A lista deve respeitar o limite de 1000 itens do IN no Oracle.
+     */
+    @Query("SELECT DISTINCT a FROM AgenteVoluntario a LEFT JOIN FETCH a.comarcas WHERE a.id IN :ids")
+    List<AgenteVoluntario> findComComarcasByIdIn(@Param("ids") Collection<Long> ids);
+
+    /**
+     * ID, status e nome dos agentes informados (validação da RN003 na emissão em lote, sem
+     * carregar fotos). A lista deve respeitar o limite de 1000 itens do IN no Oracle.
+     */
+    @Query("SELECT a.id, a.status, a.nomeCompleto FROM AgenteVoluntario a WHERE a.id IN :ids")
+    List<Object[]> findStatusByIdIn(@Param("ids") Collection<Long> ids);
+
+    /**
+     * IDs dos agentes ativos aptos à emissão em lote, opcionalmente restritos a uma comarca
+     * e a quem ainda não possui credencial
+     */
+    @Query("SELECT a.id FROM AgenteVoluntario a WHERE a.status = 'ATIVO' "
+            + "AND (:comarca IS NULL OR EXISTS (SELECT 1 FROM a.comarcas c WHERE c.nomeComarca = :comarca)) "
+            + "AND (:semCredencial = false OR NOT EXISTS (SELECT 1 FROM Credencial cr WHERE cr.agente = a)) "
+            + "ORDER BY a.id")
+    List<Long> findIdsAtivosParaEmissao(@Param("comarca") String comarca,
+                                        @Param("semCredencial") boolean semCredencial);
+}
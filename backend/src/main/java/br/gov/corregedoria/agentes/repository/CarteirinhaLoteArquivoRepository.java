@@ -0,0 +1,9 @@
+package br.gov.corregedoria.agentes.repository;
+
+import br.gov.corregedoria.agentes.entity.CarteirinhaLoteArquivo;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface CarteirinhaLoteArquivoRepository extends JpaRepository<CarteirinhaLoteArquivo, Long> {
+}
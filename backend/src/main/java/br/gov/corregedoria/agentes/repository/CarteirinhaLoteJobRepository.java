@@ -0,0 +1,83 @@
+package br.gov.corregedoria.agentes.repository;
+
+import br.gov.corregedoria.agentes.entity.CarteirinhaLoteJob;
+import br.gov.corregedoria.agentes.entity.StatusLoteJob;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface CarteirinhaLoteJobRepository extends JpaRepository<CarteirinhaLoteJob, Long> {
+
+    /**
+     * Busca jobs por status (ordem de criação)
+     */
+    List<CarteirinhaLoteJob> findByStatusOrderByIdAsc(StatusLoteJob status);
+
+    /**
+     * Reivindica um job pendente para execução e conta a tentativa. Retorna 1 apenas para quem
+     * conseguiu a transição PENDENTE -> EM_EXECUCAO (evita execução dupla entre pods).
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE CarteirinhaLoteJob j SET j.status = 'EM_EXECUCAO', j.dataInicio = :agora, j.dataHeartbeat = :agora, " +
+           "j.tentativas = j.tentativas + 1, j.concluidos = 0, j.falhas = 0 WHERE j.id = :id AND j.status = 'PENDENTE'")
+    int reivindicar(@Param("id") Long id, @Param("agora") LocalDateTime agora);
+
+    /**
+     * Soma o avanço informado ao progresso de um job em execução (incrementos podem chegar fora de ordem)
+     * e renova o sinal de vida. Retorna 0 se o job tiver sido reivindicado de novo (dataInicio diferente
+     * da execução que informa).
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE CarteirinhaLoteJob j SET j.concluidos = j.concluidos + :concluidos, j.falhas = j.falhas + :falhas, " +
+           "j.dataHeartbeat = :agora WHERE j.id = :id AND j.status = 'EM_EXECUCAO' AND j.dataInicio = :inicio")
+    int somarProgresso(@Param("id") Long id, @Param("inicio") LocalDateTime inicio,
+                       @Param("concluidos") int concluidos, @Param("falhas") int falhas,
+                       @Param("agora") LocalDateTime agora);
+
+    /**
+     * Encerra a execução iniciada em {@code inicio}. Retorna 0 se o job não estiver mais com essa
+     * execução (liberado por timeout e reivindicado por outro pod), caso em que o resultado é descartado.
+     */
+    @Modifying
+    @Query("UPDATE CarteirinhaLoteJob j SET j.status = :status, j.tamanhoArquivo = :tamanho, j.mensagemErro = :mensagem, " +
+           "j.dataConclusao = :agora WHERE j.id = :id AND j.status = 'EM_EXECUCAO' AND j.dataInicio = :inicio")
+    int encerrar(@Param("id") Long id, @Param("inicio") LocalDateTime inicio, @Param("status") StatusLoteJob status,
+                 @Param("tamanho") Long tamanho, @Param("mensagem") String mensagem, @Param("agora") LocalDateTime agora);
+
+    /**
+     * Devolve para a fila jobs EM_EXECUCAO sem sinal de vida desde o limite (ex.: pod reiniciado no meio)
+     * que ainda não esgotaram as tentativas
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE CarteirinhaLoteJob j SET j.status = 'PENDENTE' WHERE j.status = 'EM_EXECUCAO' " +
+           "AND j.dataHeartbeat < :limite AND j.tentativas < :maximoTentativas")
+    int liberarJobsAbandonados(@Param("limite") LocalDateTime limite, @Param("maximoTentativas") int maximoTentativas);
+
+    /**
+     * Encerra como falha os jobs EM_EXECUCAO sem sinal de vida desde o limite que já esgotaram as tentativas
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE CarteirinhaLoteJob j SET j.status = 'FALHOU', j.mensagemErro = :mensagem, j.dataConclusao = :agora " +
+           "WHERE j.status = 'EM_EXECUCAO' AND j.dataHeartbeat < :limite AND j.tentativas >= :maximoTentativas")
+    int falharJobsAbandonados(@Param("limite") LocalDateTime limite, @Param("maximoTentativas") int maximoTentativas,
+                              @Param("mensagem") String mensagem, @Param("agora") LocalDateTime agora);
+
+    /**
+     * Remove jobs encerrados antes do limite (o PDF sai junto, ON DELETE CASCADE)
+     */
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM CarteirinhaLoteJob j WHERE j.status IN ('CONCLUIDO', 'FALHOU') AND j.dataConclusao < :limite")
+    int excluirEncerradosAntesDe(@Param("limite") LocalDateTime limite);
+}
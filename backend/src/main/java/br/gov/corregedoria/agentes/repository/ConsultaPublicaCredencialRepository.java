@@ -0,0 +1,53 @@
+package br.gov.corregedoria.agentes.repository;
+
+import br.gov.corregedoria.agentes.entity.ConsultaPublicaCredencial;
+import br.gov.corregedoria.agentes.entity.StatusAgente;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface ConsultaPublicaCredencialRepository extends JpaRepository<ConsultaPublicaCredencial, Long> {
+
+    /**
+     * Linha da credencial mais recente de um identificador de emissão (mesmo critério de
+     * CredencialRepository.findFirstByUsuarioEmissaoOrderByDataEmissaoDescIdDesc)
+     */
+    Optional<ConsultaPublicaCredencial> findFirstByUsuarioEmissaoOrderByDataEmissaoDescIdCredencialDesc(String usuarioEmissao);
+
+    /**
+     * Linha da credencial mais recente de cada identificador de emissão informado (verificação
+     * em lote). A lista deve respeitar o limite de 1000 itens do IN no Oracle.
+     */
+    @Query("SELECT p FROM ConsultaPublicaCredencial p WHERE p.usuarioEmissao IN :usuarios AND NOT EXISTS ("
+            + "SELECT 1 FROM ConsultaPublicaCredencial o WHERE o.usuarioEmissao = p.usuarioEmissao "
+            + "AND (o.dataEmissao > p.dataEmissao OR (o.dataEmissao = p.dataEmissao AND o.idCredencial > p.idCredencial)))")
+    List<ConsultaPublicaCredencial> findMaisRecentesByUsuarioEmissaoIn(@Param("usuarios") Collection<String> usuarios);
+
+    /**
+     * Agente, usuarioEmissao e credencial ({@code [idAgente, usuarioEmissao, idCredencial]}) das
+     * linhas gravadas após o instante informado: alterações do agente, emissões e reconstrução da projeção
+     */
+    @Query("SELECT p.idAgente, p.usuarioEmissao, p.idCredencial FROM ConsultaPublicaCredencial p "
+            + "WHERE p.dataAtualizacao > :desde")
+    List<Object[]> findAlteracoesDesde(@Param("desde") LocalDateTime desde, Pageable limite);
+
+    /**
+     * Regrava os dados do agente em todas as linhas das suas credenciais
+     */
+    @Modifying
+    @Query("UPDATE ConsultaPublicaCredencial p SET p.nomeCompleto = :nome, p.status = :status, "
+            + "p.dataCadastro = :dataCadastro, p.comarcas = :comarcas, p.dataAtualizacao = :agora "
+            + "WHERE p.idAgente = :agenteId")
+    int atualizarAgente(@Param("agenteId") Long agenteId, @Param("nome") String nome,
+                        @Param("status") StatusAgente status, @Param("dataCadastro") LocalDateTime dataCadastro,
+                        @Param("comarcas") String comarcas, @Param("agora") LocalDateTime agora);
+}
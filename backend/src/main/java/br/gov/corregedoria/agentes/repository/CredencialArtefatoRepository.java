@@ -0,0 +1,19 @@
+package br.gov.corregedoria.agentes.repository;
+
+import br.gov.corregedoria.agentes.entity.CredencialArtefato;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface CredencialArtefatoRepository extends JpaRepository<CredencialArtefato, Long> {
+
+    /**
+     * IDs das credenciais que ainda não têm PDF pré-renderizado (usado no backfill)
+     */
+    @Query("SELECT c.id FROM Credencial c WHERE NOT EXISTS "
+            + "(SELECT 1 FROM CredencialArtefato a WHERE a.idCredencial = c.id) ORDER BY c.id")
+    List<Long> findIdsCredenciaisSemArtefato();
+}
@@ -2,9 +2,13 @@ package br.gov.corregedoria.agentes.repository;
 
 import br.gov.corregedoria.agentes.entity.Credencial;
 import br.gov.corregedoria.agentes.entity.AgenteVoluntario;
+import br.gov.corregedoria.agentes.entity.StatusAgente;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -42,4 +46,57 @@ public interface CredencialRepository extends JpaRepository<Credencial, Long> {
      * (usuarioEmissao). Útil para consulta pública quando a chave do QR não é o ID numérico.
      */
     Optional<Credencial> findFirstByUsuarioEmissaoOrderByDataEmissaoDescIdDesc(String usuarioEmissao);
+
+    /**
+     * Busca a credencial mais recente de cada agente informado (mesmo critério de
+     * findFirstByAgenteIdOrderByDataEmissaoDescIdDesc). A lista deve respeitar o limite
+     * de 1000 itens do IN no Oracle.
+     */
+    @Query("SELECT c FROM Credencial c WHERE c.agente.id IN :agenteIds AND NOT EXISTS ("
+            + "SELECT 1 FROM Credencial o WHERE o.agente = c.agente AND (o.dataEmissao > c.dataEmissao "
+            + "OR (o.dataEmissao = c.dataEmissao AND o.id > c.id)))")
+    List<Credencial> findMaisRecentesByAgenteIdIn(@Param("agenteIds") Collection<Long> agenteIds);
+
+    /**
+     * Dentre os agentes informados, os que já possuem alguma credencial.
+     * A lista deve respeitar o limite de 1000 itens do IN no Oracle.
+     */
+    @Query("SELECT DISTINCT c.agente.id FROM Credencial c WHERE c.agente.id IN :agenteIds")
+    List<Long> findAgenteIdsComCredencial(@Param("agenteIds") Collection<Long> agenteIds);
+
+    /**
+     * Status atual do agente titular da credencial (checagem de revogação dos tokens assinados)
+     */
+    @Query("SELECT c.agente.status FROM Credencial c WHERE c.id = :id")
+    Optional<StatusAgente> findStatusAgenteByCredencialId(@Param("id") Long id);
+
+    /**
+     * IDs de todas as credenciais, em ordem (reconstrução da projeção da consulta pública)
+     */
+    @Query("SELECT c.id FROM Credencial c ORDER BY c.id")
+    List<Long> findAllIds();
+
+    /**
+     * Próximo valor ainda não distribuído pela sequência S_CREDENCIAL (acima do cache do servidor):
+     * todo bloco de IDs já reservado por alguma instância fica abaixo dele
+     */
+    @Query(value = "SELECT last_number FROM user_sequences WHERE sequence_name = 'S_CREDENCIAL'", nativeQuery = true)
+    long findTopoSequencia();
+
+    /**
+     * Busca credenciais já com o agente e as comarcas carregados.
+     * A lista deve respeitar o limite de 1000 itens do IN no Oracle.
+     */
+    @Query("SELECT DISTINCT c FROM Credencial c JOIN FETCH c.agente a LEFT JOIN FETCH a.comarcas WHERE c.id IN :ids")
+    List<Credencial> findComAgenteByIdIn(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Credencial mais recente de cada identificador de emissão informado, já com o agente e as
+     * comarcas carregados. A lista deve respeitar o limite de 1000 itens do IN no Oracle.
+     */
+    @Query("SELECT DISTINCT c FROM Credencial c JOIN FETCH c.agente a LEFT JOIN FETCH a.comarcas "
+            + "WHERE c.usuarioEmissao IN :usuarios AND NOT EXISTS (SELECT 1 FROM Credencial o "
+            + "WHERE o.usuarioEmissao = c.usuarioEmissao AND (o.dataEmissao > c.dataEmissao "
+            + "OR (o.dataEmissao = c.dataEmissao AND o.id > c.id)))")
+    List<Credencial> findMaisRecentesComAgenteByUsuarioEmissaoIn(@Param("usuarios") Collection<String> usuarios);
 }
@@ -2,11 +2,15 @@ package br.gov.corregedoria.agentes.service;
 
 import br.gov.corregedoria.agentes.dto.*;
 import br.gov.corregedoria.agentes.entity.*;
+import br.gov.corregedoria.agentes.event.AgenteAlteradoEvent;
 import br.gov.corregedoria.agentes.repository.*;
 import br.gov.corregedoria.agentes.util.AuditoriaUtil;
 import br.gov.corregedoria.agentes.util.DocumentoUtil;
+import br.gov.corregedoria.agentes.util.FotoNormalizador;
 import jakarta.persistence.EntityNotFoundException;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
@@ -34,6 +38,15 @@ public class AgenteVoluntarioService {
     @Autowired
     private AuditoriaUtil auditoriaUtil;
 
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private FotoNormalizador fotoNormalizador;
+
+    @Value("${app.foto.normalizacao.habilitada:true}")
+    private boolean normalizarFotos;
+
     private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm");
 
     /**
@@ -67,7 +80,7 @@ public class AgenteVoluntarioService {
         agente.setFiliacaoPai(dto.getFiliacaoPai());
         agente.setFiliacaoMae(dto.getFiliacaoMae());
         if (dto.getFotoBase64() != null && !dto.getFotoBase64().isBlank()) {
-            agente.setFoto(decodeBase64(dto.getFotoBase64()));
+            agente.setFoto(prepararFoto(dto.getFotoBase64()));
         }
         agente.setUsuarioCadastro(usuarioLogado);
         agente.setStatus(StatusAgente.EM_ANALISE); // RN007 - Status inicial
@@ -148,6 +161,7 @@ public class AgenteVoluntarioService {
         StatusAgente statusAnterior = agente.getStatus();
         agente.setStatus(novoStatus);
         agente = agenteRepository.save(agente);
+        eventPublisher.publishEvent(new AgenteAlteradoEvent(agente.getId()));
 
         // Registrar auditoria
         // auditoriaUtil.registrarLog(usuarioLogado, "ATUALIZACAO_STATUS", 
@@ -190,7 +204,7 @@ public class AgenteVoluntarioService {
         agente.setFiliacaoPai(dto.getFiliacaoPai());
         agente.setFiliacaoMae(dto.getFiliacaoMae());
         if (dto.getFotoBase64() != null && !dto.getFotoBase64().isBlank()) {
-            agente.setFoto(decodeBase64(dto.getFotoBase64()));
+            agente.setFoto(prepararFoto(dto.getFotoBase64()));
         }
 
         // Atualizar comarcas
@@ -208,6 +222,7 @@ public class AgenteVoluntarioService {
         agente.setAreasAtuacao(areasAtuacao);
 
         agente = agenteRepository.save(agente);
+        eventPublisher.publishEvent(new AgenteAlteradoEvent(agente.getId()));
 
         // Registrar auditoria
         // auditoriaUtil.registrarLog(usuarioLogado, "ATUALIZACAO_AGENTE", 
@@ -300,6 +315,17 @@ public class AgenteVoluntarioService {
         return dto;
     }
 
+    /**
+     * Decodifica a foto recebida e a normaliza para a resolução da carteirinha antes de persistir.
+     */
+    private byte[] prepararFoto(String base64) {
+        byte[] foto = decodeBase64(base64);
+        if (!normalizarFotos) {
+            return foto;
+        }
+        return fotoNormalizador.normalizar(foto);
+    }
+
     private byte[] decodeBase64(String base64) {
         try {
             String data = base64;
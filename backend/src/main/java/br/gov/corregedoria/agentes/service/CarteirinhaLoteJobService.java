@@ -0,0 +1,338 @@
+package br.gov.corregedoria.agentes.service;
+
+import br.gov.corregedoria.agentes.dto.CarteirinhaLoteJobDTO;
+import br.gov.corregedoria.agentes.entity.CarteirinhaLoteArquivo;
+import br.gov.corregedoria.agentes.entity.CarteirinhaLoteJob;
+import br.gov.corregedoria.agentes.entity.StatusLoteJob;
+import br.gov.corregedoria.agentes.repository.CarteirinhaLoteArquivoRepository;
+import br.gov.corregedoria.agentes.repository.CarteirinhaLoteJobRepository;
+import br.gov.corregedoria.agentes.util.SpoolOutputStream;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityNotFoundException;
+import org.hibernate.engine.jdbc.BlobProxy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+/**
+ * Fila de jobs assíncronos de geração de carteirinhas em lote.
+ *
+ * O job é gravado na tabela carteirinha_lote_job antes de entrar na fila; um executor
+ * dedicado e limitado processa os jobs e grava o PDF final no banco (carteirinha_lote_job_arquivo),
+ * de modo que o download funciona em qualquer réplica. Uma varredura periódica devolve à fila
+ * jobs pendentes (inclusive os recusados por fila cheia) e os abandonados em execução por um
+ * pod reiniciado, e remove os jobs encerrados há mais tempo que a retenção.
+ *
+ * Cada progresso informado renova o sinal de vida do job (data_heartbeat): só jobs sem sinal de
+ * vida há mais de {@code timeout-heartbeat} são considerados abandonados, por mais que o lote
+ * demore. Após {@code maximo-tentativas} execuções abandonadas o job é encerrado como falha. A
+ * execução que perde o job (liberado e reivindicado por outro pod) é interrompida no próximo progresso.
+ */
+@Service
+public class CarteirinhaLoteJobService {
+
+    private static final Logger log = LoggerFactory.getLogger(CarteirinhaLoteJobService.class);
+
+    private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm:ss");
+
+    @Autowired
+    private CarteirinhaLoteJobRepository jobRepository;
+
+    @Autowired
+    private CarteirinhaLoteArquivoRepository arquivoRepository;
+
+    @Autowired
+    private CarteirinhaService carteirinhaService;
+
+    /** Jobs EM_EXECUCAO sem progresso há mais tempo que isso são considerados abandonados. */
+    @Value("${app.carteirinha.lote.jobs.timeout-heartbeat:PT5M}")
+    private Duration timeoutHeartbeat;
+
+    /** Execuções abandonadas toleradas antes de encerrar o job como falha. */
+    @Value("${app.carteirinha.lote.jobs.maximo-tentativas:3}")
+    private int maximoTentativas;
+
+    /** Jobs concluídos ou com falha são removidos (com o PDF) depois desse prazo. */
+    @Value("${app.carteirinha.lote.jobs.retencao:P7D}")
+    private Duration retencao;
+
+    /** Limite de agentes por job. */
+    @Value("${app.carteirinha.lote.jobs.maximo-agentes:5000}")
+    private int maximoAgentes;
+
+    private final ThreadPoolExecutor executor;
+    /** Jobs já na fila local (evita que a varredura os enfileire de novo). */
+    private final Set<Long> enfileirados = ConcurrentHashMap.newKeySet();
+    private final TransactionTemplate transacao;
+
+    public CarteirinhaLoteJobService(@Value("${app.carteirinha.lote.jobs.threads:2}") int threads,
+                                     @Value("${app.carteirinha.lote.jobs.capacidade-fila:50}") int capacidadeFila,
+                                     PlatformTransactionManager transactionManager,
+                                     MeterRegistry meterRegistry) {
+        AtomicInteger sequencia = new AtomicInteger();
+        int tamanho = Math.max(1, threads);
+        this.executor = new ThreadPoolExecutor(tamanho, tamanho, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, capacidadeFila)), r -> {
+                    Thread t = new Thread(r, "carteirinha-lote-job-" + sequencia.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                });
+
+        this.transacao = new TransactionTemplate(transactionManager);
+
+        Gauge.builder("carteirinha.lote.jobs.fila", executor, e -> e.getQueue().size())
+                .description("Jobs de carteirinha em lote aguardando execução")
+                .register(meterRegistry);
+        Gauge.builder("carteirinha.lote.jobs.ativos", executor, ThreadPoolExecutor::getActiveCount)
+                .description("Jobs de carteirinha em lote em execução")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Registra um novo job e o coloca na fila após o commit.
+     */
+    @Transactional
+    public CarteirinhaLoteJobDTO criarJob(List<Long> agenteIds, String usuario) {
+        if (agenteIds == null || agenteIds.isEmpty()) {
+            throw new IllegalArgumentException("Informe ao menos um agente");
+        }
+        if (agenteIds.size() > maximoAgentes) {
+            throw new IllegalArgumentException("Quantidade de agentes excede o limite por job: " + maximoAgentes);
+        }
+        if (executor.getQueue().remainingCapacity() == 0) {
+            throw new IllegalStateException("Fila de geração em lote cheia. Tente novamente mais tarde.");
+        }
+
+        String ids = agenteIds.stream().map(String::valueOf).collect(Collectors.joining(","));
+        CarteirinhaLoteJob job = jobRepository.save(new CarteirinhaLoteJob(ids, agenteIds.size(), usuario));
+        Long jobId = job.getId();
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                enfileirar(jobId);
+            }
+        });
+        return converterParaDTO(job);
+    }
+
+    @Transactional(readOnly = true)
+    public CarteirinhaLoteJobDTO buscarJob(Long jobId) {
+        return converterParaDTO(obterJob(jobId));
+    }
+
+    /**
+     * Tamanho do PDF de um job concluído.
+     *
+     * @throws IllegalStateException se o job ainda não tiver terminado
+     */
+    @Transactional(readOnly = true)
+    public long obterTamanhoArquivo(Long jobId) {
+        CarteirinhaLoteJob job = obterJob(jobId);
+        if (job.getStatus() != StatusLoteJob.CONCLUIDO) {
+            throw new IllegalStateException("Job ainda não concluído (status: " + job.getStatus().getDescricao() + ")");
+        }
+        return job.getTamanhoArquivo();
+    }
+
+    /**
+     * Copia o PDF do job direto do BLOB para o destino (a transação fica aberta durante a cópia).
+     */
+    @Transactional(readOnly = true)
+    public void transferirArquivo(Long jobId, OutputStream destino) throws IOException {
+        CarteirinhaLoteArquivo arquivo = arquivoRepository.findById(jobId)
+                .orElseThrow(() -> new EntityNotFoundException("Arquivo do job não encontrado: " + jobId));
+        try (InputStream pdf = arquivo.getPdf().getBinaryStream()) {
+            pdf.transferTo(destino);
+        } catch (SQLException e) {
+            throw new IOException("Falha ao ler o arquivo do job " + jobId, e);
+        }
+    }
+
+    /**
+     * Varredura periódica (em todos os pods): libera (ou encerra como falha, esgotadas as tentativas)
+     * jobs em execução sem sinal de vida além do timeout, enfileira
+     * os pendentes que ainda não estão na fila local e remove os jobs encerrados além da retenção.
+     * A reivindicação no banco garante que cada job execute em um único pod.
+     */
+    @Scheduled(initialDelayString = "${app.carteirinha.lote.jobs.varredura-atraso-inicial:PT10S}",
+               fixedDelayString = "${app.carteirinha.lote.jobs.varredura:PT1M}")
+    public void varrerJobs() {
+        try {
+            LocalDateTime agora = LocalDateTime.now();
+            LocalDateTime semSinal = agora.minus(timeoutHeartbeat);
+            int esgotados = jobRepository.falharJobsAbandonados(semSinal, maximoTentativas,
+                    "Execução abandonada " + maximoTentativas + " vez(es) sem concluir", agora);
+            if (esgotados > 0) {
+                log.error("{} job(s) de carteirinha em lote abandonado(s) após {} tentativa(s) encerrado(s) como falha",
+                        esgotados, maximoTentativas);
+            }
+            int liberados = jobRepository.liberarJobsAbandonados(semSinal, maximoTentativas);
+            if (liberados > 0) {
+                log.warn("{} job(s) de carteirinha em lote abandonado(s) em execução voltaram para a fila", liberados);
+            }
+            for (CarteirinhaLoteJob job : jobRepository.findByStatusOrderByIdAsc(StatusLoteJob.PENDENTE)) {
+                if (executor.getQueue().remainingCapacity() == 0) {
+                    break;
+                }
+                enfileirar(job.getId());
+            }
+            int removidos = jobRepository.excluirEncerradosAntesDe(agora.minus(retencao));
+            if (removidos > 0) {
+                log.info("{} job(s) de carteirinha em lote removido(s) pela retenção de {}", removidos, retencao);
+            }
+        } catch (RuntimeException e) {
+            log.warn("Falha na varredura de jobs de carteirinha em lote: {}", e.getMessage());
+        }
+    }
+
+    private void enfileirar(Long jobId) {
+        if (!enfileirados.add(jobId)) {
+            return;
+        }
+        try {
+            executor.execute(() -> {
+                try {
+                    executar(jobId);
+                } finally {
+                    enfileirados.remove(jobId);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            enfileirados.remove(jobId);
+            log.warn("Fila de carteirinhas em lote cheia; job {} permanece pendente até a próxima varredura", jobId);
+        }
+    }
+
+    private void executar(Long jobId) {
+        // Apenas um pod/thread consegue mover o job de PENDENTE para EM_EXECUCAO; o instante
+        // (truncado em milissegundos, preservados pelo TIMESTAMP) identifica esta execução
+        LocalDateTime inicio = LocalDateTime.now().truncatedTo(ChronoUnit.MILLIS);
+        if (jobRepository.reivindicar(jobId, inicio) == 0) {
+            return;
+        }
+        CarteirinhaLoteJob job = jobRepository.findById(jobId).orElse(null);
+        if (job == null) {
+            return;
+        }
+        List<Long> agenteIds = Arrays.stream(job.getAgenteIds().split(","))
+                .map(String::trim)
+                .filter(s -> !s.isEmpty())
+                .map(Long::valueOf)
+                .collect(Collectors.toList());
+
+        CarteirinhaService.ProgressoLote progresso = (concluidos, falhas) -> {
+            if (jobRepository.somarProgresso(jobId, inicio, concluidos, falhas, LocalDateTime.now()) == 0) {
+                // Liberado e reivindicado por outro pod: interrompe esta execução
+                throw new IllegalStateException("Job " + jobId + " reatribuído durante a execução");
+            }
+        };
+        SpoolOutputStream pdf = null;
+        try {
+            // Sem transação aberta: o lote usa uma transação curta por bloco de agentes e a
+            // renderização não segura conexão do pool
+            pdf = carteirinhaService.gerarPdfLote(agenteIds, progresso);
+            SpoolOutputStream gerado = pdf;
+            if (Boolean.TRUE.equals(transacao.execute(s -> gravarArquivo(jobId, inicio, gerado)))) {
+                log.info("Job de carteirinhas em lote {} concluído ({} bytes)", jobId, gerado.tamanho());
+            } else {
+                log.warn("Job de carteirinhas em lote {} foi reatribuído durante a execução; resultado descartado", jobId);
+            }
+        } catch (Exception e) {
+            String mensagem = truncar(e.getMessage() != null ? e.getMessage() : e.toString(), 1000);
+            Integer encerrados = transacao.execute(s -> jobRepository.encerrar(jobId, inicio, StatusLoteJob.FALHOU,
+                    null, mensagem, LocalDateTime.now()));
+            if (Integer.valueOf(0).equals(encerrados)) {
+                log.warn("Job de carteirinhas em lote {} foi reatribuído durante a execução; execução interrompida", jobId);
+            } else {
+                log.error("Falha no job de carteirinhas em lote {}: {}", jobId, e.getMessage(), e);
+            }
+        } finally {
+            if (pdf != null) {
+                pdf.descartar();
+            }
+        }
+    }
+
+    /**
+     * Marca o job como concluído e grava o PDF em stream no BLOB, na mesma transação.
+     * Retorna false (sem gravar) se esta execução não for mais a dona do job.
+     */
+    private boolean gravarArquivo(Long jobId, LocalDateTime inicio, SpoolOutputStream pdf) {
+        LocalDateTime agora = LocalDateTime.now();
+        if (jobRepository.encerrar(jobId, inicio, StatusLoteJob.CONCLUIDO, pdf.tamanho(), null, agora) == 0) {
+            return false;
+        }
+        try (InputStream conteudo = pdf.abrirLeitura()) {
+            arquivoRepository.saveAndFlush(new CarteirinhaLoteArquivo(jobId,
+                    BlobProxy.generateProxy(conteudo, pdf.tamanho()), agora));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return true;
+    }
+
+    private CarteirinhaLoteJob obterJob(Long jobId) {
+        return jobRepository.findById(jobId)
+                .orElseThrow(() -> new EntityNotFoundException("Job não encontrado: " + jobId));
+    }
+
+    private CarteirinhaLoteJobDTO converterParaDTO(CarteirinhaLoteJob job) {
+        CarteirinhaLoteJobDTO dto = new CarteirinhaLoteJobDTO();
+        dto.setId(job.getId());
+        dto.setStatus(job.getStatus().name());
+        dto.setTotal(job.getTotal());
+        dto.setConcluidos(job.getConcluidos());
+        dto.setFalhas(job.getFalhas());
+        dto.setMensagemErro(job.getMensagemErro());
+        dto.setTamanhoArquivo(job.getTamanhoArquivo());
+        dto.setUsuarioSolicitante(job.getUsuarioSolicitante());
+        dto.setDataCriacao(formatar(job.getDataCriacao()));
+        dto.setDataInicio(formatar(job.getDataInicio()));
+        dto.setDataConclusao(formatar(job.getDataConclusao()));
+        return dto;
+    }
+
+    private static String formatar(LocalDateTime data) {
+        return data != null ? data.format(DATE_FORMATTER) : null;
+    }
+
+    private static String truncar(String s, int max) {
+        return s.length() <= max ? s : s.substring(0, max);
+    }
+
+    @PreDestroy
+    void encerrarExecutor() {
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,512 @@
+package br.gov.corregedoria.agentes.service;
+
+import br.gov.corregedoria.agentes.util.QRCodeUtil;
+import br.gov.corregedoria.agentes.util.RecursosEstaticos;
+import com.google.zxing.WriterException;
+import com.itextpdf.io.font.FontProgram;
+import com.itextpdf.io.font.FontProgramFactory;
+import com.itextpdf.io.font.PdfEncodings;
+import com.itextpdf.io.font.constants.StandardFonts;
+import com.itextpdf.io.image.ImageData;
+import com.itextpdf.io.image.ImageDataFactory;
+import com.itextpdf.kernel.colors.Color;
+import com.itextpdf.kernel.colors.DeviceRgb;
+import com.itextpdf.kernel.font.PdfFont;
+import com.itextpdf.kernel.font.PdfFontFactory;
+import com.itextpdf.kernel.geom.PageSize;
+import com.itextpdf.kernel.geom.Rectangle;
+import com.itextpdf.kernel.pdf.PdfDocument;
+import com.itextpdf.kernel.pdf.PdfPage;
+import com.itextpdf.kernel.pdf.PdfWriter;
+import com.itextpdf.kernel.pdf.WriterProperties;
+import com.itextpdf.kernel.pdf.canvas.PdfCanvas;
+import com.itextpdf.kernel.pdf.xobject.PdfFormXObject;
+import com.itextpdf.layout.properties.TextAlignment;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Renderizador "direto" da carteirinha individual: desenha o layout do template
+ * carteirinha_agente.html (frente e verso, 85 x 55 mm, página A4) com as APIs de
+ * kernel/layout do iText, sem Thymeleaf nem conversão HTML -> PDF.
+ *
+ * As medidas (em mm) seguem o CSS do template; alterações de layout precisam ser
+ * feitas nos dois lugares. Selecionado por {@code app.carteirinha.renderizador=direto}.
+ */
+@Component
+public class CarteirinhaPdfDireto {
+
+    private static final Logger log = LoggerFactory.getLogger(CarteirinhaPdfDireto.class);
+
+    private static final float MM = 72f / 25.4f;
+
+    // Dimensões do cartão (.card)
+    private static final float LARGURA_CARTAO = 85f;
+    private static final float ALTURA_CARTAO = 55f;
+    private static final float BORDA_LATERAL = 2f;
+    private static final float BORDA_INFERIOR = 1f;
+    private static final float ALTURA_FAIXA = 3f;
+    private static final float LINHA_FAIXA = 3.5f;
+    // .inner: top 2.8mm; padding 0.3mm 0.6mm
+    private static final float TOPO_MIOLO = 2.8f;
+    private static final float PADDING_V = 0.3f;
+    private static final float PADDING_H = 0.6f;
+    // .bar / .field
+    private static final float ALTURA_BARRA = 2.1f;
+    private static final float BORDA_CAMPO = 0.18f;
+    private static final float PADDING_CAMPO_V = 1.0f;
+    private static final float PADDING_CAMPO_H = 0.5f;
+    private static final float ALTURA_CAMPO_VERSO = 4.2f;
+    private static final float ALTURA_CAMPO_ALTO = 10f;
+    // Padrões do navegador em tabelas: td com padding de 1px e border-spacing de 2px
+    private static final float PADDING_CELULA = 0.265f;
+    private static final float ESPACO_TABELA = 0.53f;
+
+    /** Fonte do corpo (16px): o espaço entre os dois cartões inline-block é um espaço nela. */
+    private static final float FONTE_CORPO = 12f;
+
+    /*
+     * Métricas da Montserrat como o OpenHTMLToPDF as aplica (medidas no PDF do template): a linha
+     * de base fica 0,287 em abaixo do meio da caixa da linha, imagens inline deixam 0,463 em de
+     * descida abaixo delas e line-height: normal vale 1,48 em (regular) e 1,556 em (bold).
+     */
+    private static final float BASE_ABAIXO_DO_MEIO = 0.287f;
+    private static final float DESCIDA = 0.463f;
+    private static final float LINHA_NORMAL = 1.48f;
+    private static final float LINHA_NORMAL_BOLD = 1.556f;
+    private static final float LINHA_CAMPO = 1.2f;
+
+    /** Menor corpo (pt) ao reduzir um texto que não cabe no campo. */
+    private static final float FONTE_MINIMA = 3f;
+
+    private static final Color VERMELHO = new DeviceRgb(0xd8, 0x20, 0x20);
+    private static final Color CINZA_MIOLO = new DeviceRgb(0xef, 0xef, 0xef);
+    private static final Color CINZA_BORDA_CAMPO = new DeviceRgb(0xcf, 0xcf, 0xcf);
+    private static final Color TEXTO_BARRA = new DeviceRgb(0x44, 0x44, 0x44);
+    private static final Color TEXTO = new DeviceRgb(0x22, 0x22, 0x22);
+    private static final Color PRETO = new DeviceRgb(0, 0, 0);
+    private static final Color BRANCO = new DeviceRgb(0xff, 0xff, 0xff);
+    private static final Color FUNDO_FOTO = new DeviceRgb(0xfa, 0xfa, 0xfa);
+
+    @Autowired
+    private RecursosEstaticos recursosEstaticos;
+
+    @Autowired
+    private QRCodeUtil qrCodeUtil;
+
+    /** Programas de fonte lidos uma vez; cada documento cria seus PdfFont a partir deles. */
+    private FontProgram fonteRegular;
+    private FontProgram fonteBold;
+    private FontProgram fonteExtraBold;
+
+    @PostConstruct
+    void inicializar() {
+        fonteRegular = carregarFonte("/fonts/Montserrat-Regular.ttf");
+        fonteBold = carregarFonte("/fonts/Montserrat-Bold.ttf");
+        fonteExtraBold = carregarFonte("/fonts/Montserrat-ExtraBold.ttf");
+    }
+
+    /**
+     * Desenha a carteirinha (frente e verso) no stream de saída.
+     *
+     * @param item  textos já formatados do cartão (o campo {@code foto}/{@code qrCode} é ignorado)
+     * @param foto  bytes da foto (JPEG/PNG) ou {@code null}
+     * @param qrUrl URL codificada no QR Code ou {@code null}
+     */
+    public void renderizar(CarteirinhaService.LoteItem item, byte[] foto, String qrUrl, OutputStream saida)
+            throws IOException, WriterException {
+        PdfWriter writer = new PdfWriter(saida, new WriterProperties().setFullCompressionMode(true));
+        try (PdfDocument pdf = new PdfDocument(writer)) {
+            Fontes fontes = new Fontes(criarFonte(fonteRegular, StandardFonts.HELVETICA),
+                    criarFonte(fonteBold, StandardFonts.HELVETICA_BOLD),
+                    criarFonte(fonteExtraBold, StandardFonts.HELVETICA_BOLD));
+            PdfPage pagina = pdf.addNewPage(PageSize.A4);
+            PdfCanvas canvas = new PdfCanvas(pagina);
+
+            // .pair: cartões lado a lado, centralizados na página; a linha que os contém tem a
+            // descida da fonte do corpo abaixo deles
+            float espaco = fontes.regular.getWidth(" ", FONTE_CORPO) / MM;
+            float larguraPar = 2 * LARGURA_CARTAO + espaco;
+            float xFrente = (210f - larguraPar) / 2f;
+            float xVerso = xFrente + LARGURA_CARTAO + espaco;
+            float topo = (297f - ALTURA_CARTAO - DESCIDA * FONTE_CORPO / MM) / 2f;
+
+            Cartao frente = new Cartao(canvas, fontes, xFrente, topo);
+            frente.moldura();
+            desenharFrente(frente, item, foto);
+
+            Cartao verso = new Cartao(canvas, fontes, xVerso, topo);
+            verso.moldura();
+            desenharVerso(verso, item, qrUrl);
+        }
+    }
+
+    private void desenharFrente(Cartao c, CarteirinhaService.LoteItem item, byte[] foto) {
+        float x = c.xConteudo();
+        float w = c.larguraConteudo();
+        float y = TOPO_MIOLO + PADDING_V;
+
+        // Cabeçalho institucional: brasão 8 x 8 mm centralizado na célula de 12 mm + três
+        // linhas alinhadas à esquerda (2,4 mm, line-height 1.05)
+        ImageData logo = recursosEstaticos.logoPdf();
+        if (logo != null) {
+            c.imagemContida(logo, x + PADDING_CELULA + 2f, y + PADDING_CELULA, 8f, 8f);
+        }
+        float tamanhoInst = 2.4f * MM;
+        float linhaInst = 2.4f * 1.05f;
+        float xInst = x + 12f + 3 * PADDING_CELULA;
+        String[] inst = {"Poder Judiciário do Estado de Minas Gerais", "Corregedoria-Geral de Justiça",
+                "Vara da Infância e da Juventude"};
+        for (int i = 0; i < inst.length; i++) {
+            c.texto(inst[i], xInst, y + PADDING_CELULA + i * linhaInst, x + w - xInst, linhaInst, c.fontes.regular,
+                    tamanhoInst, PRETO, TextAlignment.LEFT, 0f);
+        }
+        y += 8f + DESCIDA * 6f / MM + 2 * PADDING_CELULA;
+
+        // Título (6.8pt, peso 800, line-height 1.1), centralizado; a margem inferior (0,6 mm)
+        // colapsa com a superior da tabela seguinte (1 mm)
+        y += 1.0f;
+        float linhaTitulo = 6.8f * 1.1f / MM;
+        c.texto("AGENTE VOLUNTÁRIO DE PROTEÇÃO À CRIANÇA", x, y, w, linhaTitulo, c.fontes.extraBold, 6.8f,
+                TEXTO, TextAlignment.CENTER, 0.02f);
+        c.texto("E AO ADOLESCENTE", x, y + linhaTitulo, w, linhaTitulo, c.fontes.extraBold, 6.8f,
+                TEXTO, TextAlignment.CENTER, 0.02f);
+        y += 2 * linhaTitulo + 1.0f;
+
+        // Foto 16 x 20 mm centralizada na coluna de 28 mm
+        float yCelula = y + PADDING_CELULA;
+        float xFoto = x + PADDING_CELULA + (28f - 16f) / 2f;
+        if (foto != null && foto.length > 0) {
+            try {
+                c.imagemCoberta(ImageDataFactory.create(foto), xFoto, yCelula, 16f, 20f);
+            } catch (RuntimeException e) {
+                log.warn("Foto do agente ignorada no renderizador direto: {}", e.getMessage());
+            }
+            c.contorno(xFoto, yCelula, 16f, 20f, 0.28f, PRETO);
+        }
+
+        // Comarca + nome (coluna com padding-left de 3 mm)
+        float xDir = x + 28f + 2 * PADDING_CELULA + 3f;
+        float wDir = x + w - PADDING_CELULA - xDir;
+        float yDir = yCelula;
+        float alturaComarca = 2 * (BORDA_CAMPO + PADDING_CAMPO_V) + 6f * LINHA_CAMPO / MM;
+        c.barra("Válida na Comarca de", xDir, yDir, wDir);
+        yDir += ALTURA_BARRA;
+        c.campo(item.comarca, xDir, yDir, wDir, alturaComarca, TextAlignment.CENTER, c.fontes.regular, 6f);
+        yDir += alturaComarca + 1.0f;
+        c.barra("Nome", xDir, yDir, wDir);
+        yDir += ALTURA_BARRA;
+        c.campo(item.nomeCompleto, xDir, yDir, wDir, ALTURA_CAMPO_ALTO, TextAlignment.CENTER, c.fontes.regular, 6f);
+        yDir += ALTURA_CAMPO_ALTO;
+        y = Math.max(yCelula + 20f, yDir) + PADDING_CELULA;
+
+        // Linha do juiz + texto legal, centralizados
+        y += 5f;
+        c.linha(x, y, w, 0.35f);
+        y += 0.35f + 0.6f;
+        float linhaPequena = 4.4f * LINHA_NORMAL / MM;
+        c.texto("JUIZ DE DIREITO DA INFÂNCIA E DA JUVENTUDE", x, y, w, linhaPequena, c.fontes.regular, 4.4f,
+                TEXTO, TextAlignment.CENTER, 0.06f);
+        y += linhaPequena + 0.6f;
+        c.texto("Credencial conforme o disposto no " + item.provimento, x, y, w, linhaPequena, c.fontes.regular,
+                4.4f, TEXTO, TextAlignment.CENTER, 0f);
+    }
+
+    private void desenharVerso(Cartao c, CarteirinhaService.LoteItem item, String qrUrl)
+            throws IOException, WriterException {
+        float x = c.xConteudo();
+        float w = c.larguraConteudo();
+        float y = TOPO_MIOLO + PADDING_V;
+
+        // Grade de 3 colunas com border-spacing padrão: UF/validade com 18 mm e as outras duas
+        // repartindo o restante na proporção da largura do conteúdo (layout automático de tabela)
+        float s = ESPACO_TABELA;
+        float wUf = 18f;
+        float max1 = Math.max(Math.max(c.larguraCelula("Carteira de Identidade", item.ci),
+                c.larguraCelula("Nacionalidade", item.nacionalidade)),
+                c.larguraCelula("Data de Nascimento", item.dataNascimento));
+        float max2 = Math.max(c.larguraCelula("Naturalidade", item.naturalidade),
+                c.larguraCelula("Data de Expedição", item.dataExpedicao));
+        float livre = w - wUf - 4 * s;
+        float wCol1 = livre * max1 / (max1 + max2);
+        float wCol2 = livre - wCol1;
+        float x1 = x + s;
+        float x2 = x1 + wCol1 + s;
+        float x3 = x2 + wCol2 + s;
+        float linha = 2 * PADDING_CELULA + ALTURA_BARRA + ALTURA_CAMPO_VERSO;
+
+        y += s;
+        celula(c, "Carteira de Identidade", item.ci, x1, y, wCol1);
+        celula(c, "CPF", item.cpf, x2, y, wCol2 + s + wUf);
+        y += linha + s;
+        celula(c, "Nacionalidade", item.nacionalidade, x1, y, wCol1);
+        celula(c, "Naturalidade", item.naturalidade, x2, y, wCol2);
+        celula(c, "UF", item.uf, x3, y, wUf);
+        y += linha + s;
+        celula(c, "Data de Nascimento", item.dataNascimento, x1, y, wCol1);
+        celula(c, "Data de Expedição", item.dataExpedicao, x2, y, wCol2);
+        c.barra("Validade", x3 + PADDING_CELULA, y + PADDING_CELULA, wUf - 2 * PADDING_CELULA);
+        c.campo("TEMPO INDETERMINADO", x3 + PADDING_CELULA, y + PADDING_CELULA + ALTURA_BARRA,
+                wUf - 2 * PADDING_CELULA, ALTURA_CAMPO_VERSO, TextAlignment.RIGHT, c.fontes.bold, 1.2f * MM);
+        y += linha + s;
+
+        // Filiação + QR Code (coluna de 24 mm)
+        y += 1.0f + PADDING_CELULA;
+        float wQr = 24f;
+        float wFil = w - wQr;
+        c.barra("Filiação", x + PADDING_CELULA, y, wFil - 2 * PADDING_CELULA);
+        c.campo(item.filiacao, x + PADDING_CELULA, y + ALTURA_BARRA, wFil - 2 * PADDING_CELULA, ALTURA_CAMPO_ALTO,
+                TextAlignment.CENTER, c.fontes.regular, 6f);
+        float xQr = x + wFil + PADDING_CELULA;
+        float wCampoQr = wQr - 2 * PADDING_CELULA;
+        c.barra("QR Code", xQr, y, wCampoQr);
+        c.retangulo(xQr, y + ALTURA_BARRA, wCampoQr, ALTURA_CAMPO_ALTO, BRANCO);
+        if (qrUrl != null && !qrUrl.isBlank()) {
+            float lado = 10f;
+            float xImagem = xQr + (wCampoQr - lado) / 2f;
+            if (qrCodeUtil.isVetorial()) {
+                c.formulario(qrCodeUtil.gerarFormPdf(qrUrl, c.canvas.getDocument(), lado * MM),
+                        xImagem, y + ALTURA_BARRA, lado, lado);
+            } else {
+                c.imagemContida(ImageDataFactory.create(qrCodeUtil.gerarPng(qrUrl)), xImagem, y + ALTURA_BARRA,
+                        lado, lado);
+            }
+        }
+        y += ALTURA_BARRA + ALTURA_CAMPO_ALTO + PADDING_CELULA;
+
+        // Assinatura
+        y += 5f;
+        c.linha(x, y, w, 0.35f);
+        y += 0.35f + 0.6f;
+        float linhaLegenda = 4f * LINHA_NORMAL / MM;
+        c.texto("ASSINATURA DO AGENTE VOLUNTÁRIO DE PROTEÇÃO À CRIANÇA E AO ADOLESCENTE", x, y, w, linhaLegenda,
+                c.fontes.regular, 4f, TEXTO, TextAlignment.CENTER, 0f);
+        y += linhaLegenda + 0.6f;
+        c.texto("Nº " + item.numeroCredencial, x, y, w, 4.5f * LINHA_CAMPO / MM, c.fontes.regular, 4.5f, TEXTO,
+                TextAlignment.RIGHT, 0f);
+    }
+
+    /** Célula da grade do verso: padding de 1px, barra e campo de altura fixa. */
+    private static void celula(Cartao c, String rotulo, String valor, float x, float y, float w) {
+        float xc = x + PADDING_CELULA;
+        float wc = w - 2 * PADDING_CELULA;
+        c.barra(rotulo, xc, y + PADDING_CELULA, wc);
+        c.campo(valor, xc, y + PADDING_CELULA + ALTURA_BARRA, wc, ALTURA_CAMPO_VERSO, TextAlignment.CENTER,
+                c.fontes.regular, 6f);
+    }
+
+    private record Fontes(PdfFont regular, PdfFont bold, PdfFont extraBold) {}
+
+    /**
+     * Primitivas de desenho de um cartão; coordenadas em mm a partir do canto superior
+     * esquerdo do cartão (como no CSS).
+     */
+    private static final class Cartao {
+        private final PdfCanvas canvas;
+        private final Fontes fontes;
+        private final float origemX;
+        private final float origemY;
+
+        Cartao(PdfCanvas canvas, Fontes fontes, float origemX, float origemY) {
+            this.canvas = canvas;
+            this.fontes = fontes;
+            this.origemX = origemX;
+            this.origemY = origemY;
+        }
+
+        float xConteudo() {
+            return BORDA_LATERAL + PADDING_H;
+        }
+
+        float larguraConteudo() {
+            return LARGURA_CARTAO - 2 * BORDA_LATERAL - 2 * PADDING_H;
+        }
+
+        /** Converte um retângulo do cartão (mm, topo-esquerda) para coordenadas do PDF (pt, base-esquerda). */
+        Rectangle ret(float x, float y, float w, float h) {
+            float pdfX = (origemX + x) * MM;
+            float pdfY = (297f - origemY - y - h) * MM;
+            return new Rectangle(pdfX, pdfY, w * MM, h * MM);
+        }
+
+        void moldura() {
+            // Bordas vermelhas (laterais 2 mm, inferior 1 mm) + fundo cinza
+            retangulo(0, 0, LARGURA_CARTAO, ALTURA_CARTAO, VERMELHO);
+            retangulo(BORDA_LATERAL, 0, LARGURA_CARTAO - 2 * BORDA_LATERAL, ALTURA_CARTAO - BORDA_INFERIOR, CINZA_MIOLO);
+            // Faixa superior "Poder Judiciário" (o miolo a cobre a partir de 2,8 mm)
+            retangulo(0, 0, LARGURA_CARTAO, ALTURA_FAIXA, VERMELHO);
+            retangulo(BORDA_LATERAL, TOPO_MIOLO, LARGURA_CARTAO - 2 * BORDA_LATERAL, ALTURA_FAIXA - TOPO_MIOLO, CINZA_MIOLO);
+            texto("PODER JUDICIÁRIO", 0, 0, LARGURA_CARTAO, LINHA_FAIXA, fontes.extraBold, 6f, BRANCO,
+                    TextAlignment.CENTER, 0.06f);
+        }
+
+        void retangulo(float x, float y, float w, float h, Color cor) {
+            canvas.saveState().setFillColor(cor).rectangle(ret(x, y, w, h)).fill().restoreState();
+        }
+
+        void contorno(float x, float y, float w, float h, float espessura, Color cor) {
+            canvas.saveState().setStrokeColor(cor).setLineWidth(espessura * MM)
+                    .rectangle(ret(x, y, w, h)).stroke().restoreState();
+        }
+
+        void linha(float x, float y, float w, float espessura) {
+            retangulo(x, y, w, espessura, PRETO);
+        }
+
+        void barra(String rotulo, float x, float y, float w) {
+            texto(rotulo.toUpperCase(Locale.ROOT), x, y, w, 4.5f * LINHA_NORMAL_BOLD / MM, fontes.bold, 4.5f,
+                    TEXTO_BARRA, TextAlignment.CENTER, 0f);
+        }
+
+        /** Largura de conteúdo (mm) de uma célula da grade do verso: a maior entre barra e campo. */
+        float larguraCelula(String rotulo, String valor) {
+            float barra = fontes.bold.getWidth(rotulo.toUpperCase(Locale.ROOT), 4.5f) / MM;
+            float campo = fontes.regular.getWidth(normalizar(valor), 6f) / MM + 2 * (BORDA_CAMPO + PADDING_CAMPO_H);
+            return Math.max(barra, campo) + 2 * PADDING_CELULA;
+        }
+
+        /**
+         * Campo branco com o valor quebrado em linhas (line-height 1.2). O campo tem altura fixa:
+         * se as linhas não couberem, o corpo é reduzido até caberem, em vez de cortar o texto.
+         */
+        void campo(String valor, float x, float y, float w, float h, TextAlignment alinhamento,
+                   PdfFont fonte, float tamanho) {
+            retangulo(x, y, w, h, BRANCO);
+            contorno(x, y, w, h, BORDA_CAMPO, CINZA_BORDA_CAMPO);
+            String texto = normalizar(valor);
+            if (texto.isEmpty()) {
+                return;
+            }
+            float xTexto = x + BORDA_CAMPO + PADDING_CAMPO_H;
+            float wTexto = w - 2 * (BORDA_CAMPO + PADDING_CAMPO_H);
+            // O texto pode ocupar o padding inferior, como no HTML
+            float hTexto = h - 2 * BORDA_CAMPO - PADDING_CAMPO_V;
+            List<String> linhas = quebrar(texto, fonte, tamanho, wTexto);
+            while (tamanho > FONTE_MINIMA
+                    && (linhas.size() * tamanho * LINHA_CAMPO / MM > hTexto || maisLarga(linhas, fonte, tamanho) > wTexto)) {
+                tamanho = Math.max(FONTE_MINIMA, tamanho - 0.25f);
+                linhas = quebrar(texto, fonte, tamanho, wTexto);
+            }
+            float alturaLinha = tamanho * LINHA_CAMPO / MM;
+            float yLinha = y + BORDA_CAMPO + PADDING_CAMPO_V;
+            for (String linha : linhas) {
+                texto(linha, xTexto, yLinha, wTexto, alturaLinha, fonte, tamanho, TEXTO, alinhamento, 0f);
+                yLinha += alturaLinha;
+            }
+        }
+
+        /**
+         * Texto de uma linha na caixa de linha informada (topo {@code y}, altura {@code h}), com a
+         * linha de base onde o HTML a põe. {@code espacamento} é o letter-spacing em em.
+         */
+        void texto(String valor, float x, float y, float w, float h, PdfFont fonte, float tamanho, Color cor,
+                   TextAlignment alinhamento, float espacamento) {
+            float espacamentoPt = espacamento * tamanho;
+            float largura = (fonte.getWidth(valor, tamanho) + espacamentoPt * valor.length()) / MM;
+            float xTexto = switch (alinhamento) {
+                case CENTER -> x + (w - largura) / 2f;
+                case RIGHT -> x + w - largura;
+                default -> x;
+            };
+            float base = y + h / 2f + BASE_ABAIXO_DO_MEIO * tamanho / MM;
+            canvas.saveState().beginText().setFontAndSize(fonte, tamanho).setFillColor(cor)
+                    .setCharacterSpacing(espacamentoPt)
+                    .moveText((origemX + xTexto) * MM, (297f - origemY - base) * MM)
+                    .showText(valor).endText().restoreState();
+        }
+
+        /** Equivalente a object-fit: contain (centralizada, proporção preservada). */
+        void imagemContida(ImageData imagem, float x, float y, float w, float h) {
+            float escala = Math.min(w / (imagem.getWidth()), h / (imagem.getHeight()));
+            float iw = imagem.getWidth() * escala;
+            float ih = imagem.getHeight() * escala;
+            canvas.addImageFittedIntoRectangle(imagem, ret(x + (w - iw) / 2f, y + (h - ih) / 2f, iw, ih), false);
+        }
+
+        /** Desenha um XObject de formulário (conteúdo vetorial) ocupando a área informada. */
+        void formulario(PdfFormXObject form, float x, float y, float w, float h) {
+            canvas.addXObjectFittedIntoRectangle(form, ret(x, y, w, h));
+        }
+
+        /** Equivalente a object-fit: cover (preenche a área, recortando o excedente). */
+        void imagemCoberta(ImageData imagem, float x, float y, float w, float h) {
+            retangulo(x, y, w, h, FUNDO_FOTO);
+            float escala = Math.max(w / imagem.getWidth(), h / imagem.getHeight());
+            float iw = imagem.getWidth() * escala;
+            float ih = imagem.getHeight() * escala;
+            canvas.saveState();
+            canvas.rectangle(ret(x, y, w, h)).clip().endPath();
+            canvas.addImageFittedIntoRectangle(imagem, ret(x + (w - iw) / 2f, y + (h - ih) / 2f, iw, ih), false);
+            canvas.restoreState();
+        }
+    }
+
+    /** Espaços em sequência viram um só, como no HTML. */
+    private static String normalizar(String valor) {
+        return valor == null ? "" : valor.trim().replaceAll("\\s+", " ");
+    }
+
+    /**
+     * Quebra por palavras (largura em mm); uma palavra maior que a linha fica sozinha nela.
+     * Como no OpenHTMLToPDF, o espaço depois da palavra conta na largura, exceto no fim do texto.
+     */
+    private static List<String> quebrar(String texto, PdfFont fonte, float tamanho, float largura) {
+        List<String> linhas = new ArrayList<>();
+        StringBuilder atual = new StringBuilder();
+        String[] palavras = texto.split(" ");
+        for (int i = 0; i < palavras.length; i++) {
+            String palavra = palavras[i];
+            String candidata = atual.isEmpty() ? palavra : atual + " " + palavra;
+            String medida = i < palavras.length - 1 ? candidata + " " : candidata;
+            if (!atual.isEmpty() && fonte.getWidth(medida, tamanho) / MM > largura) {
+                linhas.add(atual.toString());
+                atual.setLength(0);
+                atual.append(palavra);
+            } else {
+                atual.setLength(0);
+                atual.append(candidata);
+            }
+        }
+        linhas.add(atual.toString());
+        return linhas;
+    }
+
+    private static float maisLarga(List<String> linhas, PdfFont fonte, float tamanho) {
+        float maior = 0f;
+        for (String linha : linhas) {
+            maior = Math.max(maior, fonte.getWidth(linha, tamanho) / MM);
+        }
+        return maior;
+    }
+
+    private static PdfFont criarFonte(FontProgram programa, String padrao) throws IOException {
+        if (programa != null) {
+            return PdfFontFactory.createFont(programa, PdfEncodings.IDENTITY_H,
+                    PdfFontFactory.EmbeddingStrategy.PREFER_EMBEDDED);
+        }
+        return PdfFontFactory.createFont(padrao);
+    }
+
+    private FontProgram carregarFonte(String caminho) {
+        try (InputStream is = getClass().getResourceAsStream(caminho)) {
+            if (is == null) {
+                log.warn("Fonte não encontrada no classpath: {} (renderizador direto usará Helvetica)", caminho);
+                return null;
+            }
+            return FontProgramFactory.createFont(is.readAllBytes());
+        } catch (IOException e) {
+            log.warn("Falha ao carregar fonte {}: {}", caminho, e.getMessage());
+            return null;
+        }
+    }
+}
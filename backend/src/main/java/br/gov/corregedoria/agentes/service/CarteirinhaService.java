@@ -3,33 +3,65 @@ package br.gov.corregedoria.agentes.service;
 import br.gov.corregedoria.agentes.entity.AgenteVoluntario;
 import br.gov.corregedoria.agentes.entity.Credencial;
 import br.gov.corregedoria.agentes.entity.StatusAgente;
+import br.gov.corregedoria.agentes.event.AgenteAlteradoEvent;
+import br.gov.corregedoria.agentes.event.CredencialEmitidaEvent;
 import br.gov.corregedoria.agentes.repository.AgenteVoluntarioRepository;
 import br.gov.corregedoria.agentes.repository.CredencialRepository;
+import br.gov.corregedoria.agentes.util.CacheLru;
+import br.gov.corregedoria.agentes.util.HtmlPdfRenderer;
 import br.gov.corregedoria.agentes.util.QRCodeUtil;
+import br.gov.corregedoria.agentes.util.RecursosEstaticos;
+import br.gov.corregedoria.agentes.util.SpoolOutputStream;
 import com.google.zxing.WriterException;
-import com.openhtmltopdf.pdfboxout.PdfRendererBuilder;
-import com.openhtmltopdf.outputdevice.helper.BaseRendererBuilder;
-import com.openhtmltopdf.svgsupport.BatikSVGDrawer;
+import com.itextpdf.kernel.pdf.PdfDocument;
+import com.itextpdf.kernel.pdf.PdfReader;
+import com.itextpdf.kernel.pdf.PdfWriter;
+import com.itextpdf.kernel.utils.PdfMerger;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
 import org.thymeleaf.context.Context;
 import org.thymeleaf.spring6.SpringTemplateEngine;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.unit.DataSize;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.time.format.DateTimeFormatter;
+import java.util.Arrays;
 import java.util.Base64;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
 
 @Service
 public class CarteirinhaService {
     private static final Logger log = LoggerFactory.getLogger(CarteirinhaService.class);
 
+    /** Máximo de itens por cláusula IN no Oracle. */
+    private static final int TAMANHO_BLOCO_IN = 1000;
+
     @Autowired
     private AgenteVoluntarioRepository agenteRepository;
 
@@ -44,9 +76,79 @@ public class CarteirinhaService {
 
     public record Verificacao(boolean podeGerar, String mensagem) {}
 
+    private record CarteirinhaEmCache(long versao, byte[] pdf) {}
+
+    /**
+     * Cartão do lote já desligado da sessão JPA: textos formatados, foto e URL do QR Code.
+     * Foto e QR Code só viram Data URI na renderização do grupo.
+     */
+    private record CartaoLote(LoteItem item, byte[] foto, String qrUrl) {}
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
     @Autowired
     private SpringTemplateEngine templateEngine;
 
+    @Autowired
+    private HtmlPdfRenderer pdfRenderer;
+
+    @Autowired
+    private RecursosEstaticos recursosEstaticos;
+
+    @Autowired
+    private CarteirinhaPdfDireto cartaoDireto;
+
+    private static final String RENDERIZADOR_DIRETO = "direto";
+
+    /**
+     * Renderizador do cartão individual: "html" (template Thymeleaf + OpenHTMLToPDF, padrão)
+     * ou "direto" (layout desenhado com iText, menor latência). O lote usa sempre o template.
+     */
+    @Value("${app.carteirinha.renderizador:html}")
+    private String renderizador;
+
+    private final MeterRegistry meterRegistry;
+
+    /** Quantidade de cartões renderizados por documento parcial no lote (4 cabem numa página A4). */
+    @Value("${app.carteirinha.lote.cartoes-por-pagina:4}")
+    private int cartoesPorPagina;
+
+    /**
+     * Agentes carregados e renderizados por vez no lote: só os dados (fotos inclusive) de um
+     * bloco ficam em memória, qualquer que seja o tamanho do lote.
+     */
+    @Value("${app.carteirinha.lote.agentes-por-bloco:100}")
+    private int agentesPorBloco;
+
+    /** Acima deste tamanho o PDF gerado é mantido em arquivo temporário em vez de memória. */
+    @Value("${app.carteirinha.spool.limite-memoria:2MB}")
+    private DataSize limiteSpoolMemoria;
+
+    /** Pool limitado para geração paralela do lote (QR Codes e layout). */
+    private final ForkJoinPool lotePool;
+
+    /** PDFs de cartões individuais já renderizados, por agente (validados pela versão dos dados). */
+    private final CacheLru<Long, CarteirinhaEmCache> cacheCarteirinhas;
+
+    /** Cartões maiores que este tamanho não são mantidos em cache. */
+    @Value("${app.carteirinha.cache.tamanho-maximo-entrada:512KB}")
+    private DataSize tamanhoMaximoEntradaCache;
+
+    private final TransactionTemplate transacaoLeitura;
+
+    public CarteirinhaService(@Value("${app.carteirinha.lote.paralelismo:4}") int paralelismo,
+                              @Value("${app.carteirinha.cache.capacidade:100}") int capacidadeCache,
+                              MeterRegistry meterRegistry,
+                              PlatformTransactionManager transactionManager) {
+        this.meterRegistry = meterRegistry;
+        this.transacaoLeitura = new TransactionTemplate(transactionManager);
+        this.transacaoLeitura.setReadOnly(true);
+        this.lotePool = new ForkJoinPool(Math.max(1, paralelismo));
+        this.cacheCarteirinhas = new CacheLru<Long, CarteirinhaEmCache>("carteirinhas", capacidadeCache)
+                .registrarMetricas(meterRegistry);
+    }
+
     public Verificacao verificar(Long agenteId) {
         Optional<AgenteVoluntario> agenteOptional = agenteRepository.findById(agenteId);
         if (agenteOptional.isEmpty()) {
@@ -64,6 +166,27 @@ public class CarteirinhaService {
     }
 
     public byte[] gerarPdf(Long agenteId, boolean inline) throws IOException, WriterException {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        gerarPdf(agenteId, inline, baos);
+        return baos.toByteArray();
+    }
+
+    /**
+     * Gera a carteirinha num spool (memória até o limite configurado, disco acima dele),
+     * pronto para ser transmitido ao cliente. Quem recebe deve chamar {@link SpoolOutputStream#descartar()}.
+     */
+    public SpoolOutputStream gerarPdfSpool(Long agenteId, boolean inline) throws IOException, WriterException {
+        SpoolOutputStream spool = novoSpool();
+        try {
+            gerarPdf(agenteId, inline, spool);
+            return spool;
+        } catch (IOException | WriterException | RuntimeException e) {
+            spool.descartar();
+            throw e;
+        }
+    }
+
+    public void gerarPdf(Long agenteId, boolean inline, OutputStream saida) throws IOException, WriterException {
         AgenteVoluntario agente = agenteRepository.findById(agenteId)
                 .orElseThrow(() -> new IllegalArgumentException("Agente não encontrado: " + agenteId));
         Optional<Credencial> credencialOptional = credencialRepository.findFirstByAgenteIdOrderByDataEmissaoDescIdDesc(agenteId);
@@ -71,238 +194,436 @@ public class CarteirinhaService {
             throw new IllegalStateException("Credencial não encontrada para o agente");
         }
         Credencial credencial = credencialOptional.get();
-        String qrBase64 = qrCodeUtil.gerarQRCode(credencial.getQrCodeUrl());
-        String qrDataUri = qrBase64 != null && !qrBase64.isBlank() ? "data:image/png;base64," + qrBase64 : null;
 
-        String fotoDataUri = null;
-        if (agente.getFoto() != null && agente.getFoto().length > 0) {
-            String mime = deduzirMimeImagem(agente.getFoto());
-            fotoDataUri = "data:" + mime + ";base64," + Base64.getEncoder().encodeToString(agente.getFoto());
+        // Cartão já renderizado para a mesma versão dos dados: devolve sem refazer o layout
+        long versao = calcularVersao(agente, credencial);
+        CarteirinhaEmCache emCache = cacheCarteirinhas.obter(agenteId);
+        if (emCache != null && emCache.versao() == versao) {
+            saida.write(emCache.pdf());
+            return;
         }
 
-        String logoDataUri = carregarLogoComoDataUri();
+        // Escrito direto na saída; a cópia para o cache só é mantida enquanto couber no limite da entrada
+        CopiaParaCache copia = new CopiaParaCache(saida, tamanhoMaximoEntradaCache.toBytes());
+        renderizarCarteirinha(agente, credencial, copia);
+        byte[] pdf = copia.conteudo();
+        if (pdf != null) {
+            cacheCarteirinhas.colocar(agenteId, new CarteirinhaEmCache(versao, pdf));
+        }
+    }
 
-        // Variáveis do template
-        String nomeCompleto = safe(agente.getNomeCompleto());
-        String comarca = agente.getComarcas().stream().findFirst().map(c -> c.getNomeComarca()).orElse("NÃO INFORMADO");
-        String ci = safe(agente.getNumeroCarteiraIdentidade());
-        String uf = safe(agente.getUf());
-        String cpf = safe(formatarCpf(agente.getCpf()));
-        String nacionalidade = safe(agente.getNacionalidade());
-        String naturalidade = safe(agente.getNaturalidade());
-        String dataNascimento = agente.getDataNascimento() != null ? agente.getDataNascimento().format(DateTimeFormatter.ofPattern("dd/MM/yyyy")) : "";
-        String dataExpedicao = agente.getDataExpedicaoCI() != null ? agente.getDataExpedicaoCI().format(DateTimeFormatter.ofPattern("dd/MM/yyyy")) : "";
-        String filiacao = (safe(agente.getFiliacaoPai()).isBlank() && safe(agente.getFiliacaoMae()).isBlank()) ? "" : ("Pai: " + safe(agente.getFiliacaoPai()) + "  |  Mãe: " + safe(agente.getFiliacaoMae()));
-        String numeroCredencial = formatarNumeroComQuatroDigitos(credencial.getId());
-        String codigoControle = "Cód.: " + credencial.getId();
-        String versao = "v2.0";
-        String provimento = "art. 362, §1º do Provimento nº 355/2018";
-        String dataEmissao = credencial.getDataEmissao() != null ? credencial.getDataEmissao().format(DateTimeFormatter.ofPattern("dd/MM/yyyy")) : "";
+    /**
+     * Repassa tudo ao destino e guarda uma cópia até {@code limite} bytes; acima disso a cópia é
+     * abandonada e o cartão não entra no cache.
+     */
+    private static final class CopiaParaCache extends OutputStream {
+        private final OutputStream destino;
+        private final long limite;
+        private ByteArrayOutputStream copia = new ByteArrayOutputStream();
+
+        CopiaParaCache(OutputStream destino, long limite) {
+            this.destino = destino;
+            this.limite = limite;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            destino.write(b);
+            copiar(new byte[] {(byte) b}, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            destino.write(b, off, len);
+            copiar(b, off, len);
+        }
+
+        @Override
+        public void flush() throws IOException {
+            destino.flush();
+        }
+
+        /** O destino é de quem chamou e continua aberto. */
+        @Override
+        public void close() {
+        }
+
+        /** Conteúdo escrito, ou null se passou do limite. */
+        byte[] conteudo() {
+            return copia != null ? copia.toByteArray() : null;
+        }
+
+        private void copiar(byte[] b, int off, int len) {
+            if (copia == null) {
+                return;
+            }
+            if (copia.size() + len > limite) {
+                copia = null;
+                return;
+            }
+            copia.write(b, off, len);
+        }
+    }
+
+    private void renderizarCarteirinha(AgenteVoluntario agente, Credencial credencial, OutputStream saida)
+            throws IOException, WriterException {
+        LoteItem item = montarItem(agente, credencial, recursosEstaticos.logoDataUri());
 
+        if (RENDERIZADOR_DIRETO.equalsIgnoreCase(renderizador)) {
+            cartaoDireto.renderizar(item, agente.getFoto(), credencial.getQrCodeUrl(), saida);
+            return;
+        }
+
+        item.foto = fotoDataUri(agente);
+        item.qrCode = qrCodeUtil.gerarImagemTemplate(credencial.getQrCodeUrl());
+
+        // Variáveis do template
         Context templateContext = new Context();
-        templateContext.setVariable("logo", logoDataUri);
-        templateContext.setVariable("foto", fotoDataUri);
-        templateContext.setVariable("qr", qrDataUri);
-        templateContext.setVariable("qrCode", qrDataUri); // compatibilidade com template
-        templateContext.setVariable("codigoControle", codigoControle);
-        templateContext.setVariable("versao", versao);
-        templateContext.setVariable("provimento", provimento);
-        templateContext.setVariable("dataEmissao", dataEmissao);
-        templateContext.setVariable("nomeCompleto", nomeCompleto);
-        templateContext.setVariable("comarca", comarca);
-        templateContext.setVariable("ci", ci);
-        templateContext.setVariable("uf", uf);
-        templateContext.setVariable("cpf", cpf);
-        templateContext.setVariable("nacionalidade", nacionalidade);
-        templateContext.setVariable("naturalidade", naturalidade);
-        templateContext.setVariable("dataNascimento", dataNascimento);
-        templateContext.setVariable("dataExpedicao", dataExpedicao);
-        templateContext.setVariable("filiacao", filiacao);
-        templateContext.setVariable("numeroCredencial", numeroCredencial);
+        templateContext.setVariable("logo", item.logo);
+        templateContext.setVariable("foto", item.foto);
+        templateContext.setVariable("qr", item.qrCode);
+        templateContext.setVariable("qrCode", item.qrCode); // compatibilidade com template
+        templateContext.setVariable("codigoControle", item.codigoControle);
+        templateContext.setVariable("versao", item.versao);
+        templateContext.setVariable("provimento", item.provimento);
+        templateContext.setVariable("dataEmissao", item.dataEmissao);
+        templateContext.setVariable("nomeCompleto", item.nomeCompleto);
+        templateContext.setVariable("comarca", item.comarca);
+        templateContext.setVariable("ci", item.ci);
+        templateContext.setVariable("uf", item.uf);
+        templateContext.setVariable("cpf", item.cpf);
+        templateContext.setVariable("nacionalidade", item.nacionalidade);
+        templateContext.setVariable("naturalidade", item.naturalidade);
+        templateContext.setVariable("dataNascimento", item.dataNascimento);
+        templateContext.setVariable("dataExpedicao", item.dataExpedicao);
+        templateContext.setVariable("filiacao", item.filiacao);
+        templateContext.setVariable("numeroCredencial", item.numeroCredencial);
 
         String html = templateEngine.process("carteirinha_agente", templateContext);
 
-        try (ByteArrayOutputStream baos = new ByteArrayOutputStream()) {
-            PdfRendererBuilder builder = new PdfRendererBuilder();
-            builder.useSVGDrawer(new BatikSVGDrawer());
-            // Registrar fontes locais (Montserrat) para incorporação no PDF
-            registrarFontes(builder);
-            builder.withHtmlContent(html, null);
-            builder.toStream(baos);
-            builder.run();
-            return baos.toByteArray();
-        } catch (Exception e) {
+        try {
+            pdfRenderer.renderizar(html, saida);
+        } catch (IOException e) {
             throw new IOException("Falha ao gerar a carteirinha (HTML->PDF): " + e.getMessage(), e);
         }
     }
 
+    /**
+     * Textos do cartão já formatados (comuns ao template individual, ao lote e ao renderizador direto).
+     * Foto e QR Code (como Data URI) ficam a cargo de quem usa o template.
+     */
+    private LoteItem montarItem(AgenteVoluntario agente, Credencial credencial, String logoDataUri) {
+        LoteItem it = new LoteItem();
+        it.logo = logoDataUri;
+        it.codigoControle = "Cód.: " + credencial.getId();
+        it.versao = "v2.0";
+        it.provimento = "art. 362, §1º do Provimento nº 355/2018";
+        it.dataEmissao = credencial.getDataEmissao() != null ? credencial.getDataEmissao().format(DateTimeFormatter.ofPattern("dd/MM/yyyy")) : "";
+        it.nomeCompleto = safe(agente.getNomeCompleto());
+        it.comarca = agente.getComarcas().stream().findFirst().map(c -> c.getNomeComarca()).orElse("NÃO INFORMADO");
+        it.ci = safe(agente.getNumeroCarteiraIdentidade());
+        it.uf = safe(agente.getUf());
+        it.cpf = safe(formatarCpf(agente.getCpf()));
+        it.nacionalidade = safe(agente.getNacionalidade());
+        it.naturalidade = safe(agente.getNaturalidade());
+        it.dataNascimento = agente.getDataNascimento() != null ? agente.getDataNascimento().format(DateTimeFormatter.ofPattern("dd/MM/yyyy")) : "";
+        it.dataExpedicao = agente.getDataExpedicaoCI() != null ? agente.getDataExpedicaoCI().format(DateTimeFormatter.ofPattern("dd/MM/yyyy")) : "";
+        it.filiacao = (safe(agente.getFiliacaoPai()).isBlank() && safe(agente.getFiliacaoMae()).isBlank()) ? "" : ("Pai: " + safe(agente.getFiliacaoPai()) + "  |  Mãe: " + safe(agente.getFiliacaoMae()));
+        it.numeroCredencial = formatarNumeroComQuatroDigitos(credencial.getId());
+        return it;
+    }
+
+    /**
+     * Versão dos dados que compõem o cartão (agente, comarca, foto e credencial mais recente).
+     * Qualquer alteração nesses dados gera uma versão diferente e invalida o PDF em cache.
+     */
+    private static long calcularVersao(AgenteVoluntario agente, Credencial credencial) {
+        String comarca = agente.getComarcas().stream().findFirst().map(c -> c.getNomeComarca()).orElse(null);
+        int dados = Objects.hash(agente.getNomeCompleto(), agente.getCpf(), agente.getNumeroCarteiraIdentidade(),
+                agente.getUf(), agente.getNacionalidade(), agente.getNaturalidade(), agente.getDataNascimento(),
+                agente.getDataExpedicaoCI(), agente.getFiliacaoPai(), agente.getFiliacaoMae(), comarca,
+                credencial.getId(), credencial.getDataEmissao(), credencial.getQrCodeUrl());
+        return ((long) dados << 32) ^ (Arrays.hashCode(agente.getFoto()) & 0xFFFFFFFFL);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void aoAlterarAgente(AgenteAlteradoEvent evento) {
+        cacheCarteirinhas.remover(evento.agenteId());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void aoEmitirCredencial(CredencialEmitidaEvent evento) {
+        cacheCarteirinhas.remover(evento.agenteId());
+    }
+
+    /**
+     * Carrega os agentes (com comarcas) e a credencial mais recente de cada um em blocos de
+     * {@value #TAMANHO_BLOCO_IN} IDs (limite do IN no Oracle): duas consultas por bloco,
+     * independentemente da quantidade de cartões.
+     */
+    private void carregarLote(List<Long> agenteIds, Map<Long, AgenteVoluntario> agentes, Map<Long, Credencial> credenciais) {
+        List<Long> distintos = new ArrayList<>(new LinkedHashSet<>(agenteIds));
+        for (int i = 0; i < distintos.size(); i += TAMANHO_BLOCO_IN) {
+            List<Long> bloco = distintos.subList(i, Math.min(i + TAMANHO_BLOCO_IN, distintos.size()));
+            for (AgenteVoluntario agente : agenteRepository.findComComarcasByIdIn(bloco)) {
+                agentes.put(agente.getId(), agente);
+            }
+            for (Credencial credencial : credencialRepository.findMaisRecentesByAgenteIdIn(bloco)) {
+                credenciais.put(credencial.getAgente().getId(), credencial);
+            }
+        }
+    }
+
     public static class LoteItem {
         public String logo; public String foto; public String qrCode; public String codigoControle; public String versao; public String provimento; public String dataEmissao;
         public String nomeCompleto; public String comarca; public String ci; public String uf; public String cpf; public String nacionalidade; public String naturalidade;
         public String dataNascimento; public String dataExpedicao; public String filiacao; public String numeroCredencial;
     }
 
-    public byte[] gerarPdfLote(List<Long> agenteIds) throws IOException, WriterException {
-        String logoDataUri = carregarLogoComoDataUri();
-        List<LoteItem> itens = new ArrayList<>();
-
-        for (Long agenteId : agenteIds) {
-            AgenteVoluntario agente = agenteRepository.findById(agenteId)
-                    .orElseThrow(() -> new IllegalArgumentException("Agente não encontrado: " + agenteId));
-            Optional<Credencial> credencialOptional = credencialRepository.findFirstByAgenteIdOrderByDataEmissaoDescIdDesc(agenteId);
-            if (credencialOptional.isEmpty()) {
-                // pula agentes sem credencial
-                continue;
-            }
-            Credencial credencial = credencialOptional.get();
-            String qrBase64 = qrCodeUtil.gerarQRCode(credencial.getQrCodeUrl());
-            String qrDataUri = qrBase64 != null && !qrBase64.isBlank() ? "data:image/png;base64," + qrBase64 : null;
-
-            String fotoDataUri = null;
-            if (agente.getFoto() != null && agente.getFoto().length > 0) {
-                String mime = deduzirMimeImagem(agente.getFoto());
-                fotoDataUri = "data:" + mime + ";base64," + Base64.getEncoder().encodeToString(agente.getFoto());
-            }
+    /**
+     * Recebe o avanço da geração em lote. Os valores são incrementos e podem chegar
+     * de threads diferentes do pool do lote.
+     */
+    @FunctionalInterface
+    public interface ProgressoLote {
+        void registrar(int cartoesConcluidos, int falhas);
+    }
 
-            LoteItem it = new LoteItem();
-            it.logo = logoDataUri;
-            it.foto = fotoDataUri;
-            it.qrCode = qrDataUri;
-            it.codigoControle = "Cód.: " + credencial.getId();
-            it.versao = "v2.0";
-            it.provimento = "art. 362, §1º do Provimento nº 355/2018";
-            it.dataEmissao = credencial.getDataEmissao() != null ? credencial.getDataEmissao().format(DateTimeFormatter.ofPattern("dd/MM/yyyy")) : "";
-            it.nomeCompleto = safe(agente.getNomeCompleto());
-            it.comarca = agente.getComarcas().stream().findFirst().map(c -> c.getNomeComarca()).orElse("NÃO INFORMADO");
-            it.ci = safe(agente.getNumeroCarteiraIdentidade());
-            it.uf = safe(agente.getUf());
-            it.cpf = safe(formatarCpf(agente.getCpf()));
-            it.nacionalidade = safe(agente.getNacionalidade());
-            it.naturalidade = safe(agente.getNaturalidade());
-            it.dataNascimento = agente.getDataNascimento() != null ? agente.getDataNascimento().format(DateTimeFormatter.ofPattern("dd/MM/yyyy")) : "";
-            it.dataExpedicao = agente.getDataExpedicaoCI() != null ? agente.getDataExpedicaoCI().format(DateTimeFormatter.ofPattern("dd/MM/yyyy")) : "";
-            it.filiacao = (safe(agente.getFiliacaoPai()).isBlank() && safe(agente.getFiliacaoMae()).isBlank()) ? "" : ("Pai: " + safe(agente.getFiliacaoPai()) + "  |  Mãe: " + safe(agente.getFiliacaoMae()));
-            it.numeroCredencial = formatarNumeroComQuatroDigitos(credencial.getId());
-            itens.add(it);
-        }
+    /**
+     * Gera o PDF do lote num spool (memória até o limite configurado, disco acima dele).
+     * Quem recebe deve chamar {@link SpoolOutputStream#descartar()} após o uso.
+     */
+    public SpoolOutputStream gerarPdfLote(List<Long> agenteIds) throws IOException, WriterException {
+        return gerarPdfLote(agenteIds, null);
+    }
 
-        if (itens.isEmpty()) {
-            throw new IllegalStateException("Nenhuma credencial encontrada para os agentes informados");
-        }
+    /**
+     * Variante com acompanhamento de progresso (usada pelos jobs assíncronos). Com {@code progresso}
+     * informado, agentes inexistentes contam como falha em vez de interromper o lote.
+     *
+     * O lote é processado em blocos de {@code app.carteirinha.lote.agentes-por-bloco} agentes:
+     * cada bloco é carregado numa transação curta (ver {@link #carregarLote}), renderizado em
+     * paralelo em partes gravadas em disco e acrescentado, na ordem solicitada, ao PDF final,
+     * que grava e libera as páginas copiadas a cada parte. O heap usado não cresce com o lote.
+     */
+    public SpoolOutputStream gerarPdfLote(List<Long> agenteIds, ProgressoLote progresso) throws IOException, WriterException {
+        String logoDataUri = recursosEstaticos.logoDataUri();
+        int porBloco = Math.max(1, Math.min(agentesPorBloco, TAMANHO_BLOCO_IN));
+        long busca = 0;
+        long layout = 0;
+        long merge = 0;
+        int cartoes = 0;
+        SpoolOutputStream pdf = novoSpool();
+        PdfDocument destino = null;
+        try {
+            for (int i = 0; i < agenteIds.size(); i += porBloco) {
+                List<Long> bloco = agenteIds.subList(i, Math.min(i + porBloco, agenteIds.size()));
+
+                // Etapa 1 (busca): agentes, comarcas e credenciais do bloco, já fora da sessão JPA
+                long inicio = System.nanoTime();
+                List<CartaoLote> cartoesBloco = carregarCartoes(bloco, logoDataUri, progresso != null);
+                busca += System.nanoTime() - inicio;
+                int ignorados = bloco.size() - cartoesBloco.size();
+                if (progresso != null && ignorados > 0) {
+                    progresso.registrar(0, ignorados);
+                }
+                if (cartoesBloco.isEmpty()) {
+                    continue;
+                }
 
-        Context ctx = new Context();
-        ctx.setVariable("itens", itens);
-
-        String html = templateEngine.process("carteirinhas_lote", ctx);
-
-        try (ByteArrayOutputStream baos = new ByteArrayOutputStream()) {
-            PdfRendererBuilder builder = new PdfRendererBuilder();
-            builder.useSVGDrawer(new BatikSVGDrawer());
-            registrarFontes(builder);
-            builder.withHtmlContent(html, null);
-            builder.toStream(baos);
-            builder.run();
-            return baos.toByteArray();
-        } catch (Exception e) {
-            throw new IOException("Falha ao gerar o PDF em lote: " + e.getMessage(), e);
+                // Etapa 2 (layout): QR Codes e grupos de páginas renderizados em paralelo
+                inicio = System.nanoTime();
+                List<SpoolOutputStream> partes = renderizarPartes(cartoesBloco, progresso);
+                layout += System.nanoTime() - inicio;
+
+                // Etapa 3 (merge): partes acrescentadas ao PDF final na ordem solicitada
+                inicio = System.nanoTime();
+                if (destino == null) {
+                    destino = new PdfDocument(new PdfWriter(pdf));
+                }
+                mesclarPartes(partes, destino);
+                merge += System.nanoTime() - inicio;
+                cartoes += cartoesBloco.size();
+            }
+            if (destino == null) {
+                throw new IllegalStateException("Nenhuma credencial encontrada para os agentes informados");
+            }
+            long inicio = System.nanoTime();
+            destino.close();
+            merge += System.nanoTime() - inicio;
+        } catch (IOException | RuntimeException e) {
+            pdf.descartar();
+            throw e;
         }
+        registrarEtapa("busca", busca);
+        registrarEtapa("layout", layout);
+        registrarEtapa("merge", merge);
+        log.debug("Lote de carteirinhas gerado: {} cartões, {} bytes{}",
+                cartoes, pdf.tamanho(), pdf.emDisco() ? " (em disco)" : "");
+        return pdf;
     }
 
     /**
-     * Registra as variantes da família Montserrat a partir de arquivos na pasta resources/fonts.
-     * Coloque os arquivos TTF (ou OTF) no classpath em:
-     *  - /fonts/Montserrat-Regular.ttf (peso 400)
-     *  - /fonts/Montserrat-SemiBold.ttf (peso 600)
-     *  - /fonts/Montserrat-Bold.ttf (peso 700)
-     *  - /fonts/Montserrat-ExtraBold.ttf (peso 800)
-     * Caso algum arquivo não exista, é simplesmente ignorado.
+     * Carrega um bloco do lote numa transação de leitura curta e devolve os cartões sem
+     * referência às entidades, que são desligadas da sessão (inclusive a aberta pela
+     * requisição) para que o bloco seja liberado depois da renderização.
      */
-    private void registrarFontes(PdfRendererBuilder builder) {
-        addFont(builder, "/fonts/Montserrat-Regular.ttf", "Montserrat", 400);
-        addFont(builder, "/fonts/Montserrat-Medium.ttf", "Montserrat", 500);
-        addFont(builder, "/fonts/Montserrat-SemiBold.ttf", "Montserrat", 600);
-        addFont(builder, "/fonts/Montserrat-Bold.ttf", "Montserrat", 700);
-        addFont(builder, "/fonts/Montserrat-ExtraBold.ttf", "Montserrat", 800);
-        // Se desejar suportar itálico, adicionar arquivos *Italic.ttf com FontStyle.ITALIC.
+    private List<CartaoLote> carregarCartoes(List<Long> bloco, String logoDataUri, boolean ignorarInexistentes) {
+        return transacaoLeitura.execute(s -> {
+            Map<Long, AgenteVoluntario> agentes = new HashMap<>();
+            Map<Long, Credencial> credenciais = new HashMap<>();
+            carregarLote(bloco, agentes, credenciais);
+
+            List<CartaoLote> cartoes = new ArrayList<>(bloco.size());
+            for (Long agenteId : bloco) {
+                AgenteVoluntario agente = agentes.get(agenteId);
+                if (agente == null) {
+                    if (!ignorarInexistentes) {
+                        throw new IllegalArgumentException("Agente não encontrado: " + agenteId);
+                    }
+                    continue;
+                }
+                Credencial credencial = credenciais.get(agenteId);
+                if (credencial == null) {
+                    // pula agentes sem credencial
+                    continue;
+                }
+                cartoes.add(new CartaoLote(montarItem(agente, credencial, logoDataUri),
+                        agente.getFoto(), credencial.getQrCodeUrl()));
+            }
+            credenciais.values().forEach(entityManager::detach);
+            agentes.values().forEach(entityManager::detach);
+            return cartoes;
+        });
     }
 
-    private void addFont(PdfRendererBuilder builder, String resourcePath, String family, int weight) {
-        java.net.URL url = getClass().getResource(resourcePath);
-        if (url == null) { 
-            log.warn("Fonte não encontrada no classpath: {} (peso {})", resourcePath, weight);
-            return; // arquivo não existe no classpath
+    /**
+     * Renderiza os cartões em grupos de {@code cartoesPorPagina}, em paralelo, cada grupo num
+     * arquivo temporário. Foto e QR Code (Data URI) existem só enquanto o grupo é renderizado.
+     */
+    private List<SpoolOutputStream> renderizarPartes(List<CartaoLote> cartoes, ProgressoLote progresso) throws IOException {
+        int porDocumento = Math.max(1, cartoesPorPagina);
+        List<Callable<SpoolOutputStream>> tarefas = new ArrayList<>();
+        for (int i = 0; i < cartoes.size(); i += porDocumento) {
+            List<CartaoLote> grupo = cartoes.subList(i, Math.min(i + porDocumento, cartoes.size()));
+            tarefas.add(() -> {
+                List<LoteItem> itens = new ArrayList<>(grupo.size());
+                for (CartaoLote cartao : grupo) {
+                    LoteItem it = cartao.item();
+                    it.foto = fotoDataUri(cartao.foto());
+                    it.qrCode = qrCodeUtil.gerarImagemTemplate(cartao.qrUrl());
+                    itens.add(it);
+                }
+                SpoolOutputStream parte = new SpoolOutputStream(0);
+                try {
+                    Context ctx = new Context();
+                    ctx.setVariable("itens", itens);
+                    pdfRenderer.renderizar(templateEngine.process("carteirinhas_lote", ctx), parte);
+                    if (progresso != null) {
+                        progresso.registrar(grupo.size(), 0);
+                    }
+                    return parte;
+                } catch (IOException | RuntimeException e) {
+                    parte.descartar();
+                    throw e;
+                } finally {
+                    for (LoteItem it : itens) {
+                        it.foto = null;
+                        it.qrCode = null;
+                    }
+                }
+            });
         }
-        com.openhtmltopdf.extend.FSSupplier<java.io.InputStream> supplier = () -> getClass().getResourceAsStream(resourcePath);
+        return executarEmParalelo(tarefas, "Falha ao gerar o PDF em lote", SpoolOutputStream::descartar);
+    }
+
+    /**
+     * Acrescenta as partes ao documento final, na ordem, e as descarta. Os objetos copiados de
+     * cada parte são gravados e liberados em seguida, sem acumular as páginas em memória.
+     */
+    private void mesclarPartes(List<SpoolOutputStream> partes, PdfDocument destino) throws IOException {
+        PdfMerger merger = new PdfMerger(destino, false, false);
         try {
-            builder.useFont(supplier, family, weight, BaseRendererBuilder.FontStyle.NORMAL, true);
-            log.info("Fonte registrada: {} (peso {})", family, weight);
-        } catch (Exception ignored) {
-            log.warn("Falha ao registrar fonte: {} (peso {})", family, weight);
+            for (SpoolOutputStream parte : partes) {
+                try (InputStream in = parte.abrirLeitura();
+                     PdfDocument origem = new PdfDocument(new PdfReader(in))) {
+                    merger.merge(origem, 1, origem.getNumberOfPages());
+                    destino.flushCopiedObjects(origem);
+                }
+                parte.descartar();
+            }
+        } finally {
+            partes.forEach(SpoolOutputStream::descartar);
         }
     }
 
-    private static String safe(String s) { return s == null ? "" : s; }
-
-    private static String deduzirMimeImagem(byte[] data) {
-        if (data == null || data.length < 4) return "image/jpeg";
-        if ((data[0] & 0xFF) == 0x89 && data[1] == 0x50 && data[2] == 0x4E && data[3] == 0x47) return "image/png";
-        if ((data[0] & 0xFF) == 0xFF && (data[1] & 0xFF) == 0xD8) return "image/jpeg";
-        return "image/jpeg";
+    private SpoolOutputStream novoSpool() {
+        return new SpoolOutputStream(limiteSpoolMemoria.toBytes());
     }
 
-    private String carregarLogoComoDataUri() throws IOException {
-        // Preferir PNG direto (brasão raster) e manter fallback para SVG com rasterização
-        String[][] candidates = new String[][]{
-                {"/reports/icoMG.png", "image/png"},
-                {"/reports/brasao.png", "image/png"},
-                {"/reports/brasao_mg.png", "image/png"},
-                {"/reports/Brasao_de_Minas_Gerais_PB.png", "image/png"},
-                {"/reports/Brasão_de_Minas_Gerais_P&B.png", "image/png"},
-                {"/reports/logo_tjmg.png", "image/png"},
-                {"/reports/logo.png", "image/png"},
-                {"/reports/icoMG.svg", "image/svg+xml"},
-                {"/reports/Brasao_de_Minas_Gerais_PB.svg", "image/svg+xml"},
-                {"/reports/Brasão_de_Minas_Gerais_P&B.svg", "image/svg+xml"},
-                {"/reports/logo_tjmg.svg", "image/svg+xml"},
-                {"/reports/logo.svg", "image/svg+xml"}
-        };
-        for (String[] c : candidates) {
-            try (var is = getClass().getResourceAsStream(c[0])) {
-                if (is != null) {
-                    if ("image/svg+xml".equals(c[1])) {
-                        String res = converterSvgParaPngDataUri(c[0], 160f);
-                        if (res != null) return res;
-                    } else {
-                        byte[] bytes = is.readAllBytes();
-                        return "data:" + c[1] + ";base64," + Base64.getEncoder().encodeToString(bytes);
-                    }
+    /**
+     * Executa as tarefas no pool do lote e devolve os resultados na ordem das tarefas.
+     * Em caso de falha, os resultados já obtidos são entregues a {@code descarte}.
+     */
+    private <T> List<T> executarEmParalelo(List<Callable<T>> tarefas, String mensagemErro,
+                                           Consumer<T> descarte) throws IOException {
+        List<T> resultados = new ArrayList<>(tarefas.size());
+        IOException falha = null;
+        for (Future<T> future : lotePool.invokeAll(tarefas)) {
+            try {
+                T resultado = future.get();
+                if (falha == null) {
+                    resultados.add(resultado);
+                } else {
+                    descarte.accept(resultado);
                 }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                if (falha == null) falha = new IOException(mensagemErro + ": interrompido", e);
+            } catch (ExecutionException e) {
+                Throwable causa = e.getCause() != null ? e.getCause() : e;
+                if (falha == null) falha = new IOException(mensagemErro + ": " + causa.getMessage(), causa);
             }
         }
-        return null;
+        if (falha != null) {
+            resultados.forEach(descarte);
+            throw falha;
+        }
+        return resultados;
     }
 
-    // Converte um SVG de resources para PNG (Data URI) usando Batik
-    private String converterSvgParaPngDataUri(String classpathSvg, float widthPx) {
-        try (var is = getClass().getResourceAsStream(classpathSvg)) {
-            if (is == null) return null;
-            // Batik transcoder
-            org.apache.batik.transcoder.image.PNGTranscoder t = new org.apache.batik.transcoder.image.PNGTranscoder();
-            t.addTranscodingHint(org.apache.batik.transcoder.SVGAbstractTranscoder.KEY_WIDTH, widthPx);
-            org.apache.batik.transcoder.TranscoderInput input = new org.apache.batik.transcoder.TranscoderInput(is);
-            java.io.ByteArrayOutputStream os = new java.io.ByteArrayOutputStream();
-            org.apache.batik.transcoder.TranscoderOutput output = new org.apache.batik.transcoder.TranscoderOutput(os);
-            t.transcode(input, output);
-            os.flush();
-            String dataUri = "data:image/png;base64," + Base64.getEncoder().encodeToString(os.toByteArray());
-            os.close();
-            return dataUri;
-        } catch (Exception e) {
-            return null;
-        }
+    /** Tempo total da etapa no lote (somado entre os blocos). */
+    private void registrarEtapa(String etapa, long nanos) {
+        Timer.builder("carteirinha.lote.etapa")
+                .description("Tempo de cada etapa da geração de carteirinhas em lote")
+                .tag("etapa", etapa)
+                .register(meterRegistry)
+                .record(nanos, TimeUnit.NANOSECONDS);
+        log.debug("Lote de carteirinhas - etapa {}: {} ms", etapa, TimeUnit.NANOSECONDS.toMillis(nanos));
+    }
+
+    @PreDestroy
+    void encerrarPool() {
+        lotePool.shutdown();
+    }
+
+    private static String fotoDataUri(AgenteVoluntario agente) {
+        return fotoDataUri(agente.getFoto());
+    }
+
+    private static String fotoDataUri(byte[] foto) {
+        if (foto == null || foto.length == 0) return null;
+        return "data:" + deduzirMimeImagem(foto) + ";base64," + Base64.getEncoder().encodeToString(foto);
     }
 
-    
+    private static String safe(String s) { return s == null ? "" : s; }
+
+    private static String deduzirMimeImagem(byte[] data) {
+        if (data == null || data.length < 4) return "image/jpeg";
+        if ((data[0] & 0xFF) == 0x89 && data[1] == 0x50 && data[2] == 0x4E && data[3] == 0x47) return "image/png";
+        if ((data[0] & 0xFF) == 0xFF && (data[1] & 0xFF) == 0xD8) return "image/jpeg";
+        return "image/jpeg";
+    }
 
     private static String formatarNumeroComQuatroDigitos(Long id) {
         if (id == null) return "0000";
@@ -0,0 +1,213 @@
+package br.gov.corregedoria.agentes.service;
+
+import br.gov.corregedoria.agentes.entity.AgenteVoluntario;
+import br.gov.corregedoria.agentes.entity.ConsultaPublicaCredencial;
+import br.gov.corregedoria.agentes.entity.Credencial;
+import br.gov.corregedoria.agentes.event.AgenteAlteradoEvent;
+import br.gov.corregedoria.agentes.repository.AgenteVoluntarioRepository;
+import br.gov.corregedoria.agentes.repository.ConsultaPublicaCredencialRepository;
+import br.gov.corregedoria.agentes.repository.CredencialRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Manutenção da projeção da consulta pública (tabela consulta_publica_credencial).
+ *
+ * As linhas são gravadas na transação da emissão da credencial e regravadas na transação
+ * que altera o agente (AgenteAlteradoEvent, tratado de forma síncrona). A reconstrução
+ * percorre todas as credenciais em blocos e corrige qualquer divergência.
+ */
+@Service
+public class ConsultaPublicaProjecaoService {
+
+    private static final Logger log = LoggerFactory.getLogger(ConsultaPublicaProjecaoService.class);
+
+    /** Credenciais por transação na reconstrução (abaixo do limite de 1000 do IN no Oracle). */
+    private static final int TAMANHO_BLOCO = 500;
+
+    /** Tamanho máximo da lista de comarcas exibida (coluna VARCHAR2(4000) em bytes). */
+    private static final int LIMITE_COMARCAS = 1000;
+
+    public record Andamento(boolean emExecucao, int total, int processadas, int falhas) {}
+
+    @Autowired
+    private ConsultaPublicaCredencialRepository projecaoRepository;
+
+    @Autowired
+    private CredencialRepository credencialRepository;
+
+    @Autowired
+    private AgenteVoluntarioRepository agenteRepository;
+
+    @Value("${app.consulta-publica.projecao.reconstruir-na-inicializacao:false}")
+    private boolean reconstruirNaInicializacao;
+
+    private final TransactionTemplate transacao;
+    private final TaskExecutor executor;
+    private final AtomicBoolean emExecucao = new AtomicBoolean();
+    private volatile Andamento andamento = new Andamento(false, 0, 0, 0);
+
+    public ConsultaPublicaProjecaoService(PlatformTransactionManager transactionManager,
+                                          @Qualifier("applicationTaskExecutor") TaskExecutor executor) {
+        this.transacao = new TransactionTemplate(transactionManager);
+        this.executor = executor;
+    }
+
+    /**
+     * Nomes das comarcas de atuação separados por vírgula, como exibidos na consulta pública.
+     * Listas acima de {@value #LIMITE_COMARCAS} caracteres são cortadas.
+     */
+    public static String juntarComarcas(AgenteVoluntario agente) {
+        String comarcas = agente.getComarcas().stream()
+                .map(comarca -> comarca.getNomeComarca())
+                .collect(Collectors.joining(", "));
+        return comarcas.length() > LIMITE_COMARCAS ? comarcas.substring(0, LIMITE_COMARCAS) : comarcas;
+    }
+
+    /**
+     * Grava as linhas das credenciais recém-emitidas, na transação da emissão.
+     * Agentes e comarcas são carregados em blocos (uma consulta por bloco).
+     */
+    @Transactional
+    public void registrarCredenciais(Collection<Credencial> credenciais) {
+        if (credenciais.isEmpty()) {
+            return;
+        }
+        List<Long> agenteIds = new ArrayList<>(credenciais.stream()
+                .map(c -> c.getAgente().getId())
+                .collect(Collectors.toCollection(LinkedHashSet::new)));
+        Map<Long, AgenteVoluntario> agentes = new HashMap<>();
+        for (int i = 0; i < agenteIds.size(); i += TAMANHO_BLOCO) {
+            for (AgenteVoluntario agente : agenteRepository.findComComarcasByIdIn(
+                    agenteIds.subList(i, Math.min(i + TAMANHO_BLOCO, agenteIds.size())))) {
+                agentes.put(agente.getId(), agente);
+            }
+        }
+
+        LocalDateTime agora = LocalDateTime.now();
+        List<ConsultaPublicaCredencial> linhas = new ArrayList<>(credenciais.size());
+        for (Credencial credencial : credenciais) {
+            ConsultaPublicaCredencial linha = new ConsultaPublicaCredencial(credencial.getId());
+            preencher(linha, credencial, agentes.get(credencial.getAgente().getId()), agora);
+            linhas.add(linha);
+        }
+        projecaoRepository.saveAll(linhas);
+    }
+
+    /**
+     * Regrava os dados do agente nas linhas das suas credenciais, dentro da transação que
+     * publicou o evento (status, dados cadastrais ou comarcas alterados).
+     */
+    @EventListener
+    @Transactional
+    public void aoAlterarAgente(AgenteAlteradoEvent evento) {
+        agenteRepository.findById(evento.agenteId()).ifPresent(agente ->
+                projecaoRepository.atualizarAgente(agente.getId(), agente.getNomeCompleto(), agente.getStatus(),
+                        agente.getDataCadastro(), juntarComarcas(agente), LocalDateTime.now()));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void aoIniciar() {
+        if (reconstruirNaInicializacao) {
+            iniciarReconstrucao();
+        }
+    }
+
+    /**
+     * Inicia a reconstrução da projeção em segundo plano.
+     *
+     * @throws IllegalStateException se já houver uma reconstrução em andamento
+     */
+    public Andamento iniciarReconstrucao() {
+        if (!emExecucao.compareAndSet(false, true)) {
+            throw new IllegalStateException("Reconstrução da consulta pública já está em execução");
+        }
+        andamento = new Andamento(true, 0, 0, 0);
+        try {
+            executor.execute(this::reconstruir);
+        } catch (RuntimeException e) {
+            andamento = new Andamento(false, 0, 0, 0);
+            emExecucao.set(false);
+            throw e;
+        }
+        return andamento;
+    }
+
+    public Andamento getAndamento() {
+        return andamento;
+    }
+
+    private void reconstruir() {
+        int processadas = 0;
+        int falhas = 0;
+        try {
+            List<Long> ids = credencialRepository.findAllIds();
+            log.info("Reconstrução da consulta pública iniciada: {} credencial(is)", ids.size());
+            for (int i = 0; i < ids.size(); i += TAMANHO_BLOCO) {
+                List<Long> bloco = ids.subList(i, Math.min(i + TAMANHO_BLOCO, ids.size()));
+                try {
+                    transacao.executeWithoutResult(s -> reconstruirBloco(bloco));
+                } catch (RuntimeException e) {
+                    falhas += bloco.size();
+                    log.warn("Bloco de credenciais {}..{} não reconstruído: {}",
+                            bloco.get(0), bloco.get(bloco.size() - 1), e.getMessage());
+                }
+                processadas += bloco.size();
+                andamento = new Andamento(true, ids.size(), processadas, falhas);
+            }
+            log.info("Reconstrução da consulta pública concluída: {} processada(s), {} falha(s)", processadas, falhas);
+        } catch (RuntimeException e) {
+            log.error("Reconstrução da consulta pública interrompida: {}", e.getMessage(), e);
+        } finally {
+            andamento = new Andamento(false, andamento.total(), processadas, falhas);
+            emExecucao.set(false);
+        }
+    }
+
+    private void reconstruirBloco(List<Long> ids) {
+        Map<Long, ConsultaPublicaCredencial> existentes = projecaoRepository.findAllById(ids).stream()
+                .collect(Collectors.toMap(ConsultaPublicaCredencial::getIdCredencial, Function.identity()));
+        LocalDateTime agora = LocalDateTime.now();
+        List<ConsultaPublicaCredencial> linhas = new ArrayList<>(ids.size());
+        for (Credencial credencial : credencialRepository.findComAgenteByIdIn(ids)) {
+            ConsultaPublicaCredencial linha = existentes.getOrDefault(credencial.getId(),
+                    new ConsultaPublicaCredencial(credencial.getId()));
+            preencher(linha, credencial, credencial.getAgente(), agora);
+            linhas.add(linha);
+        }
+        projecaoRepository.saveAll(linhas);
+    }
+
+    private static void preencher(ConsultaPublicaCredencial linha, Credencial credencial,
+                                  AgenteVoluntario agente, LocalDateTime agora) {
+        linha.setUsuarioEmissao(credencial.getUsuarioEmissao());
+        linha.setDataEmissao(credencial.getDataEmissao());
+        linha.setIdAgente(agente.getId());
+        linha.setNomeCompleto(agente.getNomeCompleto());
+        linha.setStatus(agente.getStatus());
+        linha.setDataCadastro(agente.getDataCadastro());
+        linha.setComarcas(juntarComarcas(agente));
+        linha.setDataAtualizacao(agora);
+    }
+}
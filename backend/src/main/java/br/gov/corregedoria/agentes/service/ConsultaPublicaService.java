@@ -1,25 +1,134 @@
 package br.gov.corregedoria.agentes.service;
 
 import br.gov.corregedoria.agentes.dto.ConsultaPublicaDTO;
+import br.gov.corregedoria.agentes.dto.ResultadoVerificacaoLoteDTO;
+import br.gov.corregedoria.agentes.dto.VerificacaoTokenDTO;
 import br.gov.corregedoria.agentes.entity.AgenteVoluntario;
+import br.gov.corregedoria.agentes.entity.ConsultaPublicaCredencial;
 import br.gov.corregedoria.agentes.entity.Credencial;
+import br.gov.corregedoria.agentes.entity.StatusAgente;
+import br.gov.corregedoria.agentes.event.AgenteAlteradoEvent;
+import br.gov.corregedoria.agentes.event.CredencialEmitidaEvent;
+import br.gov.corregedoria.agentes.repository.ConsultaPublicaCredencialRepository;
 import br.gov.corregedoria.agentes.repository.CredencialRepository;
+import br.gov.corregedoria.agentes.util.CacheLru;
+import io.micrometer.core.instrument.MeterRegistry;
 import jakarta.persistence.EntityNotFoundException;
+import jakarta.persistence.PersistenceException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionException;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
 import java.time.format.DateTimeFormatter;
-import java.util.stream.Collectors;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
 
+/**
+ * Consulta pública das credenciais (RN005).
+ *
+ * Os dados vêm da projeção consulta_publica_credencial (ver ConsultaPublicaProjecaoService),
+ * lida com uma única busca indexada. As respostas ficam num cache LRU com validade ({@code cache=consulta-publica}), consultado
+ * antes de abrir transação: leituras repetidas do mesmo QR não usam conexão do banco. A
+ * entrada sai na hora quando o agente é alterado (status, dados, comarcas) nesta instância;
+ * nas demais réplicas, na próxima sincronização ({@link #sincronizarCache}), que lê as linhas
+ * da projeção alteradas desde a anterior. Se o banco estiver indisponível, a última resposta
+ * conhecida é servida mesmo vencida (cache.stale), até a idade máxima configurada.
+ * Chaves não numéricas sem credencial ficam por pouco tempo num cache negativo
+ * ({@code cache=consulta-publica-ausentes}), limpo a cada emissão nesta instância e na sincronização
+ * nas demais, para que chaves inválidas repetidas não cheguem ao banco. IDs numéricos não entram
+ * nele: um ID recém-emitido por outra réplica passaria a ser negado até a validade.
+ */
 @Service
-@Transactional(readOnly = true)
 public class ConsultaPublicaService {
 
+    private static final Logger log = LoggerFactory.getLogger(ConsultaPublicaService.class);
+
+    /**
+     * Recuo de cada sincronização sobre a anterior: cobre linhas gravadas com o relógio de outra
+     * réplica ou confirmadas depois da leitura anterior.
+     */
+    private static final Duration MARGEM_SINCRONIZACAO = Duration.ofSeconds(30);
+
+    /** Acima disso (reconstrução da projeção, carga em lote) o cache é esvaziado de uma vez. */
+    private static final int LIMITE_SINCRONIZACAO = 1000;
+
     @Autowired
     private CredencialRepository credencialRepository;
 
+    @Autowired
+    private ConsultaPublicaCredencialRepository projecaoRepository;
+
+    @Autowired
+    private CredencialTokenService tokenService;
+
+    @Autowired
+    private FiltroCredencialService filtroCredencial;
+
+    /** Confere no banco, após validar a assinatura, se a credencial ainda existe e o status atual do agente. */
+    @Value("${app.credencial.token.verificar-revogacao:true}")
+    private boolean verificarRevogacao;
+
     private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("dd/MM/yyyy");
+    private static final DateTimeFormatter DATE_TIME_FORMATTER = DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm");
+
+    /**
+     * Resposta da consulta com os validadores HTTP: ETag fraca calculada dos dados públicos
+     * (status inclusive) e instante da última alteração da projeção, em milissegundos.
+     */
+    public record ConsultaVersionada(ConsultaPublicaDTO dados, String etag, long ultimaAlteracao) {}
+
+    /** Máximo de chaves por verificação em lote (até 1000, limite do IN no Oracle). */
+    @Value("${app.consulta-publica.lote.maximo-chaves:50}")
+    private int maximoChavesLote;
+
+    private final CacheLru<String, ConsultaVersionada> cache;
+    private final CacheLru<String, Boolean> ausentes;
+    private final TransactionTemplate leitura;
+
+    /** Incrementada a cada invalidação; impede gravar no cache uma leitura feita antes dela. */
+    private final AtomicLong geracao = new AtomicLong();
+
+    private volatile LocalDateTime ultimaSincronizacao = LocalDateTime.now();
+
+    public ConsultaPublicaService(@Value("${app.consulta-publica.cache.capacidade:20000}") int capacidadeCache,
+                                  @Value("${app.consulta-publica.cache.validade:PT5M}") Duration validadeCache,
+                                  @Value("${app.consulta-publica.cache.maximo-vencido:PT30M}") Duration maximoVencido,
+                                  @Value("${app.consulta-publica.cache-negativo.capacidade:10000}") int capacidadeNegativo,
+                                  @Value("${app.consulta-publica.cache-negativo.validade:PT30S}") Duration validadeNegativo,
+                                  MeterRegistry meterRegistry,
+                                  PlatformTransactionManager transactionManager) {
+        this.cache = new CacheLru<String, ConsultaVersionada>("consulta-publica", capacidadeCache)
+                .comValidade(validadeCache)
+                .comIdadeMaximaVencida(maximoVencido)
+                .registrarMetricas(meterRegistry);
+        this.ausentes = new CacheLru<String, Boolean>("consulta-publica-ausentes", capacidadeNegativo)
+                .comValidade(validadeNegativo)
+                .registrarMetricas(meterRegistry);
+        this.leitura = new TransactionTemplate(transactionManager);
+        this.leitura.setReadOnly(true);
+    }
 
     /**
      * Consulta pública de credencial via QR Code
@@ -33,42 +142,332 @@ public class ConsultaPublicaService {
      * Consulta pública aceitando chave flexível (ID numérico ou usuarioEmissao)
      */
     public ConsultaPublicaDTO consultarCredencialPorChave(String chave) {
-        Credencial credencial;
-        // 1) Se for número válido, busca por ID
+        return consultarVersionada(chave).dados();
+    }
+
+    /**
+     * Consulta pública com os validadores HTTP (ETag/Last-Modified), servida do cache quando possível
+     */
+    public ConsultaVersionada consultarVersionada(String chave) {
+        ConsultaVersionada consulta = cache.obter(chave);
+        if (consulta != null) {
+            return consulta;
+        }
+        if (!numerica(chave) && ausentes.obter(chave) != null) {
+            throw new EntityNotFoundException("Credencial não encontrada");
+        }
+        long geracaoLida = geracao.get();
+        try {
+            consulta = leitura.execute(s -> carregar(chave));
+        } catch (EntityNotFoundException e) {
+            if (!numerica(chave) && geracao.get() == geracaoLida) {
+                ausentes.colocar(chave, Boolean.TRUE);
+            }
+            throw e;
+        } catch (DataAccessException | TransactionException | PersistenceException e) {
+            ConsultaVersionada antigo = cache.obterVencido(chave);
+            if (antigo == null) {
+                throw e;
+            }
+            log.warn("Consulta pública da chave {} atendida com dados em cache: {}", chave, e.getMessage());
+            return antigo;
+        }
+        if (geracao.get() == geracaoLida) {
+            cache.colocar(chave, consulta);
+        }
+        return consulta;
+    }
+
+    /**
+     * Lê a projeção (busca pela chave primária ou pelo índice de usuario_emissao) e, se a
+     * credencial ainda não tiver linha (projeção em reconstrução), monta a partir das entidades.
+     * Uma chave numérica só é tratada como usuarioEmissao se não existir credencial com esse ID,
+     * com ou sem linha na projeção.
+     */
+    private ConsultaVersionada carregar(String chave) {
+        Long id = null;
         try {
-            long id = Long.parseLong(chave);
-            credencial = credencialRepository.findById(id)
-                    .orElse(null);
+            id = Long.valueOf(chave);
         } catch (NumberFormatException nfe) {
-            credencial = null;
+            // chave não numérica: usuarioEmissao
+        }
+        // 1) Chave numérica: credencial com esse ID (projeção, depois entidade)
+        if (id != null) {
+            Optional<ConsultaPublicaCredencial> linha = projecaoRepository.findById(id);
+            if (linha.isPresent()) {
+                return versionar(linha.get());
+            }
+            Optional<Credencial> credencial = credencialRepository.findById(id);
+            if (credencial.isPresent()) {
+                return versionar(credencial.get());
+            }
+        }
+        // 2) Senão, usuarioEmissao (credencial mais recente), também projeção antes da entidade
+        Optional<ConsultaPublicaCredencial> linha =
+                projecaoRepository.findFirstByUsuarioEmissaoOrderByDataEmissaoDescIdCredencialDesc(chave);
+        if (linha.isPresent()) {
+            return versionar(linha.get());
+        }
+        return versionar(credencialRepository
+                .findFirstByUsuarioEmissaoOrderByDataEmissaoDescIdDesc(chave)
+                .orElseThrow(() -> new EntityNotFoundException("Credencial não encontrada")));
+    }
+
+    /**
+     * Confere o tamanho do lote (antes de cobrar o limite de taxa por chave).
+     *
+     * @throws IllegalArgumentException se o lote estiver vazio ou acima do máximo
+     */
+    public void validarLote(List<String> chaves) {
+        if (chaves == null || chaves.isEmpty()) {
+            throw new IllegalArgumentException("Informe ao menos uma chave de credencial");
+        }
+        if (chaves.size() > maximoChavesLote) {
+            throw new IllegalArgumentException("Lote acima do máximo de " + maximoChavesLote + " chaves");
+        }
+    }
+
+    /**
+     * Consulta pública de várias chaves (postos de fiscalização). As chaves fora do cache são
+     * resolvidas juntas: primeiro os IDs numa lista IN, depois as restantes como usuarioEmissao,
+     * sempre sobre a projeção; as entidades só são lidas para credenciais ainda sem linha nela.
+     * O resultado segue a ordem das chaves recebidas.
+     */
+    public ResultadoVerificacaoLoteDTO consultarLote(List<String> chaves) {
+        validarLote(chaves);
+
+        Map<String, ConsultaVersionada> encontradas = new HashMap<>();
+        Set<String> pendentes = new LinkedHashSet<>();
+        for (String chave : chaves) {
+            if (chave == null || chave.isBlank() || encontradas.containsKey(chave)) {
+                continue;
+            }
+            ConsultaVersionada consulta = cache.obter(chave);
+            if (consulta != null) {
+                encontradas.put(chave, consulta);
+            } else if (numerica(chave) || ausentes.obter(chave) == null) {
+                pendentes.add(chave);
+            }
+        }
+
+        if (!pendentes.isEmpty()) {
+            long geracaoLida = geracao.get();
+            try {
+                Map<String, ConsultaVersionada> lidas = leitura.execute(s -> carregarLote(pendentes));
+                encontradas.putAll(lidas);
+                if (geracao.get() == geracaoLida) {
+                    lidas.forEach(cache::colocar);
+                    pendentes.stream().filter(chave -> !numerica(chave) && !lidas.containsKey(chave))
+                            .forEach(chave -> ausentes.colocar(chave, Boolean.TRUE));
+                }
+            } catch (DataAccessException | TransactionException | PersistenceException e) {
+                for (String chave : pendentes) {
+                    ConsultaVersionada antigo = cache.obterVencido(chave);
+                    if (antigo == null) {
+                        throw e;
+                    }
+                    encontradas.put(chave, antigo);
+                }
+                log.warn("Consulta pública em lote atendida com dados em cache: {}", e.getMessage());
+            }
+        }
+
+        ResultadoVerificacaoLoteDTO resultado = new ResultadoVerificacaoLoteDTO();
+        for (String chave : chaves) {
+            ConsultaVersionada consulta = chave != null ? encontradas.get(chave) : null;
+            resultado.getItens().add(new ResultadoVerificacaoLoteDTO.Item(chave, consulta != null,
+                    consulta != null ? consulta.dados() : null));
+            if (consulta != null) {
+                resultado.setEncontradas(resultado.getEncontradas() + 1);
+            }
         }
-        // 2) Senão, tenta por usuarioEmissao (mais recente)
-        if (credencial == null) {
-            credencial = credencialRepository
-                    .findFirstByUsuarioEmissaoOrderByDataEmissaoDescIdDesc(chave)
-                    .orElseThrow(() -> new EntityNotFoundException("Credencial não encontrada"));
+        resultado.setNaoEncontradas(chaves.size() - resultado.getEncontradas());
+        return resultado;
+    }
+
+    /**
+     * Resolve as chaves com o mesmo critério de {@link #carregar}: chave numérica como ID
+     * (projeção, depois entidade) e, se não houver credencial com esse ID, como usuarioEmissao
+     * (credencial mais recente).
+     */
+    private Map<String, ConsultaVersionada> carregarLote(Collection<String> chaves) {
+        Map<String, ConsultaVersionada> resultado = new HashMap<>();
+        Map<Long, List<String>> porId = new HashMap<>();
+        for (String chave : chaves) {
+            try {
+                porId.computeIfAbsent(Long.valueOf(chave), id -> new ArrayList<>()).add(chave);
+            } catch (NumberFormatException nfe) {
+                // chave não numérica: usuarioEmissao
+            }
+        }
+
+        if (!porId.isEmpty()) {
+            for (ConsultaPublicaCredencial linha : projecaoRepository.findAllById(porId.keySet())) {
+                ConsultaVersionada consulta = versionar(linha);
+                porId.get(linha.getIdCredencial()).forEach(chave -> resultado.put(chave, consulta));
+            }
+            // Credenciais ainda sem linha na projeção: entidades com agente e comarcas já carregados
+            List<Long> ids = porId.entrySet().stream()
+                    .filter(e -> !resultado.containsKey(e.getValue().get(0)))
+                    .map(Map.Entry::getKey)
+                    .toList();
+            if (!ids.isEmpty()) {
+                for (Credencial credencial : credencialRepository.findComAgenteByIdIn(ids)) {
+                    ConsultaVersionada consulta = versionar(credencial);
+                    porId.get(credencial.getId()).forEach(chave -> resultado.put(chave, consulta));
+                }
+            }
         }
 
+        // Chaves restantes como usuarioEmissao: projeção e, para as que faltarem, entidades
+        List<String> usuarios = pendentes(chaves, resultado);
+        if (!usuarios.isEmpty()) {
+            for (ConsultaPublicaCredencial linha : projecaoRepository.findMaisRecentesByUsuarioEmissaoIn(usuarios)) {
+                resultado.put(linha.getUsuarioEmissao(), versionar(linha));
+            }
+            usuarios = pendentes(usuarios, resultado);
+        }
+        if (!usuarios.isEmpty()) {
+            for (Credencial credencial : credencialRepository.findMaisRecentesComAgenteByUsuarioEmissaoIn(usuarios)) {
+                resultado.put(credencial.getUsuarioEmissao(), versionar(credencial));
+            }
+        }
+        return resultado;
+    }
+
+    private static List<String> pendentes(Collection<String> chaves, Map<String, ConsultaVersionada> resolvidas) {
+        return chaves.stream().filter(chave -> !resolvidas.containsKey(chave)).toList();
+    }
+
+    private static ConsultaVersionada versionar(ConsultaPublicaCredencial linha) {
+        return versionar(new ConsultaPublicaDTO(
+                linha.getIdAgente(),
+                linha.getNomeCompleto(),
+                linha.getStatus().getDescricao(),
+                linha.getDataCadastro().format(DATE_FORMATTER),
+                linha.getComarcas() != null ? linha.getComarcas() : ""
+        ), linha.getDataAtualizacao());
+    }
+
+    private static ConsultaVersionada versionar(Credencial credencial) {
         AgenteVoluntario agente = credencial.getAgente();
 
         // RN005 - Retornar apenas dados públicos
-        String comarcasAtuacao = agente.getComarcas().stream()
-                .map(comarca -> comarca.getNomeComarca())
-                .collect(Collectors.joining(", "));
+        String comarcasAtuacao = ConsultaPublicaProjecaoService.juntarComarcas(agente);
 
-        return new ConsultaPublicaDTO(
+        // Sem linha na projeção não há registro da última alteração: usa a emissão
+        return versionar(new ConsultaPublicaDTO(
                 agente.getId(),
                 agente.getNomeCompleto(),
                 agente.getStatus().getDescricao(),
                 agente.getDataCadastro().format(DATE_FORMATTER),
                 comarcasAtuacao
-        );
+        ), credencial.getDataEmissao());
+    }
+
+    private static ConsultaVersionada versionar(ConsultaPublicaDTO dto, LocalDateTime ultimaAlteracao) {
+        int hash = Objects.hash(dto.getAgenteId(), dto.getSituacao(), dto.getNomeCompleto(),
+                dto.getDataCadastro(), dto.getComarcasAtuacao(), ultimaAlteracao);
+        long instante = ultimaAlteracao != null
+                ? ultimaAlteracao.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli() : -1;
+        return new ConsultaVersionada(dto, "W/\"" + Integer.toHexString(hash) + "\"", instante);
+    }
+
+    /**
+     * Verificação pública por token assinado (QR das credenciais com token).
+     * A assinatura é conferida sem banco; a checagem de revogação, se habilitada, é uma única
+     * consulta ao status do agente. A situação retornada é a atual quando checada, senão a do token.
+     */
+    @Transactional(readOnly = true)
+    public VerificacaoTokenDTO verificarToken(String token) {
+        CredencialTokenService.TokenCredencial dados = tokenService.validar(token)
+                .orElseThrow(() -> new EntityNotFoundException("Token de credencial inválido"));
+
+        StatusAgente status = dados.status();
+        if (verificarRevogacao) {
+            status = credencialRepository.findStatusAgenteByCredencialId(dados.credencialId())
+                    .orElseThrow(() -> new EntityNotFoundException("Credencial revogada"));
+        }
+        return new VerificacaoTokenDTO(dados.credencialId(), dados.agenteId(), dados.nomeCompleto(),
+                status.getDescricao(), dados.dataEmissao().format(DATE_TIME_FORMATTER), verificarRevogacao);
     }
 
     /**
-     * Verifica se uma credencial é válida
+     * Verifica se uma credencial é válida. IDs que o filtro em memória garante não existirem
+     * são respondidos sem consulta ao banco.
      */
     public boolean credencialValida(Long credencialId) {
-        return credencialRepository.existsById(credencialId);
+        if (filtroCredencial.ausente(credencialId)) {
+            return false;
+        }
+        boolean existe = leitura.execute(s -> credencialRepository.existsById(credencialId));
+        filtroCredencial.registrarConfirmacao(credencialId, existe);
+        return existe;
+    }
+
+    /**
+     * Remove do cache as respostas de agentes e usuarioEmissao com linha gravada na projeção
+     * desde a sincronização anterior, por qualquer réplica, tira esses usuarioEmissao do
+     * cache negativo e marca as credenciais no filtro de IDs (emissão em outra réplica).
+     * Com o banco indisponível nada é removido e a próxima execução cobre o intervalo perdido.
+     */
+    @Scheduled(initialDelayString = "${app.consulta-publica.cache.sincronizacao:PT5S}",
+               fixedDelayString = "${app.consulta-publica.cache.sincronizacao:PT5S}")
+    public void sincronizarCache() {
+        LocalDateTime inicio = LocalDateTime.now();
+        List<Object[]> alteracoes;
+        try {
+            alteracoes = projecaoRepository.findAlteracoesDesde(ultimaSincronizacao.minus(MARGEM_SINCRONIZACAO),
+                    PageRequest.of(0, LIMITE_SINCRONIZACAO + 1));
+        } catch (DataAccessException | TransactionException | PersistenceException e) {
+            log.warn("Sincronização do cache da consulta pública não realizada: {}", e.getMessage());
+            return;
+        }
+        ultimaSincronizacao = inicio;
+        if (alteracoes.isEmpty()) {
+            return;
+        }
+        geracao.incrementAndGet();
+        if (alteracoes.size() > LIMITE_SINCRONIZACAO) {
+            cache.limpar();
+            ausentes.limpar();
+            filtroCredencial.descartar();
+            return;
+        }
+        Set<Long> agentes = new HashSet<>();
+        Set<String> usuarios = new HashSet<>();
+        List<Long> credenciais = new ArrayList<>(alteracoes.size());
+        for (Object[] alteracao : alteracoes) {
+            agentes.add((Long) alteracao[0]);
+            if (alteracao[1] != null) {
+                usuarios.add((String) alteracao[1]);
+            }
+            credenciais.add((Long) alteracao[2]);
+        }
+        filtroCredencial.registrarEmissoes(credenciais);
+        cache.removerSe((chave, consulta) -> usuarios.contains(chave)
+                || agentes.contains(consulta.dados().getAgenteId()));
+        usuarios.forEach(ausentes::remover);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void aoAlterarAgente(AgenteAlteradoEvent evento) {
+        geracao.incrementAndGet();
+        cache.removerSe((chave, consulta) -> evento.agenteId().equals(consulta.dados().getAgenteId()));
+    }
+
+    /**
+     * Chaves não numéricas (usuarioEmissao) apontam para a credencial mais recente do emissor,
+     * que pode ter mudado com a nova emissão; chaves antes ausentes podem passar a existir.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void aoEmitirCredencial(CredencialEmitidaEvent evento) {
+        geracao.incrementAndGet();
+        cache.removerSe((chave, consulta) -> !numerica(chave));
+        ausentes.limpar();
+    }
+
+    private static boolean numerica(String chave) {
+        return !chave.isEmpty() && chave.chars().allMatch(Character::isDigit);
     }
 }
@@ -0,0 +1,104 @@
+package br.gov.corregedoria.agentes.service;
+
+import br.gov.corregedoria.agentes.repository.CredencialArtefatoRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Geração retroativa dos PDFs pré-renderizados das credenciais emitidas antes da
+ * habilitação dos artefatos (job pontual, uma credencial por transação).
+ */
+@Service
+public class CredencialArtefatoBackfillService {
+
+    private static final Logger log = LoggerFactory.getLogger(CredencialArtefatoBackfillService.class);
+
+    public record Andamento(boolean emExecucao, int total, int processadas, int falhas) {}
+
+    @Autowired
+    private CredencialArtefatoRepository artefatoRepository;
+
+    @Autowired
+    private CredencialService credencialService;
+
+    @Value("${app.credencial.artefatos.backfill.na-inicializacao:false}")
+    private boolean executarNaInicializacao;
+
+    private final TaskExecutor executor;
+    private final AtomicBoolean emExecucao = new AtomicBoolean();
+    private volatile Andamento andamento = new Andamento(false, 0, 0, 0);
+
+    public CredencialArtefatoBackfillService(@Qualifier("applicationTaskExecutor") TaskExecutor executor) {
+        this.executor = executor;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void aoIniciar() {
+        if (executarNaInicializacao && credencialService.isArmazenarArtefatos()) {
+            iniciar();
+        }
+    }
+
+    /**
+     * Inicia a geração em segundo plano.
+     *
+     * @throws IllegalStateException se os artefatos estiverem desabilitados ou já houver execução em andamento
+     */
+    public Andamento iniciar() {
+        if (!credencialService.isArmazenarArtefatos()) {
+            throw new IllegalStateException("Artefatos de credencial desabilitados (app.credencial.artefatos.habilitado)");
+        }
+        if (!emExecucao.compareAndSet(false, true)) {
+            throw new IllegalStateException("Geração de artefatos de credencial já está em execução");
+        }
+        andamento = new Andamento(true, 0, 0, 0);
+        try {
+            executor.execute(this::executar);
+        } catch (RuntimeException e) {
+            andamento = new Andamento(false, 0, 0, 0);
+            emExecucao.set(false);
+            throw e;
+        }
+        return andamento;
+    }
+
+    public Andamento getAndamento() {
+        return andamento;
+    }
+
+    private void executar() {
+        int processadas = 0;
+        int falhas = 0;
+        try {
+            List<Long> ids = artefatoRepository.findIdsCredenciaisSemArtefato();
+            log.info("Geração de artefatos iniciada: {} credencial(is) sem PDF gravado", ids.size());
+            for (Long id : ids) {
+                try {
+                    // gerarPDFCredencial grava o artefato ausente na própria transação
+                    credencialService.gerarPDFCredencial(id);
+                } catch (Exception e) {
+                    falhas++;
+                    log.warn("Artefato da credencial {} não gerado: {}", id, e.getMessage());
+                }
+                processadas++;
+                andamento = new Andamento(true, ids.size(), processadas, falhas);
+            }
+            log.info("Geração de artefatos concluída: {} processada(s), {} falha(s)", processadas, falhas);
+        } catch (RuntimeException e) {
+            log.error("Geração de artefatos interrompida: {}", e.getMessage(), e);
+        } finally {
+            andamento = new Andamento(false, andamento.total(), processadas, falhas);
+            emExecucao.set(false);
+        }
+    }
+}
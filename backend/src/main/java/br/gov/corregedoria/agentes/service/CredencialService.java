@@ -1,25 +1,40 @@
 package br.gov.corregedoria.agentes.service;
 
 import br.gov.corregedoria.agentes.dto.CredencialDTO;
+import br.gov.corregedoria.agentes.dto.EmissaoCredencialLoteDTO;
+import br.gov.corregedoria.agentes.dto.ResultadoEmissaoLoteDTO;
 import br.gov.corregedoria.agentes.entity.AgenteVoluntario;
 import br.gov.corregedoria.agentes.entity.Credencial;
+import br.gov.corregedoria.agentes.entity.CredencialArtefato;
 import br.gov.corregedoria.agentes.entity.StatusAgente;
+import br.gov.corregedoria.agentes.event.CredencialEmitidaEvent;
 import br.gov.corregedoria.agentes.repository.AgenteVoluntarioRepository;
+import br.gov.corregedoria.agentes.repository.CredencialArtefatoRepository;
 import br.gov.corregedoria.agentes.repository.CredencialRepository;
 import br.gov.corregedoria.agentes.util.QRCodeUtil;
 import com.google.zxing.WriterException;
 import jakarta.persistence.EntityNotFoundException;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.io.IOException;
+import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.LongFunction;
 import java.util.stream.Collectors;
-import jakarta.persistence.EntityManager;
-import jakarta.persistence.PersistenceContext;
 
 @Service
 @Transactional
@@ -34,6 +49,19 @@ public class CredencialService {
     @Autowired
     private QRCodeUtil qrCodeUtil;
 
+    @Autowired
+    private CredencialArtefatoRepository artefatoRepository;
+
+    @Autowired
+    private CredencialTokenService tokenService;
+
+    @Autowired
+    private ConsultaPublicaProjecaoService projecaoService;
+
+    /** Grava o PDF da credencial na emissão e o reaproveita nas leituras (tabela credencial_artefato). */
+    @Value("${app.credencial.artefatos.habilitado:false}")
+    private boolean armazenarArtefatos;
+
     @Value("${app.base-url}")
     private String baseUrl;
 
@@ -46,8 +74,18 @@ public class CredencialService {
     @Value("${spring.profiles.active:}")
     private String activeProfiles;
 
-    @PersistenceContext
-    private EntityManager entityManager;
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    /** Máximo de agentes por pedido de emissão em lote. */
+    @Value("${app.credencial.lote.maximo-agentes:1000}")
+    private int maximoAgentesLote;
+
+    /** Máximo de itens por cláusula IN no Oracle. */
+    private static final int TAMANHO_BLOCO_IN = 1000;
+
+    /** Versão do layout do PDF da credencial; incrementar ao mudar o conteúdo impresso (invalida os artefatos). */
+    private static final int VERSAO_LAYOUT = 2;
 
     private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm");
 
@@ -65,19 +103,18 @@ public class CredencialService {
             throw new IllegalStateException("Apenas agentes com status 'Ativo' podem ter credenciais emitidas");
         }
 
-        // Pré-aloca ID pela sequência Oracle para compor a URL antes do insert (qr_code_url é NOT NULL)
-        Long nextId = ((Number) entityManager.createNativeQuery("SELECT S_CREDENCIAL.NEXTVAL FROM dual").getSingleResult()).longValue();
-
         Credencial credencial = new Credencial(agente, null, usuarioLogado);
-        credencial.setId(nextId);
-        // define data de emissão imediatamente
-        credencial.setDataEmissao(java.time.LocalDateTime.now());
-        // gera URL pública a partir do ID já alocado
-        String publicBase = resolvePublicBaseUrl();
-        String urlVerificacao = qrCodeUtil.gerarUrlVerificacao(publicBase, nextId);
-        credencial.setQrCodeUrl(urlVerificacao);
-        // agora insere com todos os campos NOT NULL preenchidos
+        credencial.setDataEmissao(LocalDateTime.now());
+        // A URL pública depende do ID: é montada quando o gerador (pooled-lo) aloca o ID no
+        // persist, de modo que o INSERT já sai com qr_code_url preenchida (NOT NULL)
+        credencial.setMontadorUrl(montadorUrl(resolvePublicBaseUrl(), agente.getId(), agente.getNomeCompleto(),
+                agente.getStatus(), credencial.getDataEmissao()));
         credencial = credencialRepository.save(credencial);
+        projecaoService.registrarCredenciais(List.of(credencial));
+        if (armazenarArtefatos) {
+            gravarArtefato(credencial, calcularVersao(credencial), renderizarPdf(credencial));
+        }
+        eventPublisher.publishEvent(new CredencialEmitidaEvent(credencial.getId(), agente.getId()));
 
         // Registrar auditoria
         // auditoriaUtil.registrarLog(usuarioLogado, "EMISSAO_CREDENCIAL", 
@@ -86,6 +123,78 @@ public class CredencialService {
         return converterParaDTO(credencial);
     }
 
+    /**
+     * Emite credenciais para vários agentes numa única transação.
+     * A RN003 é validada com uma consulta por bloco de IDs; os IDs vêm do alocador em bloco
+     * (pooled-lo) e os INSERTs são enviados em lotes JDBC no flush. Os PDFs pré-renderizados,
+     * se habilitados, são gerados na primeira leitura ou pelo backfill.
+     */
+    public ResultadoEmissaoLoteDTO emitirCredenciaisEmLote(EmissaoCredencialLoteDTO pedido, String usuarioLogado) {
+        List<Long> agenteIds;
+        if (pedido.getAgenteIds() != null && !pedido.getAgenteIds().isEmpty()) {
+            agenteIds = new ArrayList<>(new LinkedHashSet<>(pedido.getAgenteIds()));
+        } else {
+            String comarca = pedido.getComarca() == null || pedido.getComarca().isBlank() ? null : pedido.getComarca().trim();
+            agenteIds = agenteRepository.findIdsAtivosParaEmissao(comarca, pedido.isApenasSemCredencial());
+        }
+        if (agenteIds.size() > maximoAgentesLote) {
+            throw new IllegalArgumentException("Lote acima do máximo de " + maximoAgentesLote + " agentes");
+        }
+
+        Map<Long, Object[]> situacao = new HashMap<>();
+        Set<Long> comCredencial = new HashSet<>();
+        for (int i = 0; i < agenteIds.size(); i += TAMANHO_BLOCO_IN) {
+            List<Long> bloco = agenteIds.subList(i, Math.min(i + TAMANHO_BLOCO_IN, agenteIds.size()));
+            for (Object[] linha : agenteRepository.findStatusByIdIn(bloco)) {
+                situacao.put((Long) linha[0], linha);
+            }
+            if (pedido.isApenasSemCredencial()) {
+                comCredencial.addAll(credencialRepository.findAgenteIdsComCredencial(bloco));
+            }
+        }
+
+        ResultadoEmissaoLoteDTO resultado = new ResultadoEmissaoLoteDTO();
+        List<Credencial> novas = new ArrayList<>();
+        List<ResultadoEmissaoLoteDTO.Item> itensEmitidos = new ArrayList<>();
+        String publicBase = resolvePublicBaseUrl();
+        LocalDateTime agora = LocalDateTime.now();
+        for (Long agenteId : agenteIds) {
+            Object[] linha = situacao.get(agenteId);
+            StatusAgente status = linha == null ? null : (StatusAgente) linha[1];
+            ResultadoEmissaoLoteDTO.Item item;
+            if (status == null) {
+                item = new ResultadoEmissaoLoteDTO.Item(agenteId, ResultadoEmissaoLoteDTO.NAO_ENCONTRADO, null,
+                        "Agente não encontrado");
+            } else if (status != StatusAgente.ATIVO) {
+                item = new ResultadoEmissaoLoteDTO.Item(agenteId, ResultadoEmissaoLoteDTO.AGENTE_NAO_ATIVO, null,
+                        "Apenas agentes com status 'Ativo' podem ter credenciais emitidas");
+            } else if (comCredencial.contains(agenteId)) {
+                item = new ResultadoEmissaoLoteDTO.Item(agenteId, ResultadoEmissaoLoteDTO.JA_POSSUI_CREDENCIAL, null,
+                        "Agente já possui credencial");
+            } else {
+                Credencial credencial = new Credencial(agenteRepository.getReferenceById(agenteId), null, usuarioLogado);
+                credencial.setDataEmissao(agora);
+                credencial.setMontadorUrl(montadorUrl(publicBase, agenteId, (String) linha[2], status, agora));
+                novas.add(credencial);
+                item = new ResultadoEmissaoLoteDTO.Item(agenteId, ResultadoEmissaoLoteDTO.EMITIDA, null, null);
+                itensEmitidos.add(item);
+            }
+            resultado.getItens().add(item);
+        }
+
+        credencialRepository.saveAll(novas);
+        credencialRepository.flush();
+        projecaoService.registrarCredenciais(novas);
+        for (int i = 0; i < novas.size(); i++) {
+            Credencial credencial = novas.get(i);
+            itensEmitidos.get(i).setCredencialId(credencial.getId());
+            eventPublisher.publishEvent(new CredencialEmitidaEvent(credencial.getId(), itensEmitidos.get(i).getAgenteId()));
+        }
+        resultado.setEmitidas(novas.size());
+        resultado.setIgnorados(agenteIds.size() - novas.size());
+        return resultado;
+    }
+
     /**
      * Lista credenciais de um agente
      */
@@ -107,17 +216,54 @@ public class CredencialService {
     }
 
     /**
-     * Gera o PDF da credencial
+     * Gera o PDF da credencial. Com os artefatos habilitados, retorna o PDF gravado enquanto
+     * os dados do cadastro não mudarem; caso contrário renderiza e grava a nova versão.
      */
     public byte[] gerarPDFCredencial(Long credencialId) throws WriterException, IOException {
         Credencial credencial = credencialRepository.findById(credencialId)
                 .orElseThrow(() -> new EntityNotFoundException("Credencial não encontrada: " + credencialId));
+        if (!armazenarArtefatos) {
+            return renderizarPdf(credencial);
+        }
+
+        long versao = calcularVersao(credencial);
+        Optional<CredencialArtefato> artefato = artefatoRepository.findById(credencialId);
+        if (artefato.isPresent() && artefato.get().getVersaoDados() == versao) {
+            return artefato.get().getPdf();
+        }
+        byte[] pdf = renderizarPdf(credencial);
+        gravarArtefato(credencial, versao, pdf);
+        return pdf;
+    }
+
+    public boolean isArmazenarArtefatos() {
+        return armazenarArtefatos;
+    }
 
+    private void gravarArtefato(Credencial credencial, long versao, byte[] pdf) {
+        CredencialArtefato artefato = artefatoRepository.findById(credencial.getId())
+                .orElseGet(() -> new CredencialArtefato(credencial.getId()));
+        artefato.setPdf(pdf);
+        artefato.setVersaoDados(versao);
+        artefato.setDataGeracao(LocalDateTime.now());
+        artefatoRepository.save(artefato);
+    }
+
+    /**
+     * Versão dos dados impressos no PDF da credencial; muda quando o agente é alterado
+     * (nome, CPF, comarca, status), quando o modo do QR Code é trocado ou com um novo layout.
+     */
+    private long calcularVersao(Credencial credencial) {
         AgenteVoluntario agente = credencial.getAgente();
+        String comarca = agente.getComarcas().stream().findFirst().map(c -> c.getNomeComarca()).orElse(null);
+        LocalDateTime emissao = credencial.getDataEmissao() != null
+                ? credencial.getDataEmissao().truncatedTo(ChronoUnit.SECONDS) : null;
+        return Objects.hash(agente.getNomeCompleto(), agente.getCpf(), agente.getStatus(), comarca,
+                credencial.getId(), emissao, credencial.getQrCodeUrl(), qrCodeUtil.isVetorial(), VERSAO_LAYOUT);
+    }
 
-        // Gera QR Code (Base64) a partir da URL pública de verificação
-        String qrCodeBase64 = qrCodeUtil.gerarQRCode(credencial.getQrCodeUrl());
-        byte[] qrBytes = java.util.Base64.getDecoder().decode(qrCodeBase64);
+    private byte[] renderizarPdf(Credencial credencial) throws WriterException, IOException {
+        AgenteVoluntario agente = credencial.getAgente();
 
         // Monta PDF simples com iText 7
         java.io.ByteArrayOutputStream baos = new java.io.ByteArrayOutputStream();
@@ -137,7 +283,10 @@ public class CredencialService {
         }
         doc.add(new com.itextpdf.layout.element.Paragraph("Código: " + credencial.getId()));
 
-        com.itextpdf.layout.element.Image qr = new com.itextpdf.layout.element.Image(com.itextpdf.io.image.ImageDataFactory.create(qrBytes));
+        // QR Code da URL pública de verificação: retângulos vetoriais ou PNG (300 pt de lado em ambos)
+        com.itextpdf.layout.element.Image qr = qrCodeUtil.isVetorial()
+                ? new com.itextpdf.layout.element.Image(qrCodeUtil.gerarFormPdf(credencial.getQrCodeUrl(), pdf, 300f))
+                : new com.itextpdf.layout.element.Image(com.itextpdf.io.image.ImageDataFactory.create(qrCodeUtil.gerarPng(credencial.getQrCodeUrl())));
         qr.setAutoScale(true);
         doc.add(new com.itextpdf.layout.element.Paragraph("\n"));
         doc.add(qr);
@@ -163,6 +312,19 @@ public class CredencialService {
         return dto;
     }
 
+    /**
+     * URL de verificação montada quando o ID é alocado: com token assinado quando habilitado
+     * (verificação sem banco), ou com o ID numérico.
+     */
+    private LongFunction<String> montadorUrl(String publicBase, Long agenteId, String nomeCompleto,
+                                             StatusAgente status, LocalDateTime dataEmissao) {
+        if (!tokenService.isHabilitado()) {
+            return id -> qrCodeUtil.gerarUrlVerificacao(publicBase, id);
+        }
+        return id -> qrCodeUtil.gerarUrlVerificacaoToken(publicBase,
+                tokenService.gerarToken(id, agenteId, nomeCompleto, status, dataEmissao));
+    }
+
     private static String safe(String s) { return s == null ? "" : s; }
 
     private String resolvePublicBaseUrl() {
@@ -0,0 +1,175 @@
+package br.gov.corregedoria.agentes.service;
+
+import br.gov.corregedoria.agentes.entity.StatusAgente;
+import br.gov.corregedoria.agentes.util.CacheLru;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.KeyFactory;
+import java.security.PrivateKey;
+import java.security.PublicKey;
+import java.security.Signature;
+import java.security.spec.PKCS8EncodedKeySpec;
+import java.security.spec.X509EncodedKeySpec;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.Optional;
+
+/**
+ * Tokens assinados (Ed25519) embutidos na URL do QR Code da credencial.
+ *
+ * O token carrega ID da credencial, ID e nome do agente, status e data de emissão, de modo
+ * que a verificação pública (ou um verificador offline com a chave pública) confere a
+ * credencial sem consultar o banco. Formato: {@code base64url(dados).base64url(assinatura)},
+ * com dados {@code 1|credencial|agente|status|yyyyMMddHHmm|nome}.
+ *
+ * A verificação Ed25519 do JDK custa cerca de 1,5 ms; tokens já validados ficam num cache LRU
+ * (métricas cache.* com {@code cache=tokens-credencial}), de modo que leituras repetidas do
+ * mesmo QR não refazem a conta. Só tokens com assinatura válida entram no cache.
+ */
+@Service
+public class CredencialTokenService {
+
+    private static final String ALGORITMO = "Ed25519";
+    private static final String VERSAO = "1";
+    /** Nome truncado no token para manter a URL dentro de qr_code_url (500) e o QR legível. */
+    private static final int LIMITE_NOME = 60;
+    private static final DateTimeFormatter FORMATO_EMISSAO = DateTimeFormatter.ofPattern("yyyyMMddHHmm");
+
+    /** Conteúdo de um token com assinatura válida. */
+    public record TokenCredencial(Long credencialId, Long agenteId, String nomeCompleto,
+                                  StatusAgente status, LocalDateTime dataEmissao) {}
+
+    /** Emite tokens assinados nas URLs dos QR Codes das novas credenciais. */
+    @Value("${app.credencial.token.habilitado:false}")
+    private boolean habilitado;
+
+    /** Chave privada Ed25519 em Base64 (PKCS#8). */
+    @Value("${app.credencial.token.chave-privada:}")
+    private String chavePrivadaBase64;
+
+    /** Chave pública Ed25519 em Base64 (X.509), publicada para verificadores offline. */
+    @Value("${app.credencial.token.chave-publica:}")
+    private String chavePublicaBase64;
+
+    private PrivateKey chavePrivada;
+    private PublicKey chavePublica;
+
+    private final CacheLru<String, TokenCredencial> validados;
+
+    public CredencialTokenService(@Value("${app.credencial.token.cache.capacidade:10000}") int capacidadeCache,
+                                  MeterRegistry meterRegistry) {
+        this.validados = new CacheLru<String, TokenCredencial>("tokens-credencial", capacidadeCache)
+                .registrarMetricas(meterRegistry);
+    }
+
+    /**
+     * Carrega o par de chaves configurado. Com os tokens habilitados as duas chaves são
+     * obrigatórias: um par gerado por pod assinaria tokens que as outras réplicas (e os
+     * verificadores offline) não conseguem conferir.
+     *
+     * @throws IllegalStateException se habilitado sem chave privada e pública configuradas
+     */
+    @PostConstruct
+    public void carregarChaves() throws GeneralSecurityException {
+        boolean semChaves = chavePrivadaBase64.isBlank() || chavePublicaBase64.isBlank();
+        if (semChaves && habilitado) {
+            throw new IllegalStateException("app.credencial.token.habilitado=true exige "
+                    + "app.credencial.token.chave-privada e app.credencial.token.chave-publica");
+        }
+        if (semChaves) {
+            return;
+        }
+        KeyFactory fabrica = KeyFactory.getInstance(ALGORITMO);
+        chavePrivada = fabrica.generatePrivate(new PKCS8EncodedKeySpec(Base64.getDecoder().decode(chavePrivadaBase64.trim())));
+        chavePublica = fabrica.generatePublic(new X509EncodedKeySpec(Base64.getDecoder().decode(chavePublicaBase64.trim())));
+    }
+
+    public boolean isHabilitado() {
+        return habilitado;
+    }
+
+    /**
+     * Chave pública em Base64 (X.509) para verificação offline, ou null se não houver chaves.
+     */
+    public String getChavePublica() {
+        return chavePublica == null ? null : Base64.getEncoder().encodeToString(chavePublica.getEncoded());
+    }
+
+    public String getAlgoritmo() {
+        return ALGORITMO;
+    }
+
+    /**
+     * Gera o token assinado da credencial.
+     *
+     * @throws IllegalStateException se não houver chave privada carregada
+     */
+    public String gerarToken(Long credencialId, Long agenteId, String nomeCompleto,
+                             StatusAgente status, LocalDateTime dataEmissao) {
+        if (chavePrivada == null) {
+            throw new IllegalStateException("Tokens de credencial desabilitados (app.credencial.token.habilitado)");
+        }
+        String nome = nomeCompleto == null ? "" : nomeCompleto.strip();
+        if (nome.length() > LIMITE_NOME) {
+            nome = nome.substring(0, LIMITE_NOME);
+        }
+        String dados = String.join("|", VERSAO, String.valueOf(credencialId), String.valueOf(agenteId),
+                status.name(), dataEmissao.format(FORMATO_EMISSAO), nome);
+        byte[] bytes = dados.getBytes(StandardCharsets.UTF_8);
+        try {
+            Signature assinatura = Signature.getInstance(ALGORITMO);
+            assinatura.initSign(chavePrivada);
+            assinatura.update(bytes);
+            Base64.Encoder base64 = Base64.getUrlEncoder().withoutPadding();
+            return base64.encodeToString(bytes) + "." + base64.encodeToString(assinatura.sign());
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Falha ao assinar token da credencial " + credencialId, e);
+        }
+    }
+
+    /**
+     * Confere a assinatura e decodifica o token, sem acesso ao banco.
+     * Retorna vazio para tokens malformados ou com assinatura inválida.
+     */
+    public Optional<TokenCredencial> validar(String token) {
+        if (chavePublica == null || token == null) {
+            return Optional.empty();
+        }
+        TokenCredencial validado = validados.obter(token);
+        if (validado != null) {
+            return Optional.of(validado);
+        }
+        int ponto = token.indexOf('.');
+        if (ponto <= 0 || ponto == token.length() - 1) {
+            return Optional.empty();
+        }
+        try {
+            Base64.Decoder base64 = Base64.getUrlDecoder();
+            byte[] bytes = base64.decode(token.substring(0, ponto));
+            Signature assinatura = Signature.getInstance(ALGORITMO);
+            assinatura.initVerify(chavePublica);
+            assinatura.update(bytes);
+            if (!assinatura.verify(base64.decode(token.substring(ponto + 1)))) {
+                return Optional.empty();
+            }
+            String[] campos = new String(bytes, StandardCharsets.UTF_8).split("\\|", 6);
+            if (campos.length != 6 || !VERSAO.equals(campos[0])) {
+                return Optional.empty();
+            }
+            validado = new TokenCredencial(Long.valueOf(campos[1]), Long.valueOf(campos[2]), campos[5],
+                    StatusAgente.valueOf(campos[3]), LocalDateTime.parse(campos[4], FORMATO_EMISSAO));
+            validados.colocar(token, validado);
+            return Optional.of(validado);
+        } catch (IllegalArgumentException | DateTimeParseException | GeneralSecurityException e) {
+            // Base64/número/status inválido ou assinatura com tamanho errado
+            return Optional.empty();
+        }
+    }
+}
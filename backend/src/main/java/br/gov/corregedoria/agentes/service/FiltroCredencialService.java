@@ -0,0 +1,228 @@
+package br.gov.corregedoria.agentes.service;
+
+import br.gov.corregedoria.agentes.event.CredencialEmitidaEvent;
+import br.gov.corregedoria.agentes.repository.CredencialRepository;
+import br.gov.corregedoria.agentes.util.MapaBitsIds;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * IDs das credenciais emitidas em memória (mapa de bits), para responder sem consulta ao
+ * banco que uma credencial não existe (/public/validar com IDs inventados ou digitados errado).
+ *
+ * O mapa é carregado ao iniciar, recebe as novas emissões desta instância e é recarregado em
+ * segundo plano a cada {@code app.consulta-publica.filtro.atualizacao}. As outras instâncias
+ * emitem IDs de blocos próprios da sequência (pooled-lo, 50 por bloco), mesmo de blocos
+ * reservados há muito tempo: essas emissões chegam pela sincronização da projeção da consulta
+ * pública ({@link #registrarEmissoes}). Só são negados IDs abaixo do topo da sequência lido na
+ * carga anterior (blocos já distribuídos antes dela); IDs a partir dele e respostas positivas
+ * sempre são conferidos no banco. Até a segunda carga nenhum ID é negado.
+ *
+ * Métricas: {@code consulta.publica.filtro.consultas} (resultado=negativo|positivo|recente|indisponivel),
+ * {@code consulta.publica.filtro.falsos.positivos}, {@code consulta.publica.filtro.ids} e
+ * {@code consulta.publica.filtro.bytes}.
+ */
+@Service
+public class FiltroCredencialService {
+
+    private static final Logger log = LoggerFactory.getLogger(FiltroCredencialService.class);
+
+    @Autowired
+    private CredencialRepository credencialRepository;
+
+    private final long validadeNanos;
+    private final long maximoId;
+    private final TaskExecutor executor;
+
+    /** Mapa em uso (null até a primeira carga) e o instante, em nanos, da carga. */
+    private volatile MapaBitsIds mapa;
+    private volatile long carregadoEm;
+    /** IDs a partir deste podem ter sido emitidos por outra instância sem constar do mapa. */
+    private volatile long limiteNegativas;
+    /** Topo da sequência lido na última carga: limite das negativas a partir da carga seguinte. */
+    private long topoSequencia;
+    /** Incrementado quando o mapa é descartado; a carga em andamento não é publicada. */
+    private long descartes;
+    /** Mapa em construção; recebe também as emissões ocorridas durante a carga. */
+    private MapaBitsIds emConstrucao;
+    private final AtomicBoolean carregando = new AtomicBoolean();
+
+    private final Counter negativos;
+    private final Counter positivos;
+    private final Counter recentes;
+    private final Counter indisponivel;
+    private final Counter falsosPositivos;
+
+    public FiltroCredencialService(@Value("${app.consulta-publica.filtro.atualizacao:PT5M}") Duration atualizacao,
+                                   @Value("${app.consulta-publica.filtro.maximo-id:100000000}") long maximoId,
+                                   @Qualifier("applicationTaskExecutor") TaskExecutor executor,
+                                   MeterRegistry meterRegistry) {
+        this.validadeNanos = atualizacao.toNanos();
+        this.maximoId = maximoId;
+        this.executor = executor;
+        this.negativos = contador(meterRegistry, "negativo");
+        this.positivos = contador(meterRegistry, "positivo");
+        this.recentes = contador(meterRegistry, "recente");
+        this.indisponivel = contador(meterRegistry, "indisponivel");
+        this.falsosPositivos = Counter.builder("consulta.publica.filtro.falsos.positivos")
+                .description("IDs presentes no filtro sem credencial no banco")
+                .register(meterRegistry);
+        Gauge.builder("consulta.publica.filtro.ids", this, f -> f.mapa == null ? 0 : f.mapa.quantidade())
+                .register(meterRegistry);
+        Gauge.builder("consulta.publica.filtro.bytes", this, f -> f.mapa == null ? 0 : f.mapa.bytes())
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    private static Counter contador(MeterRegistry meterRegistry, String resultado) {
+        return Counter.builder("consulta.publica.filtro.consultas")
+                .tag("resultado", resultado)
+                .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void aoIniciar() {
+        iniciarCarga();
+    }
+
+    /**
+     * Indica se a credencial com certeza não existe. {@code false} significa "talvez exista"
+     * (ou filtro indisponível/desatualizado) e a resposta deve vir do banco.
+     */
+    public boolean ausente(Long credencialId) {
+        MapaBitsIds atual = mapa;
+        if (atual == null || System.nanoTime() - carregadoEm > validadeNanos) {
+            iniciarCarga();
+            indisponivel.increment();
+            return false;
+        }
+        if (credencialId == null || !atual.cobre(credencialId)) {
+            indisponivel.increment();
+            return false;
+        }
+        if (atual.contem(credencialId)) {
+            positivos.increment();
+            return false;
+        }
+        if (credencialId >= limiteNegativas) {
+            recentes.increment();
+            return false;
+        }
+        negativos.increment();
+        return true;
+    }
+
+    /** Registra a resposta do banco para contabilizar os falsos positivos do filtro. */
+    public void registrarConfirmacao(Long credencialId, boolean existe) {
+        MapaBitsIds atual = mapa;
+        if (!existe && atual != null && credencialId != null && atual.contem(credencialId)) {
+            falsosPositivos.increment();
+        }
+    }
+
+    /**
+     * Marca a credencial no mapa já na emissão (antes do commit): se a transação for desfeita,
+     * o ID só vira um falso positivo, confirmado no banco.
+     */
+    @EventListener
+    public void aoEmitirCredencial(CredencialEmitidaEvent evento) {
+        registrarEmissoes(List.of(evento.credencialId()));
+    }
+
+    /** Marca no mapa credenciais emitidas por qualquer instância (sincronização da projeção). */
+    public synchronized void registrarEmissoes(Collection<Long> credencialIds) {
+        for (Long id : credencialIds) {
+            if (mapa != null) {
+                mapa.adicionar(id);
+            }
+            if (emConstrucao != null) {
+                emConstrucao.adicionar(id);
+            }
+        }
+    }
+
+    /**
+     * Descarta o mapa quando as emissões de outras instâncias não puderam ser repassadas uma a
+     * uma (muitas alterações de uma vez): até a nova carga tudo é conferido no banco.
+     */
+    public void descartar() {
+        synchronized (this) {
+            mapa = null;
+            descartes++;
+        }
+        iniciarCarga();
+    }
+
+    /** Recarrega o mapa a partir do banco em segundo plano (ignorado se já houver carga em andamento). */
+    public void iniciarCarga() {
+        if (!carregando.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            executor.execute(this::carregar);
+        } catch (RuntimeException e) {
+            carregando.set(false);
+            log.warn("Recarga do filtro de credenciais não agendada: {}", e.getMessage());
+        }
+    }
+
+    private void carregar() {
+        try {
+            MapaBitsIds novo = new MapaBitsIds(maximoId);
+            long descartesNoInicio;
+            // Registrado antes da consulta: emissões a partir daqui entram também no novo mapa
+            synchronized (this) {
+                emConstrucao = novo;
+                descartesNoInicio = descartes;
+            }
+            // Lido antes dos IDs: os blocos abaixo dele já tinham sido distribuídos
+            long topo = credencialRepository.findTopoSequencia();
+            List<Long> ids = credencialRepository.findAllIds();
+            int foraDaFaixa = 0;
+            for (Long id : ids) {
+                if (!novo.adicionar(id)) {
+                    foraDaFaixa++;
+                }
+            }
+            synchronized (this) {
+                if (descartes != descartesNoInicio) {
+                    // Descartado durante a carga: a consulta pode não ter visto essas emissões
+                    log.debug("Filtro de credenciais descartado durante a carga; recarga na próxima consulta");
+                    return;
+                }
+                // Gravado antes do mapa: quem lê o mapa novo já vê o limite correspondente
+                limiteNegativas = topoSequencia;
+                topoSequencia = topo;
+                mapa = novo;
+                carregadoEm = System.nanoTime();
+            }
+            log.debug("Filtro de credenciais carregado: {} ID(s), {} byte(s)", novo.quantidade(), novo.bytes());
+            if (foraDaFaixa > 0) {
+                log.warn("{} credencial(is) com ID acima de app.consulta-publica.filtro.maximo-id ({}): "
+                        + "verificadas sempre no banco", foraDaFaixa, maximoId);
+            }
+        } catch (RuntimeException e) {
+            log.warn("Filtro de credenciais não carregado: {}", e.getMessage());
+        } finally {
+            synchronized (this) {
+                emConstrucao = null;
+            }
+            carregando.set(false);
+        }
+    }
+}
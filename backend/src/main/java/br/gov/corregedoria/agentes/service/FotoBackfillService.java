@@ -0,0 +1,131 @@
+package br.gov.corregedoria.agentes.service;
+
+import br.gov.corregedoria.agentes.entity.AgenteVoluntario;
+import br.gov.corregedoria.agentes.event.AgenteAlteradoEvent;
+import br.gov.corregedoria.agentes.repository.AgenteVoluntarioRepository;
+import br.gov.corregedoria.agentes.util.FotoNormalizador;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Normalização retroativa das fotos já gravadas (job pontual).
+ *
+ * Percorre os agentes com foto, um por transação, e regrava apenas as fotos que ainda
+ * não estão no formato normalizado. Fotos que não puderem ser decodificadas são mantidas
+ * como estão e contadas como falha.
+ */
+@Service
+public class FotoBackfillService {
+
+    private static final Logger log = LoggerFactory.getLogger(FotoBackfillService.class);
+
+    public record Andamento(boolean emExecucao, int total, int processados, int normalizados, int falhas) {}
+
+    @Autowired
+    private AgenteVoluntarioRepository agenteRepository;
+
+    @Autowired
+    private FotoNormalizador fotoNormalizador;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Value("${app.foto.backfill.na-inicializacao:false}")
+    private boolean executarNaInicializacao;
+
+    private final TransactionTemplate transacao;
+    private final TaskExecutor executor;
+    private final AtomicBoolean emExecucao = new AtomicBoolean();
+    private volatile Andamento andamento = new Andamento(false, 0, 0, 0, 0);
+
+    public FotoBackfillService(PlatformTransactionManager transactionManager,
+                               @Qualifier("applicationTaskExecutor") TaskExecutor executor) {
+        this.transacao = new TransactionTemplate(transactionManager);
+        this.executor = executor;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void aoIniciar() {
+        if (executarNaInicializacao) {
+            iniciar();
+        }
+    }
+
+    /**
+     * Inicia a normalização em segundo plano (executor de tarefas da aplicação).
+     *
+     * @throws IllegalStateException se já houver uma execução em andamento
+     */
+    public Andamento iniciar() {
+        if (!emExecucao.compareAndSet(false, true)) {
+            throw new IllegalStateException("Normalização de fotos já está em execução");
+        }
+        andamento = new Andamento(true, 0, 0, 0, 0);
+        try {
+            executor.execute(this::executar);
+        } catch (RuntimeException e) {
+            andamento = new Andamento(false, 0, 0, 0, 0);
+            emExecucao.set(false);
+            throw e;
+        }
+        return andamento;
+    }
+
+    public Andamento getAndamento() {
+        return andamento;
+    }
+
+    private void executar() {
+        int processados = 0;
+        int normalizados = 0;
+        int falhas = 0;
+        try {
+            List<Long> ids = agenteRepository.findIdsComFoto();
+            log.info("Normalização de fotos iniciada: {} agente(s) com foto", ids.size());
+            for (Long id : ids) {
+                try {
+                    Boolean alterada = transacao.execute(s -> normalizar(id));
+                    if (Boolean.TRUE.equals(alterada)) {
+                        normalizados++;
+                    }
+                } catch (RuntimeException e) {
+                    falhas++;
+                    log.warn("Foto do agente {} não normalizada: {}", id, e.getMessage());
+                }
+                processados++;
+                andamento = new Andamento(true, ids.size(), processados, normalizados, falhas);
+            }
+            log.info("Normalização de fotos concluída: {} processada(s), {} normalizada(s), {} falha(s)",
+                    processados, normalizados, falhas);
+        } catch (RuntimeException e) {
+            log.error("Normalização de fotos interrompida: {}", e.getMessage(), e);
+        } finally {
+            andamento = new Andamento(false, andamento.total(), processados, normalizados, falhas);
+            emExecucao.set(false);
+        }
+    }
+
+    private boolean normalizar(Long agenteId) {
+        AgenteVoluntario agente = agenteRepository.findById(agenteId).orElse(null);
+        if (agente == null || agente.getFoto() == null || fotoNormalizador.estaNormalizada(agente.getFoto())) {
+            return false;
+        }
+        agente.setFoto(fotoNormalizador.normalizar(agente.getFoto()));
+        agenteRepository.save(agente);
+        eventPublisher.publishEvent(new AgenteAlteradoEvent(agenteId));
+        return true;
+    }
+}
@@ -0,0 +1,214 @@
+package br.gov.corregedoria.agentes.service;
+
+import br.gov.corregedoria.agentes.dto.ConsultaPublicaDTO;
+import br.gov.corregedoria.agentes.util.CacheLru;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.util.HtmlUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Páginas HTML da verificação pública (/public/verificar/{id}/pagina).
+ *
+ * A página é a casca estática (cabeçalho, estilos e rodapé) com um fragmento pequeno com os
+ * dados do agente. O horário da verificação é preenchido no navegador, de modo que os bytes
+ * de uma credencial não mudam entre requisições: cada página é renderizada e comprimida em
+ * gzip uma única vez e guardada num cache LRU ({@code cache=paginas-verificacao}), validado
+ * pela ETag da consulta. Não há codificador brotli no classpath; só gzip é pré-gerado.
+ */
+@Service
+public class PaginaVerificacaoService {
+
+    /** HTML pronto e sua forma gzip, com a ETag da consulta que o originou. */
+    public record PaginaRenderizada(byte[] html, byte[] gzip, String etag) {}
+
+    private static final String CASCA_INICIO = """
+            <!DOCTYPE html>
+            <html lang="pt-BR">
+            <head>
+                <meta charset="UTF-8">
+                <meta name="viewport" content="width=device-width, initial-scale=1.0">
+                <title>Verificação de Credencial - Agente Voluntário</title>
+                <style>
+                    body { font-family: Arial, sans-serif; margin: 20px; background-color: #f5f5f5; }
+                    .container { max-width: 600px; margin: 0 auto; background: white; padding: 30px; border-radius: 8px; box-shadow: 0 2px 10px rgba(0,0,0,0.1); }
+                    .header { text-align: center; margin-bottom: 30px; }
+                    .logo { color: #2c5aa0; font-size: 24px; font-weight: bold; }
+                    .status-ativo { color: #28a745; font-weight: bold; }
+                    .status-inativo { color: #dc3545; font-weight: bold; }
+                    .info-item { margin: 15px 0; padding: 10px; background-color: #f8f9fa; border-left: 4px solid #2c5aa0; }
+                    .info-label { font-weight: bold; color: #495057; }
+                    .info-value { color: #212529; margin-top: 5px; }
+                    .footer { text-align: center; margin-top: 30px; font-size: 12px; color: #6c757d; }
+                </style>
+            </head>
+            <body>
+                <div class="container">
+                    <div class="header">
+                        <div class="logo">🏛️ Corregedoria</div>
+                        <h2>Verificação de Credencial</h2>
+                        <p>Agente Voluntário da Infância e Juventude</p>
+                    </div>
+            """;
+
+    private static final String FRAGMENTO = """
+                    <div class="info-item">
+                        <div class="info-label">Nome Completo:</div>
+                        <div class="info-value">%s</div>
+                    </div>
+                    <div class="info-item">
+                        <div class="info-label">Situação Atual:</div>
+                        <div class="info-value %s">%s</div>
+                    </div>
+                    <div class="info-item">
+                        <div class="info-label">Comarca(s) de Atuação:</div>
+                        <div class="info-value">%s</div>
+                    </div>
+                    <div class="info-item">
+                        <div class="info-label">Data de Cadastro:</div>
+                        <div class="info-value">%s</div>
+                    </div>
+            """;
+
+    private static final String CASCA_FIM = """
+                    <div class="footer">
+                        <p>✅ Credencial verificada em <span id="verificada-em"></span></p>
+                        <p>Esta consulta é pública e exibe apenas informações básicas do agente.</p>
+                    </div>
+                </div>
+                <script>
+                    document.getElementById('verificada-em').textContent =
+                        new Date().toLocaleString('pt-BR', { dateStyle: 'short', timeStyle: 'short' });
+                </script>
+            </body>
+            </html>
+            """;
+
+    private static final String PAGINA_ERRO = """
+            <!DOCTYPE html>
+            <html lang="pt-BR">
+            <head>
+                <meta charset="UTF-8">
+                <meta name="viewport" content="width=device-width, initial-scale=1.0">
+                <title>Credencial Inválida</title>
+                <style>
+                    body { font-family: Arial, sans-serif; margin: 20px; background-color: #f5f5f5; }
+                    .container { max-width: 600px; margin: 0 auto; background: white; padding: 30px; border-radius: 8px; box-shadow: 0 2px 10px rgba(0,0,0,0.1); text-align: center; }
+                    .error { color: #dc3545; font-size: 18px; margin: 20px 0; }
+                    .logo { color: #2c5aa0; font-size: 24px; font-weight: bold; margin-bottom: 20px; }
+                </style>
+            </head>
+            <body>
+                <div class="container">
+                    <div class="logo">🏛️ Corregedoria</div>
+                    <h2>❌ Credencial Inválida</h2>
+                    <div class="error">
+                        O QR Code escaneado não corresponde a uma credencial válida ou a credencial pode ter sido revogada.
+                    </div>
+                    <p>Por favor, verifique se o QR Code está correto ou entre em contato com a Corregedoria para mais informações.</p>
+                </div>
+            </body>
+            </html>
+            """;
+
+    private final CacheLru<Long, PaginaRenderizada> cache;
+    private final PaginaRenderizada paginaErro = comprimir(PAGINA_ERRO, null);
+
+    public PaginaVerificacaoService(@Value("${app.consulta-publica.pagina.cache.capacidade:5000}") int capacidadeCache,
+                                    MeterRegistry meterRegistry) {
+        this.cache = new CacheLru<Long, PaginaRenderizada>("paginas-verificacao", capacidadeCache)
+                .registrarMetricas(meterRegistry);
+    }
+
+    /**
+     * Página da credencial para a consulta informada; renderiza de novo só quando a ETag da
+     * consulta muda (dados do agente alterados).
+     */
+    public PaginaRenderizada obter(Long credencialId, ConsultaPublicaService.ConsultaVersionada consulta) {
+        PaginaRenderizada pagina = cache.obter(credencialId);
+        if (pagina == null || !pagina.etag().equals(consulta.etag())) {
+            pagina = comprimir(renderizar(consulta.dados()), consulta.etag());
+            cache.colocar(credencialId, pagina);
+        }
+        return pagina;
+    }
+
+    /** Página de credencial inválida, já comprimida. */
+    public PaginaRenderizada paginaErro() {
+        return paginaErro;
+    }
+
+    /** ETag da variante gzip (representações com codificações diferentes não podem compartilhar ETag). */
+    public static String etagGzip(String etag) {
+        return etag.endsWith("\"") ? etag.substring(0, etag.length() - 1) + "-gzip\"" : etag + "-gzip";
+    }
+
+    /**
+     * Indica se o cabeçalho Accept-Encoding aceita gzip (ignora codificações com q=0). Um
+     * "gzip" explícito prevalece sobre o curinga "*".
+     */
+    public static boolean aceitaGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        Boolean curinga = null;
+        for (String item : acceptEncoding.split(",")) {
+            String[] partes = item.split(";");
+            String codificacao = partes[0].trim();
+            boolean gzip = codificacao.equalsIgnoreCase("gzip");
+            if (!gzip && !codificacao.equals("*")) {
+                continue;
+            }
+            boolean recusada = false;
+            for (int i = 1; i < partes.length; i++) {
+                String parametro = partes[i].trim();
+                if (parametro.startsWith("q=")) {
+                    try {
+                        recusada = Double.parseDouble(parametro.substring(2)) <= 0;
+                    } catch (NumberFormatException e) {
+                        recusada = true;
+                    }
+                }
+            }
+            if (gzip) {
+                return !recusada;
+            }
+            curinga = !recusada;
+        }
+        return Boolean.TRUE.equals(curinga);
+    }
+
+    private static String renderizar(ConsultaPublicaDTO dados) {
+        String situacao = dados.getSituacao();
+        return CASCA_INICIO + FRAGMENTO.formatted(
+                HtmlUtils.htmlEscape(dados.getNomeCompleto()),
+                "Ativo".equals(situacao) ? "status-ativo" : "status-inativo",
+                HtmlUtils.htmlEscape(situacao),
+                HtmlUtils.htmlEscape(dados.getComarcasAtuacao()),
+                HtmlUtils.htmlEscape(dados.getDataCadastro())
+        ) + CASCA_FIM;
+    }
+
+    private static PaginaRenderizada comprimir(String html, String etag) {
+        byte[] bytes = html.getBytes(StandardCharsets.UTF_8);
+        ByteArrayOutputStream saida = new ByteArrayOutputStream(bytes.length / 3);
+        // Comprimida uma vez por versão da página: nível máximo
+        try (GZIPOutputStream gzip = new GZIPOutputStream(saida) {
+            {
+                def.setLevel(Deflater.BEST_COMPRESSION);
+            }
+        }) {
+            gzip.write(bytes);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return new PaginaRenderizada(bytes, saida.toByteArray(), etag);
+    }
+}
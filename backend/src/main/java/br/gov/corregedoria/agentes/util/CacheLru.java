@@ -0,0 +1,250 @@
+package br.gov.corregedoria.agentes.util;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.time.Duration;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiPredicate;
+
+/**
+ * Cache em memória limitado por quantidade de entradas, com descarte LRU aproximado
+ * (algoritmo do relógio / segunda chance) e contadores de acerto/erro.
+ *
+ * Leituras não tomam lock: um acerto só marca a entrada como referenciada. Ao passar da
+ * capacidade, a gravação percorre a fila de entradas a partir da mais antiga, dando uma
+ * segunda chance (desmarca e recoloca no fim) às referenciadas e descartando a primeira não
+ * referenciada. Só as gravações que descartam disputam o lock do relógio.
+ *
+ * Opcionalmente as entradas têm validade ({@link #comValidade}): vencidas contam como erro
+ * em {@link #obter}, mas permanecem guardadas até serem substituídas ou descartadas, para
+ * uso como fallback via {@link #obterVencido} até a idade máxima ({@link #comIdadeMaximaVencida}).
+ *
+ * As métricas seguem a convenção do Micrometer para caches ({@code cache.gets},
+ * {@code cache.evictions}, {@code cache.size}) com a tag {@code cache=<nome>}.
+ */
+public class CacheLru<K, V> {
+
+    private final String nome;
+    private final int capacidade;
+    private final ConcurrentHashMap<K, Entrada<K, V>> entradas = new ConcurrentHashMap<>();
+    /** Ordem do relógio; pode conter entradas já substituídas ou removidas, ignoradas ao passar. */
+    private final ConcurrentLinkedQueue<Entrada<K, V>> relogio = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger posicoesRelogio = new AtomicInteger();
+    private long validadeNanos;
+    private long idadeMaximaVencidaNanos;
+
+    private final LongAdder acertos = new LongAdder();
+    private final LongAdder falhas = new LongAdder();
+    private final LongAdder despejos = new LongAdder();
+    private final LongAdder invalidacoes = new LongAdder();
+    private final LongAdder vencidos = new LongAdder();
+
+    private static final class Entrada<K, V> {
+        final K chave;
+        final V valor;
+        final long gravadaEm;
+        volatile boolean referenciada;
+
+        Entrada(K chave, V valor, long gravadaEm) {
+            this.chave = chave;
+            this.valor = valor;
+            this.gravadaEm = gravadaEm;
+        }
+    }
+
+    public CacheLru(String nome, int capacidade) {
+        this.nome = nome;
+        this.capacidade = Math.max(1, capacidade);
+    }
+
+    /**
+     * Define a validade das entradas a partir da gravação (zero ou negativa: sem validade).
+     */
+    public CacheLru<K, V> comValidade(Duration validade) {
+        this.validadeNanos = Math.max(0, validade.toNanos());
+        return this;
+    }
+
+    /**
+     * Define por quanto tempo, a partir da gravação, a entrada ainda pode ser servida por
+     * {@link #obterVencido} (zero ou negativa: sem limite).
+     */
+    public CacheLru<K, V> comIdadeMaximaVencida(Duration idadeMaxima) {
+        this.idadeMaximaVencidaNanos = Math.max(0, idadeMaxima.toNanos());
+        return this;
+    }
+
+    /** Retorna o valor em cache (ou {@code null} se ausente ou vencido), contabilizando acerto/erro. */
+    public V obter(K chave) {
+        Entrada<K, V> entrada = entradas.get(chave);
+        if (entrada != null && !vencida(entrada)) {
+            if (!entrada.referenciada) {
+                entrada.referenciada = true;
+            }
+            acertos.increment();
+            return entrada.valor;
+        }
+        falhas.increment();
+        return null;
+    }
+
+    /**
+     * Retorna o valor guardado mesmo que vencido (ou {@code null}), para servir dados
+     * antigos quando a origem está indisponível. Contabilizado em {@code cache.stale}.
+     * Entradas além da idade máxima retornam {@code null}.
+     */
+    public V obterVencido(K chave) {
+        Entrada<K, V> entrada = entradas.get(chave);
+        if (entrada == null || idadeMaximaVencidaNanos > 0
+                && System.nanoTime() - entrada.gravadaEm > idadeMaximaVencidaNanos) {
+            return null;
+        }
+        vencidos.increment();
+        return entrada.valor;
+    }
+
+    public void colocar(K chave, V valor) {
+        Entrada<K, V> entrada = new Entrada<>(chave, valor, System.nanoTime());
+        entradas.put(chave, entrada);
+        relogio.offer(entrada);
+        int posicoes = posicoesRelogio.incrementAndGet();
+        if (entradas.size() > capacidade || posicoes > 2 * capacidade) {
+            girarRelogio(entrada);
+        }
+    }
+
+    /**
+     * Descarta entradas até voltar à capacidade (poupando a recém-gravada) e, se a fila acumulou
+     * posições de entradas substituídas ou removidas, dá uma volta completa para eliminá-las.
+     */
+    private void girarRelogio(Entrada<K, V> nova) {
+        synchronized (relogio) {
+            // Duas voltas bastam: a primeira desmarca todas; o limite só protege contra gravações
+            // concorrentes que ainda não entraram na fila
+            for (int passos = 2 * posicoesRelogio.get() + 2; entradas.size() > capacidade && passos > 0; passos--) {
+                Entrada<K, V> entrada = relogio.poll();
+                if (entrada == null) {
+                    break;
+                }
+                if (entradas.get(entrada.chave) != entrada) {
+                    posicoesRelogio.decrementAndGet();
+                } else if (entrada == nova || entrada.referenciada) {
+                    entrada.referenciada = false;
+                    relogio.offer(entrada);
+                } else {
+                    posicoesRelogio.decrementAndGet();
+                    if (entradas.remove(entrada.chave, entrada)) {
+                        despejos.increment();
+                    }
+                }
+            }
+            if (posicoesRelogio.get() > 2 * capacidade) {
+                for (int i = posicoesRelogio.get(); i > 0; i--) {
+                    Entrada<K, V> entrada = relogio.poll();
+                    if (entrada == null) {
+                        break;
+                    }
+                    if (entradas.get(entrada.chave) == entrada) {
+                        relogio.offer(entrada);
+                    } else {
+                        posicoesRelogio.decrementAndGet();
+                    }
+                }
+            }
+        }
+    }
+
+    private boolean vencida(Entrada<K, V> entrada) {
+        return validadeNanos > 0 && System.nanoTime() - entrada.gravadaEm > validadeNanos;
+    }
+
+    /** Remove a entrada da chave informada (invalidação explícita). */
+    public void remover(K chave) {
+        if (entradas.remove(chave) != null) {
+            invalidacoes.increment();
+        }
+    }
+
+    /** Remove todas as entradas que satisfazem o critério (invalidação explícita). */
+    public void removerSe(BiPredicate<K, V> criterio) {
+        entradas.entrySet().removeIf(e -> {
+            boolean remover = criterio.test(e.getKey(), e.getValue().valor);
+            if (remover) {
+                invalidacoes.increment();
+            }
+            return remover;
+        });
+    }
+
+    public void limpar() {
+        for (K chave : entradas.keySet()) {
+            remover(chave);
+        }
+    }
+
+    public int tamanho() {
+        return entradas.size();
+    }
+
+    public String getNome() {
+        return nome;
+    }
+
+    public long getAcertos() {
+        return acertos.sum();
+    }
+
+    public long getFalhas() {
+        return falhas.sum();
+    }
+
+    public long getDespejos() {
+        return despejos.sum();
+    }
+
+    public long getInvalidacoes() {
+        return invalidacoes.sum();
+    }
+
+    public long getVencidos() {
+        return vencidos.sum();
+    }
+
+    /**
+     * Publica as estatísticas do cache no registro de métricas (visíveis em /actuator/metrics).
+     */
+    public CacheLru<K, V> registrarMetricas(MeterRegistry registry) {
+        FunctionCounter.builder("cache.gets", this, CacheLru::getAcertos)
+                .tag("cache", nome).tag("result", "hit")
+                .description("Leituras atendidas pelo cache")
+                .register(registry);
+        FunctionCounter.builder("cache.gets", this, CacheLru::getFalhas)
+                .tag("cache", nome).tag("result", "miss")
+                .description("Leituras não atendidas pelo cache")
+                .register(registry);
+        FunctionCounter.builder("cache.evictions", this, CacheLru::getDespejos)
+                .tag("cache", nome)
+                .description("Entradas descartadas por limite de capacidade")
+                .register(registry);
+        FunctionCounter.builder("cache.invalidations", this, CacheLru::getInvalidacoes)
+                .tag("cache", nome)
+                .description("Entradas removidas por invalidação explícita")
+                .register(registry);
+        if (validadeNanos > 0) {
+            FunctionCounter.builder("cache.stale", this, CacheLru::getVencidos)
+                    .tag("cache", nome)
+                    .description("Leituras atendidas com entrada vencida (origem indisponível)")
+                    .register(registry);
+        }
+        Gauge.builder("cache.size", this, CacheLru::tamanho)
+                .tag("cache", nome)
+                .description("Quantidade de entradas no cache")
+                .register(registry);
+        return this;
+    }
+}
@@ -0,0 +1,258 @@
+package br.gov.corregedoria.agentes.util;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.geom.AffineTransform;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Iterator;
+
+/**
+ * Normaliza fotos de agentes na entrada: decodifica, aplica a orientação EXIF, recorta
+ * no formato 3x4 da carteirinha (16 x 20 mm), reduz para a resolução de impressão e
+ * recodifica em JPEG. Assim o LOB guarda dezenas de KB em vez de fotos de celular com
+ * vários MB, e os renderizadores não precisam decodificar/reduzir a imagem a cada cartão.
+ */
+@Component
+public class FotoNormalizador {
+
+    /** Limite de pixels da imagem de entrada (proteção contra "bombas" de descompressão). */
+    private static final long MAXIMO_PIXELS = 50_000_000L;
+
+    @Value("${app.foto.largura:320}")
+    private int largura = 320;
+
+    @Value("${app.foto.altura:400}")
+    private int altura = 400;
+
+    @Value("${app.foto.qualidade-jpeg:0.85}")
+    private float qualidade = 0.85f;
+
+    /**
+     * Retorna a foto normalizada (JPEG na dimensão configurada).
+     *
+     * @throws IllegalArgumentException se os bytes não forem uma imagem suportada
+     */
+    public byte[] normalizar(byte[] original) {
+        if (original == null || original.length == 0) {
+            throw new IllegalArgumentException("Foto inválida: conteúdo vazio");
+        }
+        BufferedImage imagem = decodificar(original, 2 * Math.max(largura, altura));
+        imagem = orientar(imagem, lerOrientacaoExif(original));
+        imagem = recortarProporcao(imagem, largura, altura);
+        imagem = reduzir(imagem, largura, altura);
+        try {
+            return codificarJpeg(imagem, qualidade);
+        } catch (IOException e) {
+            throw new IllegalStateException("Falha ao codificar a foto: " + e.getMessage(), e);
+        }
+    }
+
+    /** Indica se a foto já está no formato normalizado (JPEG sem EXIF na dimensão configurada). */
+    public boolean estaNormalizada(byte[] foto) {
+        if (foto == null || foto.length < 4 || (foto[0] & 0xFF) != 0xFF || (foto[1] & 0xFF) != 0xD8) {
+            return false;
+        }
+        if (lerOrientacaoExif(foto) > 1) {
+            return false;
+        }
+        try (ImageInputStream in = ImageIO.createImageInputStream(new ByteArrayInputStream(foto))) {
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(in);
+            if (!readers.hasNext()) return false;
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(in);
+                return reader.getWidth(0) == largura && reader.getHeight(0) == altura;
+            } finally {
+                reader.dispose();
+            }
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Decodifica a imagem já subamostrada pelo leitor (1 de cada N pixels), mantendo o menor
+     * lado com pelo menos {@code ladoMinimo} pixels: uma foto de 12 MP ocupa ~1/9 da memória
+     * e a redução final continua partindo de uma imagem maior que o destino.
+     */
+    private static BufferedImage decodificar(byte[] dados, int ladoMinimo) {
+        try (ImageInputStream in = ImageIO.createImageInputStream(new ByteArrayInputStream(dados))) {
+            Iterator<ImageReader> readers = in != null ? ImageIO.getImageReaders(in) : null;
+            if (readers == null || !readers.hasNext()) {
+                throw new IllegalArgumentException("Foto inválida: formato de imagem não suportado");
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(in);
+                if ((long) reader.getWidth(0) * reader.getHeight(0) > MAXIMO_PIXELS) {
+                    throw new IllegalArgumentException("Foto inválida: resolução acima do permitido");
+                }
+                ImageReadParam param = reader.getDefaultReadParam();
+                int fator = Math.min(reader.getWidth(0), reader.getHeight(0)) / ladoMinimo;
+                if (fator > 1) {
+                    param.setSourceSubsampling(fator, fator, 0, 0);
+                }
+                return reader.read(0, param);
+            } finally {
+                reader.dispose();
+            }
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Foto inválida: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Lê a tag Orientation (0x0112) do segmento APP1/EXIF de um JPEG. Retorna 1 (normal)
+     * quando não houver EXIF ou a imagem não for JPEG.
+     */
+    static int lerOrientacaoExif(byte[] jpeg) {
+        if (jpeg.length < 4 || (jpeg[0] & 0xFF) != 0xFF || (jpeg[1] & 0xFF) != 0xD8) {
+            return 1;
+        }
+        int pos = 2;
+        while (pos + 4 <= jpeg.length && (jpeg[pos] & 0xFF) == 0xFF) {
+            int marcador = jpeg[pos + 1] & 0xFF;
+            int tamanho = ((jpeg[pos + 2] & 0xFF) << 8) | (jpeg[pos + 3] & 0xFF);
+            if (marcador == 0xDA || marcador == 0xD9) {
+                break; // início dos dados da imagem
+            }
+            int inicio = pos + 4;
+            if (marcador == 0xE1 && tamanho >= 8 && inicio + 6 <= jpeg.length
+                    && jpeg[inicio] == 'E' && jpeg[inicio + 1] == 'x' && jpeg[inicio + 2] == 'i' && jpeg[inicio + 3] == 'f') {
+                return orientacaoTiff(jpeg, inicio + 6, Math.min(jpeg.length, pos + 2 + tamanho));
+            }
+            pos += 2 + tamanho;
+        }
+        return 1;
+    }
+
+    private static int orientacaoTiff(byte[] d, int tiff, int fim) {
+        if (tiff + 8 > fim) return 1;
+        boolean le = d[tiff] == 'I' && d[tiff + 1] == 'I';
+        int ifd = tiff + ler32(d, tiff + 4, le);
+        if (ifd + 2 > fim || ifd < tiff) return 1;
+        int entradas = ler16(d, ifd, le);
+        for (int i = 0; i < entradas; i++) {
+            int e = ifd + 2 + i * 12;
+            if (e + 12 > fim) break;
+            if (ler16(d, e, le) == 0x0112) {
+                int valor = ler16(d, e + 8, le);
+                return valor >= 1 && valor <= 8 ? valor : 1;
+            }
+        }
+        return 1;
+    }
+
+    private static int ler16(byte[] d, int p, boolean le) {
+        return le ? (d[p] & 0xFF) | ((d[p + 1] & 0xFF) << 8) : ((d[p] & 0xFF) << 8) | (d[p + 1] & 0xFF);
+    }
+
+    private static int ler32(byte[] d, int p, boolean le) {
+        return le ? ler16(d, p, true) | (ler16(d, p + 2, true) << 16) : (ler16(d, p, false) << 16) | ler16(d, p + 2, false);
+    }
+
+    /** Aplica a rotação/espelhamento indicado pela orientação EXIF (valores 2 a 8). */
+    private static BufferedImage orientar(BufferedImage img, int orientacao) {
+        if (orientacao <= 1) {
+            return img;
+        }
+        int w = img.getWidth();
+        int h = img.getHeight();
+        boolean troca = orientacao >= 5;
+        AffineTransform t = new AffineTransform();
+        switch (orientacao) {
+            case 2 -> { t.translate(w, 0); t.scale(-1, 1); }
+            case 3 -> { t.translate(w, h); t.rotate(Math.PI); }
+            case 4 -> { t.translate(0, h); t.scale(1, -1); }
+            case 5 -> { t.rotate(-Math.PI / 2); t.scale(-1, 1); }
+            case 6 -> { t.translate(h, 0); t.rotate(Math.PI / 2); }
+            case 7 -> { t.scale(-1, 1); t.translate(-h, 0); t.translate(0, w); t.rotate(3 * Math.PI / 2); }
+            case 8 -> { t.translate(0, w); t.rotate(3 * Math.PI / 2); }
+            default -> { return img; }
+        }
+        BufferedImage destino = new BufferedImage(troca ? h : w, troca ? w : h, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = destino.createGraphics();
+        try {
+            g.drawImage(img, t, null);
+        } finally {
+            g.dispose();
+        }
+        return destino;
+    }
+
+    /** Recorte central na proporção de destino (equivalente a object-fit: cover). */
+    private static BufferedImage recortarProporcao(BufferedImage img, int largura, int altura) {
+        int w = img.getWidth();
+        int h = img.getHeight();
+        double alvo = (double) largura / altura;
+        if (Math.abs((double) w / h - alvo) < 0.01) {
+            return img;
+        }
+        int cw = w;
+        int ch = h;
+        if ((double) w / h > alvo) {
+            cw = (int) Math.round(h * alvo);
+        } else {
+            ch = (int) Math.round(w / alvo);
+        }
+        return img.getSubimage((w - cw) / 2, (h - ch) / 2, cw, ch);
+    }
+
+    /**
+     * Redução em etapas de no máximo 1/2 (bilinear) até a dimensão final, o que evita o
+     * serrilhado de uma única redução grande. Também remove transparência (fundo branco).
+     */
+    private static BufferedImage reduzir(BufferedImage img, int largura, int altura) {
+        BufferedImage atual = img;
+        int w = img.getWidth();
+        int h = img.getHeight();
+        do {
+            w = Math.max(largura, w / 2);
+            h = Math.max(altura, h / 2);
+            BufferedImage proxima = new BufferedImage(w, h, BufferedImage.TYPE_INT_RGB);
+            Graphics2D g = proxima.createGraphics();
+            try {
+                g.setColor(Color.WHITE);
+                g.fillRect(0, 0, w, h);
+                g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+                g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+                g.drawImage(atual, 0, 0, w, h, null);
+            } finally {
+                g.dispose();
+            }
+            atual = proxima;
+        } while (w != largura || h != altura);
+        return atual;
+    }
+
+    private static byte[] codificarJpeg(BufferedImage img, float qualidade) throws IOException {
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpg").next();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (ImageOutputStream ios = ImageIO.createImageOutputStream(out)) {
+            writer.setOutput(ios);
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            param.setCompressionQuality(qualidade);
+            param.setProgressiveMode(ImageWriteParam.MODE_DISABLED);
+            writer.write(null, new IIOImage(img, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+        return out.toByteArray();
+    }
+}
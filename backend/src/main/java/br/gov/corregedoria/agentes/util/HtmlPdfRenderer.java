@@ -0,0 +1,187 @@
+package br.gov.corregedoria.agentes.util;
+
+import com.openhtmltopdf.outputdevice.helper.BaseRendererBuilder;
+import com.openhtmltopdf.pdfboxout.PdfRendererBuilder;
+import com.openhtmltopdf.svgsupport.BatikSVGDrawer;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Motor reutilizável de conversão HTML -> PDF (OpenHTMLToPDF).
+ *
+ * As fontes Montserrat são lidas do classpath uma única vez e mantidas em memória;
+ * os desenhistas SVG (Batik) ficam num pool pré-aquecido e são reaproveitados entre
+ * renderizações. Assim cada documento paga apenas pelo layout e pela escrita do PDF.
+ */
+@Component
+public class HtmlPdfRenderer {
+
+    private static final Logger log = LoggerFactory.getLogger(HtmlPdfRenderer.class);
+
+    private static final String FAMILIA = "Montserrat";
+
+    /**
+     * Variantes da família Montserrat incorporadas no PDF (arquivos em resources/fonts).
+     * Caso algum arquivo não exista, é simplesmente ignorado.
+     */
+    private static final Object[][] FONTES = {
+            {"/fonts/Montserrat-Regular.ttf", 400},
+            {"/fonts/Montserrat-Medium.ttf", 500},
+            {"/fonts/Montserrat-SemiBold.ttf", 600},
+            {"/fonts/Montserrat-Bold.ttf", 700},
+            {"/fonts/Montserrat-ExtraBold.ttf", 800}
+    };
+
+    private static final String HTML_AQUECIMENTO =
+            "<html><head><style>body{font-family:'Montserrat';}</style></head>"
+                    + "<body><p style=\"font-weight:800\">.</p></body></html>";
+
+    private record FonteCarregada(String familia, int peso, byte[] dados) {}
+
+    private final MeterRegistry meterRegistry;
+
+    @Value("${app.pdf.renderer.pool-size:4}")
+    private int poolSize;
+
+    @Value("${app.pdf.renderer.warmup:true}")
+    private boolean aquecerNaInicializacao;
+
+    private volatile List<FonteCarregada> fontes = List.of();
+    private BlockingQueue<BatikSVGDrawer> drawers;
+
+    private Timer timerRenderizacao;
+    private Counter drawersCriadosSobDemanda;
+
+    public HtmlPdfRenderer(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @PostConstruct
+    void inicializar() {
+        carregarFontes();
+
+        int tamanho = Math.max(1, poolSize);
+        drawers = new ArrayBlockingQueue<>(tamanho);
+        for (int i = 0; i < tamanho; i++) {
+            drawers.offer(new BatikSVGDrawer());
+        }
+
+        timerRenderizacao = Timer.builder("pdf.render")
+                .description("Tempo de renderização HTML -> PDF")
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(meterRegistry);
+        drawersCriadosSobDemanda = Counter.builder("pdf.render.svg.drawers.extra")
+                .description("Desenhistas SVG criados fora do pool por contenção")
+                .register(meterRegistry);
+        Gauge.builder("pdf.render.fonts.cached", this, r -> r.fontes.size())
+                .description("Fontes mantidas no cache do renderizador")
+                .register(meterRegistry);
+        Gauge.builder("pdf.render.fonts.bytes", this, HtmlPdfRenderer::bytesEmCache)
+                .description("Bytes de fontes mantidos no cache do renderizador")
+                .register(meterRegistry);
+        Gauge.builder("pdf.render.svg.drawers.idle", this, r -> r.drawers.size())
+                .description("Desenhistas SVG ociosos no pool")
+                .register(meterRegistry);
+
+        if (aquecerNaInicializacao) {
+            try {
+                renderizar(HTML_AQUECIMENTO);
+                log.info("Renderizador HTML->PDF aquecido ({} fontes, pool SVG={})", fontes.size(), tamanho);
+            } catch (IOException e) {
+                log.warn("Falha ao aquecer renderizador HTML->PDF: {}", e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Renderiza o HTML (XHTML) informado e devolve o PDF em memória.
+     */
+    public byte[] renderizar(String html) throws IOException {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        renderizar(html, baos);
+        return baos.toByteArray();
+    }
+
+    /**
+     * Renderiza o HTML (XHTML) informado escrevendo o PDF diretamente no stream de saída.
+     */
+    public void renderizar(String html, OutputStream saida) throws IOException {
+        BatikSVGDrawer drawer = drawers.poll();
+        if (drawer == null) {
+            drawersCriadosSobDemanda.increment();
+            drawer = new BatikSVGDrawer();
+        }
+        long inicio = System.nanoTime();
+        try {
+            PdfRendererBuilder builder = new PdfRendererBuilder();
+            builder.useFastMode();
+            builder.useSVGDrawer(drawer);
+            registrarFontes(builder);
+            builder.withHtmlContent(html, null);
+            builder.toStream(saida);
+            builder.run();
+        } catch (IOException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new IOException("Falha ao renderizar HTML->PDF: " + e.getMessage(), e);
+        } finally {
+            timerRenderizacao.record(System.nanoTime() - inicio, TimeUnit.NANOSECONDS);
+            drawers.offer(drawer);
+        }
+    }
+
+    private void registrarFontes(PdfRendererBuilder builder) {
+        for (FonteCarregada fonte : fontes) {
+            byte[] dados = fonte.dados();
+            builder.useFont(() -> new ByteArrayInputStream(dados), fonte.familia(), fonte.peso(),
+                    BaseRendererBuilder.FontStyle.NORMAL, true);
+        }
+        // Se desejar suportar itálico, adicionar arquivos *Italic.ttf com FontStyle.ITALIC.
+    }
+
+    private void carregarFontes() {
+        List<FonteCarregada> carregadas = new ArrayList<>();
+        for (Object[] f : FONTES) {
+            String caminho = (String) f[0];
+            int peso = (Integer) f[1];
+            try (InputStream is = getClass().getResourceAsStream(caminho)) {
+                if (is == null) {
+                    log.warn("Fonte não encontrada no classpath: {} (peso {})", caminho, peso);
+                    continue;
+                }
+                carregadas.add(new FonteCarregada(FAMILIA, peso, is.readAllBytes()));
+                log.info("Fonte registrada: {} (peso {})", FAMILIA, peso);
+            } catch (IOException e) {
+                log.warn("Falha ao carregar fonte: {} (peso {})", caminho, peso);
+            }
+        }
+        fontes = Collections.unmodifiableList(carregadas);
+    }
+
+    private double bytesEmCache() {
+        long total = 0;
+        for (FonteCarregada f : fontes) {
+            total += f.dados().length;
+        }
+        return total;
+    }
+}
@@ -0,0 +1,92 @@
+package br.gov.corregedoria.agentes.util;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Token bucket sem travas, na formulação GCRA: cada balde guarda apenas o instante teórico
+ * da próxima chegada (TAT) num long, atualizado por compare-and-set.
+ *
+ * Os baldes por chave (ex.: IP do cliente) ficam em listras de tamanho fixo indexadas pelo
+ * hash da chave: a memória não cresce com o número de clientes, e chaves que colidem
+ * dividem o mesmo balde.
+ *
+ * Uma requisição pode custar várias fichas (ex.: consulta em lote, uma por chave). Um custo
+ * acima da rajada é admitido com o balde cheio e deixa o saldo negativo: a chave só volta a
+ * ser atendida depois de repor todas as fichas consumidas.
+ */
+public class LimitadorTaxa {
+
+    private final long intervaloNanos;
+    private final long toleranciaNanos;
+    private final int rajada;
+    private final AtomicLongArray chegadas;
+    private final int mascara;
+    private final long origem = System.nanoTime();
+
+    /**
+     * @param taxaPorSegundo reposição de fichas por segundo
+     * @param rajada         capacidade do balde (requisições aceitas de uma vez)
+     * @param listras        quantidade de baldes (arredondada para potência de 2)
+     */
+    public LimitadorTaxa(double taxaPorSegundo, int rajada, int listras) {
+        if (taxaPorSegundo <= 0 || rajada < 1) {
+            throw new IllegalArgumentException("Taxa e rajada do limitador devem ser positivas");
+        }
+        this.intervaloNanos = Math.max(1, (long) (1_000_000_000L / taxaPorSegundo));
+        this.toleranciaNanos = (rajada - 1) * intervaloNanos;
+        this.rajada = rajada;
+        int tamanho = Integer.highestOneBit(Math.max(1, listras - 1)) << 1;
+        this.chegadas = new AtomicLongArray(Math.max(1, tamanho));
+        this.mascara = chegadas.length() - 1;
+    }
+
+    /**
+     * Consome uma ficha do balde da chave.
+     *
+     * @return 0 se admitida; senão, nanossegundos até haver ficha disponível
+     */
+    public long tentar(Object chave) {
+        return tentar(chave, 1);
+    }
+
+    /**
+     * Consome {@code fichas} fichas do balde da chave, todas ou nenhuma.
+     *
+     * @return 0 se admitida; senão, nanossegundos até haver fichas suficientes
+     */
+    public long tentar(Object chave, int fichas) {
+        int h = chave.hashCode();
+        return tentarListra((h ^ (h >>> 16)) & mascara, fichas);
+    }
+
+    /** Consome uma ficha do balde único (limitador global, com uma listra). */
+    public long tentar() {
+        return tentarListra(0, 1);
+    }
+
+    /** Consome {@code fichas} fichas do balde único, todas ou nenhuma. */
+    public long tentarFichas(int fichas) {
+        return tentarListra(0, fichas);
+    }
+
+    private long tentarListra(int i, int fichas) {
+        if (fichas < 1) {
+            return 0;
+        }
+        // Fichas exigidas no balde (no máximo a rajada); o custo debitado é sempre o total
+        long folga = toleranciaNanos - (Math.min(fichas, rajada) - 1) * intervaloNanos;
+        long custo = fichas * intervaloNanos;
+        while (true) {
+            long agora = System.nanoTime() - origem;
+            long tat = chegadas.get(i);
+            long base = Math.max(tat, agora);
+            long adiantamento = base - agora;
+            if (adiantamento > folga) {
+                return adiantamento - folga;
+            }
+            if (chegadas.compareAndSet(i, tat, base + custo)) {
+                return 0;
+            }
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package br.gov.corregedoria.agentes.util;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Conjunto de IDs numéricos em mapa de bits (um bit por ID, a partir de zero).
+ *
+ * Adequado a IDs de sequência, que são densos: um milhão de IDs ocupam cerca de 122 KB e a
+ * resposta é exata (sem falsos positivos, ao contrário de um filtro de Bloom). IDs acima do
+ * limite informado não são guardados e {@link #contem} não sabe responder por eles.
+ * Leituras não bloqueiam; gravações são serializadas.
+ */
+public class MapaBitsIds {
+
+    private final long limite;
+    private volatile AtomicLongArray palavras = new AtomicLongArray(0);
+    private volatile long quantidade;
+
+    /** @param limite maior ID representável (IDs acima dele ficam de fora) */
+    public MapaBitsIds(long limite) {
+        this.limite = Math.max(0, Math.min(limite, (long) Integer.MAX_VALUE * 64 - 1));
+    }
+
+    /** Indica se o ID está dentro da faixa representável. */
+    public boolean cobre(long id) {
+        return id >= 0 && id <= limite;
+    }
+
+    /** Se o ID foi adicionado; sempre {@code false} fora da faixa (ver {@link #cobre}). */
+    public boolean contem(long id) {
+        if (!cobre(id)) {
+            return false;
+        }
+        AtomicLongArray atual = palavras;
+        int indice = (int) (id >>> 6);
+        return indice < atual.length() && (atual.get(indice) & (1L << id)) != 0;
+    }
+
+    /** Adiciona o ID; retorna {@code false} se estiver fora da faixa. */
+    public synchronized boolean adicionar(long id) {
+        if (!cobre(id)) {
+            return false;
+        }
+        int indice = (int) (id >>> 6);
+        AtomicLongArray atual = palavras;
+        if (indice >= atual.length()) {
+            // Cresce com folga para não copiar a cada nova credencial
+            int tamanho = (int) Math.min(Math.max(indice + 1L, atual.length() + (atual.length() >> 1) + 16),
+                    (limite >>> 6) + 1);
+            AtomicLongArray maior = new AtomicLongArray(tamanho);
+            for (int i = 0; i < atual.length(); i++) {
+                maior.set(i, atual.get(i));
+            }
+            palavras = maior;
+            atual = maior;
+        }
+        long palavra = atual.get(indice);
+        long bit = 1L << id;
+        if ((palavra & bit) == 0) {
+            atual.set(indice, palavra | bit);
+            quantidade++;
+        }
+        return true;
+    }
+
+    /** Quantidade de IDs guardados. */
+    public long quantidade() {
+        return quantidade;
+    }
+
+    /** Memória ocupada pelos bits, em bytes. */
+    public long bytes() {
+        return palavras.length() * 8L;
+    }
+}
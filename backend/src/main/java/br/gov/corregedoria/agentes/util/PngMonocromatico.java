@@ -0,0 +1,143 @@
+package br.gov.corregedoria.agentes.util;
+
+import com.google.zxing.common.BitArray;
+import com.google.zxing.common.BitMatrix;
+
+import java.util.Arrays;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+/**
+ * Codificador PNG de 1 bit (tons de cinza) para matrizes do QR Code.
+ *
+ * Substitui o MatrixToImageWriter (BufferedImage de 32 bits + ImageIO) no caminho de
+ * geração: as linhas são empacotadas direto a partir do BitMatrix, e os buffers, o
+ * Deflater e o CRC são reaproveitados por thread. Só a cópia final do PNG é alocada.
+ */
+public final class PngMonocromatico {
+
+    private static final byte[] ASSINATURA = {(byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n'};
+    private static final byte[] IHDR = {'I', 'H', 'D', 'R'};
+    private static final byte[] IDAT = {'I', 'D', 'A', 'T'};
+    private static final byte[] IEND = {'I', 'E', 'N', 'D'};
+
+    private static final ThreadLocal<Estado> ESTADO = ThreadLocal.withInitial(Estado::new);
+
+    private PngMonocromatico() {}
+
+    /** Estado reaproveitado entre chamadas da mesma thread. */
+    private static final class Estado {
+        final Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION);
+        final CRC32 crc = new CRC32();
+        BitArray linha = new BitArray(0);
+        byte[] bruto = new byte[0];
+        byte[] saida = new byte[4096];
+        int tamanho;
+
+        void garantir(int livre) {
+            if (tamanho + livre > saida.length) {
+                saida = Arrays.copyOf(saida, Math.max(saida.length * 2, tamanho + livre));
+            }
+        }
+
+        void escrever(byte[] dados) {
+            garantir(dados.length);
+            System.arraycopy(dados, 0, saida, tamanho, dados.length);
+            tamanho += dados.length;
+        }
+
+        void escreverInt(int valor) {
+            garantir(4);
+            saida[tamanho++] = (byte) (valor >>> 24);
+            saida[tamanho++] = (byte) (valor >>> 16);
+            saida[tamanho++] = (byte) (valor >>> 8);
+            saida[tamanho++] = (byte) valor;
+        }
+
+        /** Fecha um chunk iniciado em {@code inicio} (campo de tamanho), gravando o tamanho e o CRC. */
+        void fecharChunk(int inicio) {
+            int dados = tamanho - inicio - 8;
+            saida[inicio] = (byte) (dados >>> 24);
+            saida[inicio + 1] = (byte) (dados >>> 16);
+            saida[inicio + 2] = (byte) (dados >>> 8);
+            saida[inicio + 3] = (byte) dados;
+            crc.reset();
+            crc.update(saida, inicio + 4, dados + 4);
+            escreverInt((int) crc.getValue());
+        }
+
+        int abrirChunk(byte[] tipo) {
+            int inicio = tamanho;
+            escreverInt(0);
+            escrever(tipo);
+            return inicio;
+        }
+    }
+
+    /**
+     * Codifica a matriz (módulo ligado = preto) como PNG de 1 bit, um pixel por posição.
+     */
+    public static byte[] codificar(BitMatrix matriz) {
+        int largura = matriz.getWidth();
+        int altura = matriz.getHeight();
+        int bytesLinha = (largura + 7) / 8;
+
+        Estado e = ESTADO.get();
+        e.tamanho = 0;
+
+        e.escrever(ASSINATURA);
+        int chunk = e.abrirChunk(IHDR);
+        e.escreverInt(largura);
+        e.escreverInt(altura);
+        e.garantir(5);
+        e.saida[e.tamanho++] = 1; // profundidade: 1 bit
+        e.saida[e.tamanho++] = 0; // tipo de cor: tons de cinza
+        e.saida[e.tamanho++] = 0; // compressão deflate
+        e.saida[e.tamanho++] = 0; // filtros adaptativos
+        e.saida[e.tamanho++] = 0; // sem entrelaçamento
+        e.fecharChunk(chunk);
+
+        // Linhas sem filtro (byte 0) com bits do mais significativo para o menos; 1 = branco
+        int tamanhoBruto = altura * (bytesLinha + 1);
+        if (e.bruto.length < tamanhoBruto) {
+            e.bruto = new byte[tamanhoBruto];
+        }
+        if (e.linha.getSize() < largura) {
+            e.linha = new BitArray(largura);
+        }
+        byte[] bruto = e.bruto;
+        int p = 0;
+        for (int y = 0; y < altura; y++) {
+            int[] bits = matriz.getRow(y, e.linha).getBitArray();
+            bruto[p++] = 0;
+            for (int b = 0; b < bytesLinha; b++) {
+                int valor = 0;
+                int x0 = b << 3;
+                for (int i = 0; i < 8; i++) {
+                    int x = x0 + i;
+                    boolean branco = x >= largura || (bits[x >>> 5] & (1 << (x & 31))) == 0;
+                    if (branco) {
+                        valor |= 0x80 >>> i;
+                    }
+                }
+                bruto[p++] = (byte) valor;
+            }
+        }
+
+        chunk = e.abrirChunk(IDAT);
+        Deflater deflater = e.deflater;
+        deflater.reset();
+        deflater.setInput(bruto, 0, tamanhoBruto);
+        deflater.finish();
+        while (!deflater.finished()) {
+            e.garantir(Math.max(256, tamanhoBruto / 4));
+            e.tamanho += deflater.deflate(e.saida, e.tamanho, e.saida.length - e.tamanho);
+        }
+        e.fecharChunk(chunk);
+
+        chunk = e.abrirChunk(IEND);
+        e.fecharChunk(chunk);
+
+        return Arrays.copyOf(e.saida, e.tamanho);
+    }
+}
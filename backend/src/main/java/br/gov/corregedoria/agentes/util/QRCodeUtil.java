@@ -2,34 +2,203 @@ package br.gov.corregedoria.agentes.util;
 
 import com.google.zxing.BarcodeFormat;
 import com.google.zxing.WriterException;
-import com.google.zxing.client.j2se.MatrixToImageWriter;
 import com.google.zxing.common.BitMatrix;
 import com.google.zxing.qrcode.QRCodeWriter;
+import com.itextpdf.kernel.colors.ColorConstants;
+import com.itextpdf.kernel.geom.Rectangle;
+import com.itextpdf.kernel.pdf.PdfDocument;
+import com.itextpdf.kernel.pdf.canvas.PdfCanvas;
+import com.itextpdf.kernel.pdf.xobject.PdfFormXObject;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
 import java.util.Base64;
 
+/**
+ * Geração de QR Codes (RN004).
+ *
+ * A URL gravada na credencial não muda após a emissão, então as imagens geradas ficam num
+ * cache LRU por URL e tamanho: renderizações repetidas (preview, download, lote, PDF da
+ * credencial) não passam de novo pelo ZXing. Métricas cache.* com {@code cache=qrcodes}.
+ *
+ * No modo vetorial ({@code app.qrcode.vetorial}, padrão) os módulos do QR são emitidos como
+ * caminhos SVG (templates HTML) ou retângulos nativos do PDF (iText), sem imagem raster.
+ */
 @Component
 public class QRCodeUtil {
 
-    private static final int QR_CODE_WIDTH = 300;
-    private static final int QR_CODE_HEIGHT = 300;
+    private static final int QR_CODE_SIZE = 300;
+
+    private record ChaveQr(String url, int tamanho) {}
+
+    /** PNG gerado e sua forma Data URI (calculada uma única vez). */
+    private record QrCodeGerado(byte[] png, String dataUri) {}
+
+    /**
+     * Módulos escuros do QR (incluindo a zona de silêncio padrão) agrupados em trechos
+     * horizontais: {@code trechos} contém triplas (coluna, linha, comprimento).
+     */
+    private record ModulosQr(int lado, int[] trechos) {}
+
+    private record QrVetorial(ModulosQr modulos, String svgDataUri) {}
+
+    private final CacheLru<ChaveQr, QrCodeGerado> cache;
+    private final CacheLru<String, QrVetorial> cacheVetorial;
+
+    /** Emite o QR como vetor (SVG/retângulos PDF) em vez de PNG nos documentos gerados. */
+    @Value("${app.qrcode.vetorial:true}")
+    private boolean vetorial = true;
+
+    public QRCodeUtil(@Value("${app.qrcode.cache.capacidade:2000}") int capacidadeCache,
+                      MeterRegistry meterRegistry) {
+        this.cache = new CacheLru<ChaveQr, QrCodeGerado>("qrcodes", capacidadeCache)
+                .registrarMetricas(meterRegistry);
+        this.cacheVetorial = new CacheLru<String, QrVetorial>("qrcodes-vetoriais", capacidadeCache)
+                .registrarMetricas(meterRegistry);
+    }
+
+    public boolean isVetorial() {
+        return vetorial;
+    }
 
     /**
      * Gera um QR Code em formato Base64
      * RN004 - Geração de QR Code
      */
     public String gerarQRCode(String url) throws WriterException, IOException {
-        QRCodeWriter qrCodeWriter = new QRCodeWriter();
-        BitMatrix bitMatrix = qrCodeWriter.encode(url, BarcodeFormat.QR_CODE, QR_CODE_WIDTH, QR_CODE_HEIGHT);
+        return Base64.getEncoder().encodeToString(gerarPng(url));
+    }
+
+    /**
+     * Bytes PNG do QR Code no tamanho padrão (300x300).
+     * O array é compartilhado pelo cache e não deve ser alterado.
+     */
+    public byte[] gerarPng(String url) throws WriterException, IOException {
+        return obter(url, QR_CODE_SIZE).png();
+    }
+
+    /**
+     * Bytes PNG do QR Code com o lado informado, em pixels.
+     * O array é compartilhado pelo cache e não deve ser alterado.
+     */
+    public byte[] gerarPng(String url, int tamanho) throws WriterException, IOException {
+        return obter(url, tamanho).png();
+    }
+
+    /**
+     * QR Code no tamanho padrão como Data URI ({@code data:image/png;base64,...}), para templates.
+     */
+    public String gerarDataUri(String url) throws WriterException, IOException {
+        return obter(url, QR_CODE_SIZE).dataUri();
+    }
 
-        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
-        MatrixToImageWriter.writeToStream(bitMatrix, "PNG", outputStream);
-        
-        byte[] qrCodeBytes = outputStream.toByteArray();
-        return Base64.getEncoder().encodeToString(qrCodeBytes);
+    /**
+     * Imagem do QR Code para uso em templates HTML ({@code <img src>}): SVG no modo vetorial,
+     * PNG caso contrário.
+     */
+    public String gerarImagemTemplate(String url) throws WriterException, IOException {
+        return vetorial ? obterVetorial(url).svgDataUri() : gerarDataUri(url);
+    }
+
+    /**
+     * Documento SVG do QR Code (um único {@code path} com os trechos de módulos escuros).
+     */
+    public String gerarSvg(String url) throws WriterException {
+        return montarSvg(obterVetorial(url).modulos());
+    }
+
+    /**
+     * QR Code como XObject de formulário do PDF (retângulos preenchidos, sem imagem), com o
+     * lado informado em pontos. Pode ser desenhado num PdfCanvas ou envolvido num
+     * {@code com.itextpdf.layout.element.Image}. O XObject pertence ao documento informado.
+     */
+    public PdfFormXObject gerarFormPdf(String url, PdfDocument pdf, float lado) throws WriterException {
+        ModulosQr modulos = obterVetorial(url).modulos();
+        float modulo = lado / modulos.lado();
+        PdfFormXObject form = new PdfFormXObject(new Rectangle(lado, lado));
+        PdfCanvas canvas = new PdfCanvas(form, pdf);
+        canvas.setFillColor(ColorConstants.WHITE).rectangle(0, 0, lado, lado).fill();
+        canvas.setFillColor(ColorConstants.BLACK);
+        int[] t = modulos.trechos();
+        for (int i = 0; i < t.length; i += 3) {
+            // Origem do PDF na base: a linha 0 do QR fica no topo
+            canvas.rectangle(t[i] * modulo, lado - (t[i + 1] + 1) * modulo, t[i + 2] * modulo, modulo);
+        }
+        canvas.fill();
+        canvas.release();
+        return form;
+    }
+
+    private QrVetorial obterVetorial(String url) throws WriterException {
+        QrVetorial gerado = cacheVetorial.obter(url);
+        if (gerado == null) {
+            ModulosQr modulos = extrairModulos(url);
+            String svg = montarSvg(modulos);
+            gerado = new QrVetorial(modulos, "data:image/svg+xml;base64,"
+                    + Base64.getEncoder().encodeToString(svg.getBytes(StandardCharsets.UTF_8)));
+            cacheVetorial.colocar(url, gerado);
+        }
+        return gerado;
+    }
+
+    /** Codifica com 1 pixel por módulo e agrupa os módulos escuros consecutivos de cada linha. */
+    private static ModulosQr extrairModulos(String url) throws WriterException {
+        BitMatrix matriz = new QRCodeWriter().encode(url, BarcodeFormat.QR_CODE, 0, 0);
+        int lado = matriz.getWidth();
+        int[] trechos = new int[3 * lado * ((lado + 1) / 2)];
+        int n = 0;
+        for (int y = 0; y < lado; y++) {
+            int x = 0;
+            while (x < lado) {
+                if (!matriz.get(x, y)) {
+                    x++;
+                    continue;
+                }
+                int inicio = x;
+                while (x < lado && matriz.get(x, y)) {
+                    x++;
+                }
+                trechos[n++] = inicio;
+                trechos[n++] = y;
+                trechos[n++] = x - inicio;
+            }
+        }
+        return new ModulosQr(lado, Arrays.copyOf(trechos, n));
+    }
+
+    private static String montarSvg(ModulosQr modulos) {
+        int lado = modulos.lado();
+        int[] t = modulos.trechos();
+        StringBuilder svg = new StringBuilder(160 + t.length * 6);
+        svg.append("<svg xmlns=\"http://www.w3.org/2000/svg\" viewBox=\"0 0 ").append(lado).append(' ').append(lado)
+                .append("\" shape-rendering=\"crispEdges\"><rect width=\"").append(lado).append("\" height=\"")
+                .append(lado).append("\" fill=\"#fff\"/><path d=\"");
+        for (int i = 0; i < t.length; i += 3) {
+            svg.append('M').append(t[i]).append(' ').append(t[i + 1])
+                    .append('h').append(t[i + 2]).append("v1h-").append(t[i + 2]).append('z');
+        }
+        return svg.append("\"/></svg>").toString();
+    }
+
+    private QrCodeGerado obter(String url, int tamanho) throws WriterException, IOException {
+        ChaveQr chave = new ChaveQr(url, tamanho);
+        QrCodeGerado gerado = cache.obter(chave);
+        if (gerado == null) {
+            byte[] png = codificar(url, tamanho);
+            gerado = new QrCodeGerado(png, "data:image/png;base64," + Base64.getEncoder().encodeToString(png));
+            cache.colocar(chave, gerado);
+        }
+        return gerado;
+    }
+
+    private static byte[] codificar(String url, int tamanho) throws WriterException {
+        QRCodeWriter qrCodeWriter = new QRCodeWriter();
+        BitMatrix bitMatrix = qrCodeWriter.encode(url, BarcodeFormat.QR_CODE, tamanho, tamanho);
+        return PngMonocromatico.codificar(bitMatrix);
     }
 
     /**
@@ -38,5 +207,11 @@ public class QRCodeUtil {
     public String gerarUrlVerificacao(String baseUrl, Long credencialId) {
         return baseUrl + "/public/verificar/" + credencialId;
     }
-}
 
+    /**
+     * Gera a URL de verificação pública com token assinado (ver CredencialTokenService)
+     */
+    public String gerarUrlVerificacaoToken(String baseUrl, String token) {
+        return baseUrl + "/public/verificar/token/" + token;
+    }
+}
@@ -0,0 +1,145 @@
+package br.gov.corregedoria.agentes.util;
+
+import com.itextpdf.io.image.ImageData;
+import com.itextpdf.io.image.ImageDataFactory;
+import jakarta.annotation.PostConstruct;
+import org.apache.batik.transcoder.SVGAbstractTranscoder;
+import org.apache.batik.transcoder.TranscoderInput;
+import org.apache.batik.transcoder.TranscoderOutput;
+import org.apache.batik.transcoder.image.PNGTranscoder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.util.Base64;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Registro dos recursos gráficos estáticos usados nos documentos (brasão/logo em resources/reports).
+ *
+ * Cada recurso é lido, rasterizado (SVG -> PNG via Batik) e codificado em Base64 uma única vez,
+ * na inicialização ou no primeiro uso, e reaproveitado pelas carteirinhas (template HTML e
+ * renderizador direto iText).
+ */
+@Component
+public class RecursosEstaticos {
+
+    private static final Logger log = LoggerFactory.getLogger(RecursosEstaticos.class);
+
+    /** Largura (px) de rasterização dos SVGs; o brasão ocupa 8mm no cartão. */
+    public static final float LARGURA_LOGO_PX = 160f;
+
+    /**
+     * Candidatos ao brasão/logo, em ordem de preferência: PNG direto (brasão raster)
+     * e fallback para SVG com rasterização.
+     */
+    private static final String[] CANDIDATOS_LOGO = {
+            "/reports/icoMG.png",
+            "/reports/brasao.png",
+            "/reports/brasao_mg.png",
+            "/reports/Brasao_de_Minas_Gerais_PB.png",
+            "/reports/Brasão_de_Minas_Gerais_P&B.png",
+            "/reports/logo_tjmg.png",
+            "/reports/logo.png",
+            "/reports/icoMG.svg",
+            "/reports/Brasao_de_Minas_Gerais_PB.svg",
+            "/reports/Brasão_de_Minas_Gerais_P&B.svg",
+            "/reports/logo_tjmg.svg",
+            "/reports/logo.svg"
+    };
+
+    /** Imagem raster pronta para uso (bytes PNG/JPEG e Data URI correspondente). */
+    public record Imagem(String mime, byte[] dados, String dataUri) {}
+
+    private static final Imagem AUSENTE = new Imagem(null, null, null);
+
+    private final Map<String, Imagem> imagens = new ConcurrentHashMap<>();
+    private final Map<String, ImageData> imagensPdf = new ConcurrentHashMap<>();
+
+    private volatile Imagem logo;
+
+    @PostConstruct
+    void inicializar() {
+        Imagem l = logo();
+        if (l != null) {
+            log.info("Brasão/logo pré-carregado ({} bytes, {})", l.dados().length, l.mime());
+        } else {
+            log.warn("Nenhum brasão/logo encontrado em resources/reports");
+        }
+    }
+
+    /** Brasão/logo usado no cabeçalho dos documentos, ou {@code null} se nenhum recurso existir. */
+    public Imagem logo() {
+        Imagem l = logo;
+        if (l == null) {
+            l = AUSENTE;
+            for (String caminho : CANDIDATOS_LOGO) {
+                Imagem candidata = imagem(caminho, LARGURA_LOGO_PX);
+                if (candidata != null) {
+                    l = candidata;
+                    break;
+                }
+            }
+            logo = l;
+        }
+        return l == AUSENTE ? null : l;
+    }
+
+    /** Data URI do brasão/logo para os templates HTML, ou {@code null}. */
+    public String logoDataUri() {
+        Imagem l = logo();
+        return l != null ? l.dataUri() : null;
+    }
+
+    /** Brasão/logo já decodificado para o iText (reaproveitável entre documentos), ou {@code null}. */
+    public ImageData logoPdf() {
+        Imagem l = logo();
+        return l != null ? imagemPdf("logo", l) : null;
+    }
+
+    /**
+     * Recurso do classpath como imagem raster. SVGs são rasterizados na largura informada
+     * (ignorada para PNG/JPEG). Retorna {@code null} se o recurso não existir ou falhar.
+     */
+    public Imagem imagem(String caminho, float larguraPx) {
+        String chave = caminho.endsWith(".svg") ? caminho + "@" + larguraPx : caminho;
+        Imagem imagem = imagens.computeIfAbsent(chave, k -> carregar(caminho, larguraPx));
+        return imagem == AUSENTE ? null : imagem;
+    }
+
+    private ImageData imagemPdf(String nome, Imagem imagem) {
+        return imagensPdf.computeIfAbsent(nome, k -> ImageDataFactory.create(imagem.dados()));
+    }
+
+    private Imagem carregar(String caminho, float larguraPx) {
+        try (InputStream is = getClass().getResourceAsStream(caminho)) {
+            if (is == null) {
+                return AUSENTE;
+            }
+            byte[] dados;
+            String mime;
+            if (caminho.endsWith(".svg")) {
+                dados = rasterizarSvg(is, larguraPx);
+                mime = "image/png";
+            } else {
+                dados = is.readAllBytes();
+                mime = caminho.endsWith(".png") ? "image/png" : "image/jpeg";
+            }
+            return new Imagem(mime, dados, "data:" + mime + ";base64," + Base64.getEncoder().encodeToString(dados));
+        } catch (Exception e) {
+            log.warn("Falha ao carregar recurso estático {}: {}", caminho, e.getMessage());
+            return AUSENTE;
+        }
+    }
+
+    private static byte[] rasterizarSvg(InputStream svg, float larguraPx) throws Exception {
+        PNGTranscoder t = new PNGTranscoder();
+        t.addTranscodingHint(SVGAbstractTranscoder.KEY_WIDTH, larguraPx);
+        ByteArrayOutputStream os = new ByteArrayOutputStream();
+        t.transcode(new TranscoderInput(svg), new TranscoderOutput(os));
+        return os.toByteArray();
+    }
+}
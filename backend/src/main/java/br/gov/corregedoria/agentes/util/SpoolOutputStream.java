@@ -0,0 +1,124 @@
+package br.gov.corregedoria.agentes.util;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Stream de saída que mantém o conteúdo em memória até um limite e, acima dele,
+ * transborda para um arquivo temporário. Usado para documentos grandes (ex.: lotes
+ * de carteirinhas) sem que o tamanho do documento se reflita no heap.
+ *
+ * Após a escrita, o conteúdo pode ser lido com {@link #abrirLeitura()} ou copiado com
+ * {@link #transferirPara(OutputStream)}; {@link #descartar()} remove o arquivo temporário.
+ */
+public class SpoolOutputStream extends OutputStream {
+
+    private final long limiteMemoria;
+    private ByteArrayOutputStream memoria = new ByteArrayOutputStream();
+    private Path arquivo;
+    private OutputStream saidaArquivo;
+    private long tamanho;
+    private boolean fechado;
+
+    public SpoolOutputStream(long limiteMemoria) {
+        this.limiteMemoria = limiteMemoria;
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        prepararEscrita(1);
+        destino().write(b);
+        tamanho++;
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        prepararEscrita(len);
+        destino().write(b, off, len);
+        tamanho += len;
+    }
+
+    @Override
+    public void flush() throws IOException {
+        if (saidaArquivo != null) {
+            saidaArquivo.flush();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (fechado) return;
+        fechado = true;
+        if (saidaArquivo != null) {
+            saidaArquivo.close();
+        }
+    }
+
+    /** Quantidade de bytes escritos. */
+    public long tamanho() {
+        return tamanho;
+    }
+
+    /** Indica se o conteúdo transbordou para disco. */
+    public boolean emDisco() {
+        return arquivo != null;
+    }
+
+    /** Abre o conteúdo escrito para leitura (fecha a escrita, se ainda aberta). */
+    public InputStream abrirLeitura() throws IOException {
+        close();
+        if (arquivo != null) {
+            return Files.newInputStream(arquivo);
+        }
+        return new ByteArrayInputStream(memoria.toByteArray());
+    }
+
+    /** Copia o conteúdo escrito para o stream informado. */
+    public void transferirPara(OutputStream destino) throws IOException {
+        close();
+        if (arquivo != null) {
+            Files.copy(arquivo, destino);
+        } else {
+            memoria.writeTo(destino);
+        }
+    }
+
+    /** Libera a memória e remove o arquivo temporário, se houver. */
+    public void descartar() {
+        try {
+            close();
+        } catch (IOException ignored) {
+            // arquivo será removido de qualquer forma
+        }
+        memoria = new ByteArrayOutputStream(0);
+        if (arquivo != null) {
+            try {
+                Files.deleteIfExists(arquivo);
+            } catch (IOException ignored) {
+                arquivo.toFile().deleteOnExit();
+            }
+        }
+    }
+
+    private OutputStream destino() {
+        return saidaArquivo != null ? saidaArquivo : memoria;
+    }
+
+    private void prepararEscrita(int len) throws IOException {
+        if (fechado) {
+            throw new IOException("Spool já fechado para escrita");
+        }
+        if (saidaArquivo == null && tamanho + len > limiteMemoria) {
+            arquivo = Files.createTempFile("spool-", ".tmp");
+            saidaArquivo = new BufferedOutputStream(Files.newOutputStream(arquivo), 64 * 1024);
+            memoria.writeTo(saidaArquivo);
+            memoria = new ByteArrayOutputStream(0);
+        }
+    }
+}
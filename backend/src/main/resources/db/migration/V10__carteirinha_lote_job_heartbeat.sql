@@ -0,0 +1,11 @@
+-- Jobs de carteirinha em lote: sinal de vida da execução (renovado a cada progresso) e contagem de
+-- tentativas. A varredura só devolve à fila jobs sem sinal de vida recente e encerra como falha os
+-- que já esgotaram as tentativas, em vez de reiniciar indefinidamente um lote que derruba o pod.
+
+ALTER TABLE carteirinha_lote_job ADD (
+  data_heartbeat  TIMESTAMP,
+  tentativas      NUMBER(10)  DEFAULT 0 NOT NULL
+);
+
+-- Jobs já iniciados: o início vale como último sinal de vida e como a primeira tentativa
+UPDATE carteirinha_lote_job SET data_heartbeat = data_inicio, tentativas = 1 WHERE data_inicio IS NOT NULL;
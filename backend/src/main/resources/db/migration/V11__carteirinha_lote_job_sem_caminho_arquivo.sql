@@ -0,0 +1,3 @@
+-- O PDF dos jobs de carteirinha em lote fica em carteirinha_lote_job_arquivo (V7); o caminho em disco não é mais usado
+
+ALTER TABLE carteirinha_lote_job DROP COLUMN caminho_arquivo;
@@ -0,0 +1,21 @@
+-- Jobs assíncronos de geração de carteirinhas em lote
+
+CREATE SEQUENCE S_CARTEIRINHA_LOTE_JOB START WITH 1 INCREMENT BY 1 NOCACHE NOCYCLE;
+
+CREATE TABLE carteirinha_lote_job (
+  id_job              NUMBER(19)     PRIMARY KEY,
+  status              VARCHAR2(20)   NOT NULL,
+  agente_ids          CLOB           NOT NULL,
+  total               NUMBER(10)     DEFAULT 0 NOT NULL,
+  concluidos          NUMBER(10)     DEFAULT 0 NOT NULL,
+  falhas              NUMBER(10)     DEFAULT 0 NOT NULL,
+  mensagem_erro       VARCHAR2(1000),
+  caminho_arquivo     VARCHAR2(500),
+  tamanho_arquivo     NUMBER(19),
+  usuario_solicitante VARCHAR2(100)  NOT NULL,
+  data_criacao        TIMESTAMP      DEFAULT SYSTIMESTAMP NOT NULL,
+  data_inicio         TIMESTAMP,
+  data_conclusao      TIMESTAMP
+);
+
+CREATE INDEX idx_lote_job_status ON carteirinha_lote_job (status);
@@ -0,0 +1,9 @@
+-- Artefatos pré-renderizados da credencial (PDF), gerados na emissão ou pelo backfill
+
+CREATE TABLE credencial_artefato (
+  id_credencial  NUMBER(19)  PRIMARY KEY,
+  pdf            BLOB        NOT NULL,
+  versao_dados   NUMBER(19)  NOT NULL,
+  data_geracao   TIMESTAMP   DEFAULT SYSTIMESTAMP NOT NULL,
+  CONSTRAINT fk_artefato_credencial FOREIGN KEY (id_credencial) REFERENCES credencial(id_credencial) ON DELETE CASCADE
+);
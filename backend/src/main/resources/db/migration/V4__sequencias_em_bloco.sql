@@ -0,0 +1,13 @@
+-- Alocação de IDs em blocos: as entidades usam allocationSize = 50 com o otimizador pooled-lo
+-- (cada NEXTVAL reserva 50 IDs na aplicação) e as sequências passam a ter cache no servidor.
+-- Os IDs já gravados continuam válidos: o próximo NEXTVAL fica acima do valor atual.
+
+ALTER SEQUENCE S_AGENTE_VOLUNTARIO INCREMENT BY 50 CACHE 20;
+ALTER SEQUENCE S_COMARCA INCREMENT BY 50 CACHE 20;
+ALTER SEQUENCE S_AREA_ATUACAO INCREMENT BY 50 CACHE 20;
+ALTER SEQUENCE S_CREDENCIAL INCREMENT BY 50 CACHE 20;
+ALTER SEQUENCE S_LOG_AUDITORIA INCREMENT BY 50 CACHE 20;
+ALTER SEQUENCE S_LOG_AUDITORIA_AUTO_INFRACAO INCREMENT BY 50 CACHE 20;
+ALTER SEQUENCE S_AUTO_INFRACAO INCREMENT BY 50 CACHE 20;
+ALTER SEQUENCE S_ANEXO_AUTO_INFRACAO INCREMENT BY 50 CACHE 20;
+ALTER SEQUENCE S_CARTEIRINHA_LOTE_JOB INCREMENT BY 50 CACHE 20;
@@ -0,0 +1,19 @@
+-- Projeção desnormalizada para a consulta pública (RN005): uma linha por credencial com os
+-- dados públicos do agente, mantida na mesma transação das alterações de agente e credencial
+
+CREATE TABLE consulta_publica_credencial (
+  id_credencial    NUMBER(19)     PRIMARY KEY,
+  usuario_emissao  VARCHAR2(100)  NOT NULL,
+  data_emissao     TIMESTAMP      NOT NULL,
+  id_agente        NUMBER(19)     NOT NULL,
+  nome_completo    VARCHAR2(255)  NOT NULL,
+  status           VARCHAR2(20)   NOT NULL,
+  data_cadastro    TIMESTAMP      NOT NULL,
+  comarcas         VARCHAR2(4000),
+  data_atualizacao TIMESTAMP      DEFAULT SYSTIMESTAMP NOT NULL,
+  CONSTRAINT fk_consulta_publica_credencial FOREIGN KEY (id_credencial) REFERENCES credencial(id_credencial) ON DELETE CASCADE
+);
+
+-- Atualização das linhas de um agente e busca por usuario_emissao (credencial mais recente)
+CREATE INDEX idx_consulta_publica_agente ON consulta_publica_credencial(id_agente);
+CREATE INDEX idx_consulta_publica_usuario ON consulta_publica_credencial(usuario_emissao, data_emissao DESC, id_credencial DESC);
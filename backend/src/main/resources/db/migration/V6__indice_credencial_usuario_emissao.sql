@@ -0,0 +1,3 @@
+-- Busca da credencial mais recente por usuario_emissao (consulta pública com chave não numérica
+-- e credenciais ainda sem linha na projeção): o índice já entrega a ordem, sem varredura nem sort
+CREATE INDEX idx_cred_usuario_emissao ON credencial(usuario_emissao, data_emissao DESC, id_credencial DESC);
@@ -0,0 +1,12 @@
+-- PDF gerado pelos jobs de carteirinha em lote, gravado no banco (e não no disco do pod) para
+-- que o download funcione em qualquer réplica e sobreviva a reinícios. Removido junto com o job
+-- na limpeza por retenção. A coluna caminho_arquivo deixa de ser usada.
+
+CREATE TABLE carteirinha_lote_job_arquivo (
+  id_job        NUMBER(19)  PRIMARY KEY,
+  pdf           BLOB        NOT NULL,
+  data_geracao  TIMESTAMP   DEFAULT SYSTIMESTAMP NOT NULL,
+  CONSTRAINT fk_lote_job_arquivo FOREIGN KEY (id_job) REFERENCES carteirinha_lote_job(id_job) ON DELETE CASCADE
+);
+
+CREATE INDEX idx_lote_job_conclusao ON carteirinha_lote_job (status, data_conclusao);
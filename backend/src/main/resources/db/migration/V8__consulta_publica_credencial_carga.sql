@@ -0,0 +1,17 @@
+-- Carga inicial da projeção da consulta pública com as credenciais emitidas antes da V5:
+-- sem a linha, a consulta dessas credenciais caía na leitura das entidades. Comarcas cortadas em
+-- 1000 caracteres, como em ConsultaPublicaProjecaoService.juntarComarcas; a ordem (aqui alfabética)
+-- pode diferir da aplicação até a próxima alteração do agente ou reconstrução da projeção.
+
+INSERT INTO consulta_publica_credencial
+  (id_credencial, usuario_emissao, data_emissao, id_agente, nome_completo, status, data_cadastro, comarcas, data_atualizacao)
+SELECT c.id_credencial, c.usuario_emissao, c.data_emissao, a.id_agente, a.nome_completo, a.status, a.data_cadastro,
+       (SELECT SUBSTR(LISTAGG(co.nome_comarca, ', ' ON OVERFLOW TRUNCATE '' WITHOUT COUNT)
+                        WITHIN GROUP (ORDER BY co.nome_comarca), 1, 1000)
+          FROM agente_comarca ac
+          JOIN comarca co ON co.id_comarca = ac.id_comarca
+         WHERE ac.id_agente = a.id_agente),
+       SYSTIMESTAMP
+  FROM credencial c
+  JOIN agente_voluntario a ON a.id_agente = c.id_agente
+ WHERE NOT EXISTS (SELECT 1 FROM consulta_publica_credencial p WHERE p.id_credencial = c.id_credencial);
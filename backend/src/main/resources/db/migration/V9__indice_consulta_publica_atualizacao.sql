@@ -0,0 +1,3 @@
+-- Sincronização do cache da consulta pública entre réplicas: cada pod lê periodicamente as
+-- linhas alteradas desde a última leitura (ConsultaPublicaService.sincronizarCache)
+CREATE INDEX idx_consulta_publica_atualizacao ON consulta_publica_credencial(data_atualizacao);
@@ -0,0 +1,86 @@
+package br.gov.corregedoria.agentes.config;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LimitePublicoFilterTest {
+
+    SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    /** Por IP: 0,4 ficha/s (uma a cada 2,5 s) e rajada 2; global folgado. */
+    LimitePublico limite = new LimitePublico(true, 0.4, 2, 64, 1000, 1000, registry);
+    LimitePublicoFilter filtro = new LimitePublicoFilter(limite);
+
+    @Test
+    void doFilter_excedente_recebe429ComRetryAfterArredondadoParaCima() throws Exception {
+        assertEquals(200, executar("10.0.0.1").getStatus());
+        assertEquals(200, executar("10.0.0.1").getStatus());
+
+        MockHttpServletResponse recusada = executar("10.0.0.1");
+        assertEquals(429, recusada.getStatus());
+        // Próxima ficha em até 2,5 s: Retry-After em segundos inteiros, nunca abaixo da espera real
+        assertEquals("3", recusada.getHeader(HttpHeaders.RETRY_AFTER));
+        assertTrue(recusada.getContentAsString().contains("TOO_MANY_REQUESTS"));
+        assertEquals(1.0, registry.get("public.limite.rejeicoes").tag("limite", "ip").counter().count());
+
+        assertEquals(200, executar("10.0.0.2").getStatus());
+    }
+
+    @Test
+    void exigir_cobraAsFichasAdicionaisDoMesmoBalde() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/public/verificar/lote");
+        request.setRemoteAddr("10.0.0.3");
+
+        // Balde cheio (2 fichas) admite o lote de 3 chaves e fica devendo uma
+        limite.exigir(request, 3);
+
+        MockHttpServletResponse recusada = executar("10.0.0.3");
+        assertEquals(429, recusada.getStatus());
+        assertEquals("5", recusada.getHeader(HttpHeaders.RETRY_AFTER));
+
+        LimiteExcedidoException excedido = assertThrows(LimiteExcedidoException.class, () -> limite.exigir(request, 1));
+        assertTrue(excedido.getEsperaSegundos() >= 1);
+        limite.exigir(request, 0);
+    }
+
+    @Test
+    void handler_limiteExcedido_respondeComo429DoFiltro() {
+        ResponseEntity<Map<String, Object>> resposta =
+                new GlobalExceptionHandler().handleLimiteExcedido(new LimiteExcedidoException(4));
+
+        assertEquals(429, resposta.getStatusCode().value());
+        assertEquals("4", resposta.getHeaders().getFirst(HttpHeaders.RETRY_AFTER));
+        assertEquals("TOO_MANY_REQUESTS", resposta.getBody().get("error"));
+    }
+
+    @Test
+    void doFilter_rotaNaoPublica_naoCobra() throws Exception {
+        for (int i = 0; i < 5; i++) {
+            MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/agentes");
+            MockHttpServletResponse response = new MockHttpServletResponse();
+            filtro.doFilter(request, response, new MockFilterChain());
+            assertEquals(200, response.getStatus());
+        }
+    }
+
+    private MockHttpServletResponse executar(String ip) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/public/validar/1");
+        request.setRemoteAddr(ip);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        MockFilterChain chain = new MockFilterChain();
+        filtro.doFilter(request, response, chain);
+        if (response.getStatus() == 200) {
+            assertNotNull(chain.getRequest(), "requisição admitida deve seguir a cadeia");
+        }
+        return response;
+    }
+}
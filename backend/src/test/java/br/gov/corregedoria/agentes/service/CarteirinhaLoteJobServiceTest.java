@@ -0,0 +1,110 @@
+package br.gov.corregedoria.agentes.service;
+
+import br.gov.corregedoria.agentes.entity.CarteirinhaLoteJob;
+import br.gov.corregedoria.agentes.entity.StatusLoteJob;
+import br.gov.corregedoria.agentes.repository.CarteirinhaLoteArquivoRepository;
+import br.gov.corregedoria.agentes.repository.CarteirinhaLoteJobRepository;
+import br.gov.corregedoria.agentes.util.SpoolOutputStream;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class CarteirinhaLoteJobServiceTest {
+
+    CarteirinhaLoteJobRepository jobRepository;
+    CarteirinhaLoteArquivoRepository arquivoRepository;
+    CarteirinhaService carteirinhaService;
+    PlatformTransactionManager transactionManager;
+    CarteirinhaLoteJobService service;
+
+    @BeforeEach
+    void setup() {
+        jobRepository = mock(CarteirinhaLoteJobRepository.class);
+        arquivoRepository = mock(CarteirinhaLoteArquivoRepository.class);
+        carteirinhaService = mock(CarteirinhaService.class);
+        transactionManager = mock(PlatformTransactionManager.class);
+        service = new CarteirinhaLoteJobService(1, 10, transactionManager, new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(service, "jobRepository", jobRepository);
+        ReflectionTestUtils.setField(service, "arquivoRepository", arquivoRepository);
+        ReflectionTestUtils.setField(service, "carteirinhaService", carteirinhaService);
+        ReflectionTestUtils.setField(service, "timeoutHeartbeat", Duration.ofMinutes(5));
+        ReflectionTestUtils.setField(service, "maximoTentativas", 3);
+        ReflectionTestUtils.setField(service, "retencao", Duration.ofDays(7));
+    }
+
+    @AfterEach
+    void encerrar() {
+        service.encerrarExecutor();
+    }
+
+    @Test
+    void varrerJobs_abandonoMedidoPeloSinalDeVidaELimitadoPelasTentativas() {
+        LocalDateTime antes = LocalDateTime.now();
+
+        service.varrerJobs();
+
+        ArgumentCaptor<LocalDateTime> limite = ArgumentCaptor.forClass(LocalDateTime.class);
+        verify(jobRepository).falharJobsAbandonados(limite.capture(), eq(3), anyString(), any());
+        verify(jobRepository).liberarJobsAbandonados(limite.getValue(), 3);
+        assertFalse(limite.getValue().isBefore(antes.minusMinutes(5)));
+        assertTrue(limite.getValue().isBefore(antes.minusMinutes(4)));
+    }
+
+    @Test
+    void executar_renderizaForaDeTransacaoEProgressoRenovaSinalDeVida() throws Exception {
+        reivindicarJob();
+        when(jobRepository.somarProgresso(eq(1L), any(), anyInt(), anyInt(), any())).thenReturn(1);
+        when(jobRepository.encerrar(eq(1L), any(), eq(StatusLoteJob.CONCLUIDO), anyLong(), any(), any())).thenReturn(1);
+        when(carteirinhaService.gerarPdfLote(eq(List.of(10L, 20L)), any())).thenAnswer(invocacao -> {
+            // Nenhuma transação (nem conexão) aberta pelo job durante a renderização
+            verify(transactionManager, never()).getTransaction(any());
+            invocacao.<CarteirinhaService.ProgressoLote>getArgument(1).registrar(2, 0);
+            return new SpoolOutputStream(1024);
+        });
+
+        ReflectionTestUtils.invokeMethod(service, "executar", 1L);
+
+        verify(jobRepository).somarProgresso(eq(1L), any(), eq(2), eq(0), any(LocalDateTime.class));
+        verify(arquivoRepository).saveAndFlush(any());
+    }
+
+    @Test
+    void executar_jobReatribuidoDuranteAExecucao_interrompeSemGravar() throws Exception {
+        reivindicarJob();
+        when(jobRepository.somarProgresso(eq(1L), any(), anyInt(), anyInt(), any())).thenReturn(0);
+        when(carteirinhaService.gerarPdfLote(eq(List.of(10L, 20L)), any())).thenAnswer(invocacao -> {
+            invocacao.<CarteirinhaService.ProgressoLote>getArgument(1).registrar(2, 0);
+            fail("a execução deveria ter sido interrompida no progresso");
+            return null;
+        });
+
+        ReflectionTestUtils.invokeMethod(service, "executar", 1L);
+
+        verify(jobRepository).encerrar(eq(1L), any(), eq(StatusLoteJob.FALHOU), isNull(), anyString(), any());
+        verify(arquivoRepository, never()).saveAndFlush(any());
+    }
+
+    private void reivindicarJob() {
+        CarteirinhaLoteJob job = new CarteirinhaLoteJob("10,20", 2, "teste");
+        job.setId(1L);
+        when(jobRepository.reivindicar(eq(1L), any())).thenReturn(1);
+        when(jobRepository.findById(1L)).thenReturn(Optional.of(job));
+    }
+}
@@ -0,0 +1,294 @@
+package br.gov.corregedoria.agentes.service;
+
+import br.gov.corregedoria.agentes.entity.AgenteVoluntario;
+import br.gov.corregedoria.agentes.entity.Comarca;
+import br.gov.corregedoria.agentes.entity.Credencial;
+import br.gov.corregedoria.agentes.entity.StatusAgente;
+import br.gov.corregedoria.agentes.event.AgenteAlteradoEvent;
+import br.gov.corregedoria.agentes.repository.AgenteVoluntarioRepository;
+import br.gov.corregedoria.agentes.repository.CredencialRepository;
+import br.gov.corregedoria.agentes.util.CacheLru;
+import br.gov.corregedoria.agentes.util.HtmlPdfRenderer;
+import br.gov.corregedoria.agentes.util.QRCodeUtil;
+import br.gov.corregedoria.agentes.util.RecursosEstaticos;
+import br.gov.corregedoria.agentes.util.SpoolOutputStream;
+import com.google.zxing.BinaryBitmap;
+import com.google.zxing.DecodeHintType;
+import com.google.zxing.client.j2se.BufferedImageLuminanceSource;
+import com.google.zxing.common.HybridBinarizer;
+import com.google.zxing.qrcode.QRCodeReader;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.rendering.PDFRenderer;
+import org.apache.pdfbox.text.PDFTextStripper;
+import org.apache.pdfbox.text.TextPosition;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.util.unit.DataSize;
+import org.thymeleaf.spring6.SpringTemplateEngine;
+import org.thymeleaf.templatemode.TemplateMode;
+import org.thymeleaf.templateresolver.ClassLoaderTemplateResolver;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class CarteirinhaServiceTest {
+
+    private static final String URL = "https://agentes.tjmg.jus.br/public/verificar/1001";
+
+    AgenteVoluntario agente;
+    AgenteVoluntarioRepository agenteRepository;
+    CredencialRepository credencialRepository;
+    EntityManager entityManager;
+    HtmlPdfRenderer renderer;
+    QRCodeUtil qrCodeUtil;
+    CarteirinhaService service;
+
+    @BeforeEach
+    void setup() {
+        agente = new AgenteVoluntario();
+        agente.setId(1L);
+        agente.setNomeCompleto("MARIA APARECIDA DOS SANTOS OLIVEIRA PEREIRA DA SILVA");
+        agente.setCpf("12345678901");
+        agente.setNumeroCarteiraIdentidade("MG-10000001");
+        agente.setDataExpedicaoCI(LocalDate.of(2005, 3, 1));
+        agente.setNacionalidade("Brasileira");
+        agente.setNaturalidade("São Sebastião do Paraíso");
+        agente.setUf("MG");
+        agente.setDataNascimento(LocalDate.of(1975, 1, 1));
+        agente.setFiliacaoPai("SEBASTIÃO FERNANDES DE OLIVEIRA CASTRO");
+        agente.setFiliacaoMae("MARIA DE LOURDES APARECIDA DOS SANTOS CASTRO");
+        agente.setStatus(StatusAgente.ATIVO);
+        Comarca comarca = new Comarca("BELO HORIZONTE");
+        comarca.setId(1L);
+        agente.setComarcas(new LinkedHashSet<>(Set.of(comarca)));
+
+        Credencial credencial = new Credencial(agente, URL, "teste");
+        credencial.setId(1001L);
+        credencial.setDataEmissao(LocalDateTime.of(2025, 6, 1, 10, 0));
+
+        agenteRepository = mock(AgenteVoluntarioRepository.class);
+        when(agenteRepository.findById(1L)).thenReturn(Optional.of(agente));
+        credencialRepository = mock(CredencialRepository.class);
+        when(credencialRepository.findFirstByAgenteIdOrderByDataEmissaoDescIdDesc(1L)).thenReturn(Optional.of(credencial));
+        when(agenteRepository.findComComarcasByIdIn(List.of(1L))).thenReturn(List.of(agente));
+        when(credencialRepository.findMaisRecentesByAgenteIdIn(List.of(1L))).thenReturn(List.of(credencial));
+
+        qrCodeUtil = new QRCodeUtil(10, new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(qrCodeUtil, "vetorial", true);
+
+        RecursosEstaticos recursos = new RecursosEstaticos();
+        ReflectionTestUtils.invokeMethod(recursos, "inicializar");
+
+        renderer = new HtmlPdfRenderer(new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(renderer, "poolSize", 1);
+        ReflectionTestUtils.invokeMethod(renderer, "inicializar");
+
+        ClassLoaderTemplateResolver resolver = new ClassLoaderTemplateResolver();
+        resolver.setPrefix("templates/");
+        resolver.setSuffix(".html");
+        resolver.setTemplateMode(TemplateMode.HTML);
+        resolver.setCharacterEncoding("UTF-8");
+        SpringTemplateEngine templateEngine = new SpringTemplateEngine();
+        templateEngine.setTemplateResolver(resolver);
+
+        CarteirinhaPdfDireto cartaoDireto = new CarteirinhaPdfDireto();
+        ReflectionTestUtils.setField(cartaoDireto, "recursosEstaticos", recursos);
+        ReflectionTestUtils.setField(cartaoDireto, "qrCodeUtil", qrCodeUtil);
+        ReflectionTestUtils.invokeMethod(cartaoDireto, "inicializar");
+
+        entityManager = mock(EntityManager.class);
+        service = new CarteirinhaService(1, 10, new SimpleMeterRegistry(), mock(PlatformTransactionManager.class));
+        ReflectionTestUtils.setField(service, "entityManager", entityManager);
+        ReflectionTestUtils.setField(service, "agenteRepository", agenteRepository);
+        ReflectionTestUtils.setField(service, "credencialRepository", credencialRepository);
+        ReflectionTestUtils.setField(service, "qrCodeUtil", qrCodeUtil);
+        ReflectionTestUtils.setField(service, "templateEngine", templateEngine);
+        ReflectionTestUtils.setField(service, "pdfRenderer", renderer);
+        ReflectionTestUtils.setField(service, "recursosEstaticos", recursos);
+        ReflectionTestUtils.setField(service, "cartaoDireto", cartaoDireto);
+        ReflectionTestUtils.setField(service, "renderizador", "html");
+        ReflectionTestUtils.setField(service, "tamanhoMaximoEntradaCache", DataSize.ofKilobytes(512));
+        ReflectionTestUtils.setField(service, "cartoesPorPagina", 4);
+        ReflectionTestUtils.setField(service, "agentesPorBloco", 100);
+        ReflectionTestUtils.setField(service, "limiteSpoolMemoria", DataSize.ofMegabytes(2));
+    }
+
+    @Test
+    void gerarPdf_htmlComQrVetorial_desenhaQrLegivel() throws Exception {
+        assertTrue(qrCodeUtil.isVetorial());
+
+        assertQrLegivel(service.gerarPdf(1L, true));
+    }
+
+    @Test
+    void gerarPdfLote_comQrVetorial_desenhaQrLegivel() throws Exception {
+        SpoolOutputStream spool = service.gerarPdfLote(List.of(1L));
+        try (InputStream in = spool.abrirLeitura()) {
+            assertQrLegivel(in.readAllBytes());
+        } finally {
+            spool.descartar();
+        }
+    }
+
+    @Test
+    void gerarPdfLote_emBlocos_mantemOrdemSolicitadaEDesligaEntidades() throws Exception {
+        ReflectionTestUtils.setField(service, "agentesPorBloco", 2);
+        ReflectionTestUtils.setField(service, "cartoesPorPagina", 1);
+        Map<Long, AgenteVoluntario> agentes = new HashMap<>();
+        Map<Long, Credencial> credenciais = new HashMap<>();
+        for (long id = 1; id <= 5; id++) {
+            AgenteVoluntario outro = new AgenteVoluntario();
+            outro.setId(id);
+            outro.setNomeCompleto("AGENTE NUMERO " + id);
+            outro.setStatus(StatusAgente.ATIVO);
+            outro.setComarcas(agente.getComarcas());
+            Credencial credencial = new Credencial(outro, URL, "teste");
+            credencial.setId(2000L + id);
+            agentes.put(id, outro);
+            credenciais.put(id, credencial);
+        }
+        when(agenteRepository.findComComarcasByIdIn(anyCollection())).thenAnswer(invocacao ->
+                invocacao.<Collection<Long>>getArgument(0).stream().map(agentes::get).toList());
+        when(credencialRepository.findMaisRecentesByAgenteIdIn(anyCollection())).thenAnswer(invocacao ->
+                invocacao.<Collection<Long>>getArgument(0).stream().map(credenciais::get).toList());
+
+        SpoolOutputStream spool = service.gerarPdfLote(List.of(5L, 3L, 1L, 4L, 2L));
+        try (InputStream in = spool.abrirLeitura(); PDDocument doc = PDDocument.load(in)) {
+            assertEquals(5, doc.getNumberOfPages());
+            PDFTextStripper stripper = new PDFTextStripper();
+            long[] ordem = {5, 3, 1, 4, 2};
+            for (int pagina = 1; pagina <= 5; pagina++) {
+                stripper.setStartPage(pagina);
+                stripper.setEndPage(pagina);
+                assertTrue(stripper.getText(doc).contains("AGENTE NUMERO " + ordem[pagina - 1]), "página " + pagina);
+            }
+        } finally {
+            spool.descartar();
+        }
+        verify(agenteRepository, times(3)).findComComarcasByIdIn(anyCollection());
+        verify(agenteRepository, never()).findComComarcasByIdIn(List.of(5L, 3L, 1L, 4L, 2L));
+        agentes.values().forEach(a -> verify(entityManager).detach(a));
+        credenciais.values().forEach(c -> verify(entityManager).detach(c));
+    }
+
+    @Test
+    void gerarPdf_escreveNaSaidaEGuardaCopiaSoAteOLimiteDoCache() throws Exception {
+        ByteArrayOutputStream primeira = new ByteArrayOutputStream();
+        service.gerarPdf(1L, true, primeira);
+        ByteArrayOutputStream segunda = new ByteArrayOutputStream();
+        service.gerarPdf(1L, true, segunda);
+
+        assertArrayEquals(primeira.toByteArray(), segunda.toByteArray());
+        assertQrLegivel(primeira.toByteArray());
+
+        // Cartão maior que a entrada máxima: sai completo e não é guardado
+        service.aoAlterarAgente(new AgenteAlteradoEvent(1L));
+        ReflectionTestUtils.setField(service, "tamanhoMaximoEntradaCache", DataSize.ofBytes(1024));
+        ByteArrayOutputStream grande = new ByteArrayOutputStream();
+        service.gerarPdf(1L, true, grande);
+        assertTrue(grande.size() > 1024);
+        assertQrLegivel(grande.toByteArray());
+        assertEquals(0, ((CacheLru<?, ?>) ReflectionTestUtils.getField(service, "cacheCarteirinhas")).tamanho());
+    }
+
+    @Test
+    void gerarPdf_direto_posicionaTextosComoOTemplate() throws Exception {
+        List<Trecho> html = trechos(service.gerarPdf(1L, true));
+        usarRenderizadorDireto();
+        List<Trecho> direto = trechos(service.gerarPdf(1L, true));
+
+        assertEquals(html.size(), direto.size(), () -> "HTML: " + html + "\nDireto: " + direto);
+        for (Trecho esperado : html) {
+            // "PODER JUDICIÁRIO" aparece nos dois cartões: compara com o mais próximo
+            Trecho obtido = direto.stream().filter(t -> t.texto().equals(esperado.texto()))
+                    .min(Comparator.comparingDouble(t -> Math.abs(t.esquerda() - esperado.esquerda())))
+                    .orElseThrow(() -> new AssertionError("Texto ausente no renderizador direto: " + esperado.texto()));
+            assertEquals(esperado.esquerda(), obtido.esquerda(), 0.25, esperado.texto());
+            assertEquals(esperado.direita(), obtido.direita(), 0.25, esperado.texto());
+            assertEquals(esperado.base(), obtido.base(), 0.25, esperado.texto());
+        }
+    }
+
+    @Test
+    void gerarPdf_direto_filiacaoLongaReduzidaDentroDoCampo() throws Exception {
+        agente.setFiliacaoPai("SEBASTIÃO FERNANDES DE OLIVEIRA CASTRO ALBUQUERQUE MAGALHÃES NOGUEIRA");
+        agente.setFiliacaoMae("MARIA DE LOURDES APARECIDA DOS SANTOS CASTRO VASCONCELOS BITTENCOURT");
+        usarRenderizadorDireto();
+
+        List<Trecho> trechos = trechos(service.gerarPdf(1L, true));
+
+        String texto = trechos.stream().map(Trecho::texto).reduce("", (a, b) -> a + " " + b);
+        assertTrue(texto.contains("NOGUEIRA"), texto);
+        assertTrue(texto.contains("VASCONCELOS BITTENCOURT"), texto);
+        // Campo Filiação do template: 10 mm a partir de 149,09 mm, à esquerda da coluna do QR
+        List<Trecho> filiacao = trechos.stream()
+                .filter(t -> t.base() > 149.09 && t.base() < 164 && t.direita() < 164).toList();
+        assertFalse(filiacao.isEmpty());
+        filiacao.forEach(t -> assertTrue(t.base() < 149.09 + 10, t.toString()));
+    }
+
+    private void usarRenderizadorDireto() {
+        ReflectionTestUtils.setField(service, "renderizador", "direto");
+    }
+
+    /** Trecho de texto da página com os limites (mm) dos caracteres visíveis e a linha de base. */
+    private record Trecho(String texto, double esquerda, double direita, double base) {}
+
+    private static List<Trecho> trechos(byte[] pdf) throws Exception {
+        double mm = 25.4 / 72;
+        List<Trecho> trechos = new ArrayList<>();
+        PDFTextStripper extrator = new PDFTextStripper() {
+            @Override
+            protected void writeString(String texto, List<TextPosition> posicoes) {
+                List<TextPosition> visiveis = posicoes.stream().filter(p -> !p.getUnicode().isBlank()).toList();
+                if (visiveis.isEmpty()) {
+                    return;
+                }
+                TextPosition primeira = visiveis.get(0);
+                TextPosition ultima = visiveis.get(visiveis.size() - 1);
+                trechos.add(new Trecho(texto.trim().replaceAll("\\s+", " "), primeira.getXDirAdj() * mm,
+                        (ultima.getXDirAdj() + ultima.getWidthDirAdj()) * mm, primeira.getYDirAdj() * mm));
+            }
+        };
+        extrator.setSortByPosition(true);
+        try (PDDocument documento = PDDocument.load(pdf)) {
+            extrator.getText(documento);
+        }
+        return trechos;
+    }
+
+    private static void assertQrLegivel(byte[] pdf) throws Exception {
+        try (PDDocument documento = PDDocument.load(pdf)) {
+            assertEquals(1, documento.getNumberOfPages());
+            assertTrue(new PDFTextStripper().getText(documento).contains("SEBASTIÃO FERNANDES"));
+
+            BufferedImage pagina = new PDFRenderer(documento).renderImageWithDPI(0, 300);
+            BinaryBitmap bitmap = new BinaryBitmap(new HybridBinarizer(new BufferedImageLuminanceSource(pagina)));
+            assertEquals(URL, new QRCodeReader().decode(bitmap, Map.of(DecodeHintType.TRY_HARDER, Boolean.TRUE)).getText());
+        }
+    }
+}
@@ -0,0 +1,177 @@
+package br.gov.corregedoria.agentes.service;
+
+import br.gov.corregedoria.agentes.dto.ConsultaPublicaDTO;
+import br.gov.corregedoria.agentes.dto.ResultadoVerificacaoLoteDTO;
+import br.gov.corregedoria.agentes.entity.AgenteVoluntario;
+import br.gov.corregedoria.agentes.entity.ConsultaPublicaCredencial;
+import br.gov.corregedoria.agentes.entity.Credencial;
+import br.gov.corregedoria.agentes.entity.StatusAgente;
+import br.gov.corregedoria.agentes.repository.ConsultaPublicaCredencialRepository;
+import br.gov.corregedoria.agentes.repository.CredencialRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityNotFoundException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.*;
+
+class ConsultaPublicaServiceTest {
+
+    CredencialRepository credencialRepository;
+    ConsultaPublicaCredencialRepository projecaoRepository;
+    FiltroCredencialService filtroCredencial;
+    ConsultaPublicaService service;
+
+    @BeforeEach
+    void setup() {
+        credencialRepository = mock(CredencialRepository.class);
+        projecaoRepository = mock(ConsultaPublicaCredencialRepository.class);
+        filtroCredencial = mock(FiltroCredencialService.class);
+        service = new ConsultaPublicaService(100, Duration.ofMinutes(5), Duration.ofMinutes(30), 100, Duration.ofSeconds(30),
+                new SimpleMeterRegistry(), mock(PlatformTransactionManager.class));
+        ReflectionTestUtils.setField(service, "credencialRepository", credencialRepository);
+        ReflectionTestUtils.setField(service, "projecaoRepository", projecaoRepository);
+        ReflectionTestUtils.setField(service, "filtroCredencial", filtroCredencial);
+        ReflectionTestUtils.setField(service, "maximoChavesLote", 50);
+    }
+
+    @Test
+    void consultar_chaveNumericaSemLinhaNaProjecao_usaCredencialDoIdAntesDoUsuarioEmissao() {
+        when(projecaoRepository.findById(123L)).thenReturn(Optional.empty());
+        when(credencialRepository.findById(123L)).thenReturn(Optional.of(credencial(123L, "ENTIDADE POR ID")));
+
+        ConsultaPublicaDTO dados = service.consultarCredencialPorChave("123");
+
+        assertEquals("ENTIDADE POR ID", dados.getNomeCompleto());
+        verify(projecaoRepository, never()).findFirstByUsuarioEmissaoOrderByDataEmissaoDescIdCredencialDesc(any());
+    }
+
+    @Test
+    void consultar_chaveNumericaSemCredencialComEsseId_caiParaUsuarioEmissao() {
+        when(projecaoRepository.findById(123L)).thenReturn(Optional.empty());
+        when(credencialRepository.findById(123L)).thenReturn(Optional.empty());
+        when(projecaoRepository.findFirstByUsuarioEmissaoOrderByDataEmissaoDescIdCredencialDesc("123"))
+                .thenReturn(Optional.of(linha(900L, "123", "PROJECAO POR USUARIO")));
+
+        assertEquals("PROJECAO POR USUARIO", service.consultarCredencialPorChave("123").getNomeCompleto());
+    }
+
+    @Test
+    void consultarLote_chaveNumericaSemLinhaNaProjecao_usaCredencialDoIdAntesDoUsuarioEmissao() {
+        when(projecaoRepository.findAllById(any())).thenReturn(List.of());
+        when(credencialRepository.findComAgenteByIdIn(List.of(123L)))
+                .thenReturn(List.of(credencial(123L, "ENTIDADE POR ID")));
+        when(projecaoRepository.findMaisRecentesByUsuarioEmissaoIn(List.of("joao")))
+                .thenReturn(List.of(linha(900L, "joao", "PROJECAO POR USUARIO")));
+
+        ResultadoVerificacaoLoteDTO resultado = service.consultarLote(List.of("123", "joao"));
+
+        assertEquals(2, resultado.getEncontradas());
+        assertEquals("ENTIDADE POR ID", resultado.getItens().get(0).getCredencial().getNomeCompleto());
+        assertEquals("PROJECAO POR USUARIO", resultado.getItens().get(1).getCredencial().getNomeCompleto());
+        verify(credencialRepository, never()).findMaisRecentesComAgenteByUsuarioEmissaoIn(anyCollection());
+    }
+
+    @Test
+    void sincronizarCache_alteracaoGravadaPorOutraReplica_removeRespostaDoAgente() {
+        when(projecaoRepository.findById(123L)).thenReturn(Optional.of(linha(123L, "joao", "NOME")));
+        service.consultarCredencialPorChave("123");
+        service.consultarCredencialPorChave("123");
+        verify(projecaoRepository, times(1)).findById(123L);
+
+        List<Object[]> alteracoes = List.<Object[]>of(new Object[] {2L, "joao", 20L});
+        when(projecaoRepository.findAlteracoesDesde(any(), any())).thenReturn(alteracoes);
+        service.sincronizarCache();
+        service.consultarCredencialPorChave("123");
+
+        verify(projecaoRepository, times(2)).findById(123L);
+    }
+
+    @Test
+    void sincronizarCache_semAlteracoesDoAgente_mantemResposta() {
+        when(projecaoRepository.findById(123L)).thenReturn(Optional.of(linha(123L, "joao", "NOME")));
+        service.consultarCredencialPorChave("123");
+
+        List<Object[]> alteracoes = List.<Object[]>of(new Object[] {7L, "maria", 70L});
+        when(projecaoRepository.findAlteracoesDesde(any(), any())).thenReturn(alteracoes);
+        service.sincronizarCache();
+        service.consultarCredencialPorChave("123");
+
+        verify(projecaoRepository, times(1)).findById(123L);
+    }
+
+    @Test
+    void consultar_chaveNumericaInexistente_naoEntraNoCacheNegativo() {
+        when(projecaoRepository.findById(555L)).thenReturn(Optional.empty());
+        when(credencialRepository.findById(555L)).thenReturn(Optional.empty());
+
+        assertThrows(EntityNotFoundException.class, () -> service.consultarCredencialPorChave("555"));
+        assertThrows(EntityNotFoundException.class, () -> service.consultarCredencialPorChave("555"));
+
+        verify(projecaoRepository, times(2)).findById(555L);
+    }
+
+    @Test
+    void sincronizarCache_emissaoEmOutraReplica_tiraUsuarioDoCacheNegativo() {
+        assertThrows(EntityNotFoundException.class, () -> service.consultarCredencialPorChave("joao"));
+        assertThrows(EntityNotFoundException.class, () -> service.consultarCredencialPorChave("joao"));
+        verify(projecaoRepository, times(1)).findFirstByUsuarioEmissaoOrderByDataEmissaoDescIdCredencialDesc("joao");
+
+        List<Object[]> alteracoes = List.<Object[]>of(new Object[] {2L, "joao", 20L});
+        when(projecaoRepository.findAlteracoesDesde(any(), any())).thenReturn(alteracoes);
+        when(projecaoRepository.findFirstByUsuarioEmissaoOrderByDataEmissaoDescIdCredencialDesc("joao"))
+                .thenReturn(Optional.of(linha(900L, "joao", "NOVA EMISSAO")));
+        service.sincronizarCache();
+
+        assertEquals("NOVA EMISSAO", service.consultarCredencialPorChave("joao").getNomeCompleto());
+        verify(filtroCredencial).registrarEmissoes(List.of(20L));
+    }
+
+    @Test
+    void sincronizarCache_muitasAlteracoes_descartaFiltroDeIds() {
+        List<Object[]> alteracoes = LongStream.rangeClosed(1, 1001)
+                .mapToObj(i -> new Object[] {i, "u" + i, i}).toList();
+        when(projecaoRepository.findAlteracoesDesde(any(), any())).thenReturn(alteracoes);
+
+        service.sincronizarCache();
+
+        verify(filtroCredencial).descartar();
+        verify(filtroCredencial, never()).registrarEmissoes(anyCollection());
+    }
+
+    static Credencial credencial(Long id, String nome) {
+        AgenteVoluntario agente = new AgenteVoluntario();
+        agente.setId(1L);
+        agente.setNomeCompleto(nome);
+        agente.setStatus(StatusAgente.ATIVO);
+        agente.setDataCadastro(LocalDateTime.of(2024, 3, 1, 10, 0));
+        Credencial credencial = new Credencial();
+        credencial.setId(id);
+        credencial.setAgente(agente);
+        credencial.setDataEmissao(LocalDateTime.of(2024, 3, 2, 10, 0));
+        return credencial;
+    }
+
+    static ConsultaPublicaCredencial linha(Long id, String usuarioEmissao, String nome) {
+        ConsultaPublicaCredencial linha = new ConsultaPublicaCredencial();
+        linha.setIdCredencial(id);
+        linha.setUsuarioEmissao(usuarioEmissao);
+        linha.setIdAgente(2L);
+        linha.setNomeCompleto(nome);
+        linha.setStatus(StatusAgente.ATIVO);
+        linha.setDataCadastro(LocalDateTime.of(2024, 3, 1, 10, 0));
+        linha.setDataAtualizacao(LocalDateTime.of(2024, 3, 2, 10, 0));
+        return linha;
+    }
+}
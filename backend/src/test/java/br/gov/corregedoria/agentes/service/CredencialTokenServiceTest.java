@@ -0,0 +1,99 @@
+package br.gov.corregedoria.agentes.service;
+
+import br.gov.corregedoria.agentes.entity.StatusAgente;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CredencialTokenServiceTest {
+
+    private static final LocalDateTime EMISSAO = LocalDateTime.of(2025, 6, 1, 10, 30);
+
+    CredencialTokenService service;
+
+    @BeforeEach
+    void setup() throws Exception {
+        KeyPair par = KeyPairGenerator.getInstance("Ed25519").generateKeyPair();
+        service = novoServico(true,
+                Base64.getEncoder().encodeToString(par.getPrivate().getEncoded()),
+                Base64.getEncoder().encodeToString(par.getPublic().getEncoded()));
+        service.carregarChaves();
+    }
+
+    @Test
+    void validar_tokenGerado_devolveDadosAssinados() {
+        String token = service.gerarToken(1001L, 1L, "MARIA APARECIDA DOS SANTOS", StatusAgente.ATIVO, EMISSAO);
+
+        CredencialTokenService.TokenCredencial dados = service.validar(token).orElseThrow();
+        assertEquals(1001L, dados.credencialId());
+        assertEquals(1L, dados.agenteId());
+        assertEquals("MARIA APARECIDA DOS SANTOS", dados.nomeCompleto());
+        assertEquals(StatusAgente.ATIVO, dados.status());
+        assertEquals(EMISSAO, dados.dataEmissao());
+        assertEquals(dados, service.validar(token).orElseThrow());
+    }
+
+    @Test
+    void validar_dadosAlterados_recusa() {
+        String token = service.gerarToken(1001L, 1L, "MARIA", StatusAgente.INATIVO, EMISSAO);
+        int ponto = token.indexOf('.');
+        String dados = new String(Base64.getUrlDecoder().decode(token.substring(0, ponto)), StandardCharsets.UTF_8);
+        String adulterados = Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(dados.replace("INATIVO", "ATIVO").getBytes(StandardCharsets.UTF_8));
+
+        assertTrue(service.validar(adulterados + token.substring(ponto)).isEmpty());
+    }
+
+    @Test
+    void validar_assinaturaAlterada_recusa() {
+        String token = service.gerarToken(1001L, 1L, "MARIA", StatusAgente.ATIVO, EMISSAO);
+        char ultimo = token.charAt(token.length() - 2);
+        String adulterado = token.substring(0, token.length() - 2) + (ultimo == 'A' ? 'B' : 'A')
+                + token.charAt(token.length() - 1);
+
+        assertTrue(service.validar(adulterado).isEmpty());
+        assertTrue(service.validar(token.substring(0, token.indexOf('.'))).isEmpty());
+        assertTrue(service.validar("lixo.lixo").isEmpty());
+    }
+
+    @Test
+    void validar_chaveDeOutroPar_recusa() throws Exception {
+        String token = service.gerarToken(1001L, 1L, "MARIA", StatusAgente.ATIVO, EMISSAO);
+        KeyPair outro = KeyPairGenerator.getInstance("Ed25519").generateKeyPair();
+        CredencialTokenService outroServico = novoServico(true,
+                Base64.getEncoder().encodeToString(outro.getPrivate().getEncoded()),
+                Base64.getEncoder().encodeToString(outro.getPublic().getEncoded()));
+        outroServico.carregarChaves();
+
+        assertTrue(outroServico.validar(token).isEmpty());
+    }
+
+    @Test
+    void carregarChaves_habilitadoSemChaves_falhaNaInicializacao() throws Exception {
+        assertThrows(IllegalStateException.class, () -> novoServico(true, "", "").carregarChaves());
+        assertThrows(IllegalStateException.class, () -> novoServico(true, "", service.getChavePublica()).carregarChaves());
+
+        CredencialTokenService desabilitado = novoServico(false, "", "");
+        desabilitado.carregarChaves();
+        assertNull(desabilitado.getChavePublica());
+        assertThrows(IllegalStateException.class,
+                () -> desabilitado.gerarToken(1L, 1L, "MARIA", StatusAgente.ATIVO, EMISSAO));
+    }
+
+    private static CredencialTokenService novoServico(boolean habilitado, String privada, String publica) {
+        CredencialTokenService servico = new CredencialTokenService(100, new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(servico, "habilitado", habilitado);
+        ReflectionTestUtils.setField(servico, "chavePrivadaBase64", privada);
+        ReflectionTestUtils.setField(servico, "chavePublicaBase64", publica);
+        return servico;
+    }
+}
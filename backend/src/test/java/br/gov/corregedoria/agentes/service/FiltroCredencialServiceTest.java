@@ -0,0 +1,104 @@
+package br.gov.corregedoria.agentes.service;
+
+import br.gov.corregedoria.agentes.event.CredencialEmitidaEvent;
+import br.gov.corregedoria.agentes.repository.CredencialRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.task.SyncTaskExecutor;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class FiltroCredencialServiceTest {
+
+    CredencialRepository repository;
+    FiltroCredencialService filtro;
+
+    @BeforeEach
+    void setup() {
+        // IDs pares de 2 a 1000; a sequência está em 1001 na primeira carga e em 5001 na segunda
+        List<Long> ids = LongStream.rangeClosed(1, 500).map(i -> i * 2).boxed().toList();
+        repository = mock(CredencialRepository.class);
+        when(repository.findAllIds()).thenReturn(ids);
+        when(repository.findTopoSequencia()).thenReturn(1001L, 5001L);
+
+        filtro = new FiltroCredencialService(Duration.ofMinutes(5), 100_000,
+                new SyncTaskExecutor(), new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(filtro, "credencialRepository", repository);
+    }
+
+    @Test
+    void ausente_antesDaCarga_consultaBanco() {
+        assertFalse(new FiltroCredencialService(Duration.ofMinutes(5), 100_000,
+                task -> { }, new SimpleMeterRegistry()).ausente(3L));
+    }
+
+    @Test
+    void ausente_primeiraCarga_naoNegaNenhumId() {
+        filtro.aoIniciar();
+
+        // Sem a carga anterior não se sabe quais blocos já tinham sido distribuídos
+        assertFalse(filtro.ausente(3L));
+        assertFalse(filtro.ausente(999L));
+    }
+
+    @Test
+    void ausente_negaSoIdsAbaixoDoTopoDaSequenciaNaCargaAnterior() {
+        filtro.aoIniciar();
+        filtro.iniciarCarga();
+
+        assertTrue(filtro.ausente(3L));
+        assertTrue(filtro.ausente(999L));
+        assertFalse(filtro.ausente(4L));
+        // Blocos distribuídos entre as duas cargas (emissões em lote inclusive) e acima do topo
+        assertFalse(filtro.ausente(1001L));
+        assertFalse(filtro.ausente(4999L));
+        assertFalse(filtro.ausente(5001L));
+        assertFalse(filtro.ausente(null));
+    }
+
+    @Test
+    void ausente_blocoAntigoDeOutraReplicaEmiteIdBaixoAposACarga_sincronizacaoMarcaNoMapa() {
+        filtro.aoIniciar();
+        filtro.iniciarCarga();
+        assertTrue(filtro.ausente(101L));
+
+        // Réplica ociosa usa o bloco 101..150, reservado antes das duas cargas
+        filtro.registrarEmissoes(List.of(101L));
+
+        assertFalse(filtro.ausente(101L));
+        assertTrue(filtro.ausente(103L));
+    }
+
+    @Test
+    void ausente_emissaoLocalEntraNoMapa() {
+        filtro.aoIniciar();
+        filtro.iniciarCarga();
+        assertTrue(filtro.ausente(11L));
+
+        filtro.aoEmitirCredencial(new CredencialEmitidaEvent(11L, 1L));
+
+        assertFalse(filtro.ausente(11L));
+    }
+
+    @Test
+    void descartar_duranteACarga_naoPublicaOMapaCarregado() {
+        filtro.aoIniciar();
+        filtro.iniciarCarga();
+        when(repository.findAllIds()).thenAnswer(invocacao -> {
+            filtro.descartar();
+            return List.of(2L);
+        });
+
+        filtro.iniciarCarga();
+
+        assertFalse(filtro.ausente(3L));
+    }
+}
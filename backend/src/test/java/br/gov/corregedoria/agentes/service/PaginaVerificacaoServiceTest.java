@@ -0,0 +1,34 @@
+package br.gov.corregedoria.agentes.service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PaginaVerificacaoServiceTest {
+
+    @Test
+    void aceitaGzip_interpretaAcceptEncoding() {
+        assertTrue(PaginaVerificacaoService.aceitaGzip("gzip"));
+        assertTrue(PaginaVerificacaoService.aceitaGzip("gzip, deflate, br"));
+        assertTrue(PaginaVerificacaoService.aceitaGzip("br;q=1.0, GZIP;q=0.5"));
+        assertTrue(PaginaVerificacaoService.aceitaGzip("deflate, *"));
+        assertTrue(PaginaVerificacaoService.aceitaGzip("gzip ; q=0.001"));
+
+        assertFalse(PaginaVerificacaoService.aceitaGzip(null));
+        assertFalse(PaginaVerificacaoService.aceitaGzip(""));
+        assertFalse(PaginaVerificacaoService.aceitaGzip("identity"));
+        assertFalse(PaginaVerificacaoService.aceitaGzip("deflate, br"));
+        assertFalse(PaginaVerificacaoService.aceitaGzip("gzip;q=0"));
+        assertFalse(PaginaVerificacaoService.aceitaGzip("gzip;q=0.000"));
+        assertFalse(PaginaVerificacaoService.aceitaGzip("gzip;q=abc"));
+        assertFalse(PaginaVerificacaoService.aceitaGzip("*;q=0"));
+        assertFalse(PaginaVerificacaoService.aceitaGzip("xgzip"));
+    }
+
+    @Test
+    void aceitaGzip_recusaExplicitaPrevaleceSobreCuringa() {
+        assertFalse(PaginaVerificacaoService.aceitaGzip("gzip;q=0, *"));
+        assertFalse(PaginaVerificacaoService.aceitaGzip("*, gzip;q=0"));
+        assertTrue(PaginaVerificacaoService.aceitaGzip("*;q=0, gzip"));
+    }
+}
@@ -0,0 +1,140 @@
+package br.gov.corregedoria.agentes.util;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CacheLruTest {
+
+    @Test
+    void colocar_acimaDaCapacidade_descartaMenosUsadaRecentemente() {
+        CacheLru<String, Integer> cache = new CacheLru<>("teste", 2);
+        cache.colocar("a", 1);
+        cache.colocar("b", 2);
+        assertEquals(1, cache.obter("a"));
+
+        cache.colocar("c", 3);
+
+        assertNull(cache.obter("b"));
+        assertEquals(1, cache.obter("a"));
+        assertEquals(3, cache.obter("c"));
+        assertEquals(2, cache.tamanho());
+        assertEquals(1, cache.getDespejos());
+    }
+
+    @Test
+    void colocar_todasReferenciadas_descartaAMaisAntigaAposSegundaChance() {
+        CacheLru<String, Integer> cache = new CacheLru<>("teste", 2);
+        cache.colocar("a", 1);
+        cache.colocar("b", 2);
+        cache.obter("a");
+        cache.obter("b");
+
+        cache.colocar("c", 3);
+
+        assertNull(cache.obter("a"));
+        assertEquals(2, cache.obter("b"));
+        assertEquals(3, cache.obter("c"));
+        assertEquals(1, cache.getDespejos());
+    }
+
+    @Test
+    void acessoConcorrente_respeitaCapacidadeEContaCadaLeitura() throws Exception {
+        CacheLru<Integer, Integer> cache = new CacheLru<>("teste", 64);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> tarefas = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                int semente = t;
+                tarefas.add(executor.submit(() -> {
+                    for (int i = 0; i < 20_000; i++) {
+                        int chave = (i * 31 + semente) % 256;
+                        if (cache.obter(chave) == null) {
+                            cache.colocar(chave, chave);
+                        }
+                    }
+                }));
+            }
+            for (Future<?> tarefa : tarefas) {
+                tarefa.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        cache.colocar(-1, -1);
+        assertTrue(cache.tamanho() <= 64, "tamanho " + cache.tamanho());
+        assertEquals(8 * 20_000, cache.getAcertos() + cache.getFalhas());
+    }
+
+    @Test
+    void obter_contabilizaAcertosEFalhasNasMetricas() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        CacheLru<String, Integer> cache = new CacheLru<String, Integer>("teste", 10).registrarMetricas(registry);
+        cache.colocar("a", 1);
+
+        cache.obter("a");
+        cache.obter("a");
+        cache.obter("x");
+
+        assertEquals(2.0, registry.get("cache.gets").tag("cache", "teste").tag("result", "hit").functionCounter().count());
+        assertEquals(1.0, registry.get("cache.gets").tag("cache", "teste").tag("result", "miss").functionCounter().count());
+        assertEquals(1.0, registry.get("cache.size").tag("cache", "teste").gauge().value());
+    }
+
+    @Test
+    void removerSeELimpar_contamInvalidacoes() {
+        CacheLru<String, Integer> cache = new CacheLru<>("teste", 10);
+        cache.colocar("a", 1);
+        cache.colocar("b", 2);
+        cache.colocar("c", 3);
+
+        cache.removerSe((chave, valor) -> valor % 2 == 1);
+        assertNull(cache.obter("a"));
+        assertEquals(2, cache.obter("b"));
+        cache.remover("b");
+        cache.remover("inexistente");
+        cache.colocar("d", 4);
+        cache.limpar();
+
+        assertEquals(0, cache.tamanho());
+        assertEquals(4, cache.getInvalidacoes());
+    }
+
+    @Test
+    void comValidade_entradaVencidaSoSaiPorObterVencido() throws Exception {
+        CacheLru<String, Integer> cache = new CacheLru<String, Integer>("teste", 10).comValidade(Duration.ofMillis(20));
+        cache.colocar("a", 1);
+        assertEquals(1, cache.obter("a"));
+
+        Thread.sleep(40);
+
+        assertNull(cache.obter("a"));
+        assertEquals(1, cache.obterVencido("a"));
+        assertEquals(1, cache.getVencidos());
+        assertNull(cache.obterVencido("x"));
+    }
+
+    @Test
+    void comIdadeMaximaVencida_naoServeEntradaAlemDoLimite() throws Exception {
+        CacheLru<String, Integer> cache = new CacheLru<String, Integer>("teste", 10)
+                .comValidade(Duration.ofMillis(10))
+                .comIdadeMaximaVencida(Duration.ofMillis(200));
+        cache.colocar("a", 1);
+
+        Thread.sleep(30);
+        assertEquals(1, cache.obterVencido("a"));
+
+        Thread.sleep(250);
+        assertNull(cache.obterVencido("a"));
+        assertEquals(1, cache.getVencidos());
+    }
+}
@@ -0,0 +1,127 @@
+package br.gov.corregedoria.agentes.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LimitadorTaxaTest {
+
+    /** Uma ficha a cada 1000 s: nada é reposto durante o teste. */
+    private static final double SEM_REPOSICAO = 0.001;
+
+    @Test
+    void tentar_admiteRajadaEDepoisRecusa() {
+        LimitadorTaxa limitador = new LimitadorTaxa(SEM_REPOSICAO, 5, 1);
+
+        for (int i = 0; i < 5; i++) {
+            assertEquals(0, limitador.tentar(), "requisição " + i);
+        }
+        assertTrue(limitador.tentar() > 0);
+        assertTrue(limitador.tentar() > 0);
+    }
+
+    @Test
+    void tentar_baldesPorChaveSaoIndependentes() {
+        LimitadorTaxa limitador = new LimitadorTaxa(SEM_REPOSICAO, 2, 1024);
+
+        assertEquals(0, limitador.tentar("10.0.0.1"));
+        assertEquals(0, limitador.tentar("10.0.0.1"));
+        assertTrue(limitador.tentar("10.0.0.1") > 0);
+        assertEquals(0, limitador.tentar("10.0.0.2"));
+    }
+
+    @Test
+    void tentar_esperaInformadaEhAteAProximaFicha() {
+        LimitadorTaxa limitador = new LimitadorTaxa(SEM_REPOSICAO, 3, 1);
+        for (int i = 0; i < 3; i++) {
+            limitador.tentar();
+        }
+
+        long espera = limitador.tentar();
+        long intervalo = TimeUnit.SECONDS.toNanos(1000);
+        assertTrue(espera > intervalo - TimeUnit.SECONDS.toNanos(1) && espera <= intervalo, "espera " + espera);
+        // Recusas não consomem fichas: a espera não cresce
+        assertTrue(limitador.tentar() <= espera);
+    }
+
+    @Test
+    void tentar_repoeFichasComOTempo() throws Exception {
+        LimitadorTaxa limitador = new LimitadorTaxa(50, 1, 1);
+
+        assertEquals(0, limitador.tentar());
+        long espera = limitador.tentar();
+        assertTrue(espera > 0 && espera <= TimeUnit.MILLISECONDS.toNanos(20), "espera " + espera);
+
+        TimeUnit.NANOSECONDS.sleep(espera + TimeUnit.MILLISECONDS.toNanos(5));
+        assertEquals(0, limitador.tentar());
+    }
+
+    @Test
+    void tentar_concorrente_admiteExatamenteARajada() throws Exception {
+        int rajada = 1000;
+        int threads = 8;
+        LimitadorTaxa limitador = new LimitadorTaxa(SEM_REPOSICAO, rajada, 1);
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        CountDownLatch largada = new CountDownLatch(1);
+        try {
+            List<Future<Integer>> admitidas = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                admitidas.add(pool.submit(() -> {
+                    largada.await();
+                    int n = 0;
+                    for (int i = 0; i < rajada; i++) {
+                        if (limitador.tentar() == 0) {
+                            n++;
+                        }
+                    }
+                    return n;
+                }));
+            }
+            largada.countDown();
+            int total = 0;
+            for (Future<Integer> f : admitidas) {
+                total += f.get(30, TimeUnit.SECONDS);
+            }
+            assertEquals(rajada, total);
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    void tentar_comFichas_cobraTodasOuNenhuma() {
+        LimitadorTaxa limitador = new LimitadorTaxa(SEM_REPOSICAO, 10, 64);
+
+        assertEquals(0, limitador.tentar("a", 4));
+        assertTrue(limitador.tentar("a", 7) > 0);
+        assertEquals(0, limitador.tentar("a", 6));
+        assertTrue(limitador.tentar("a") > 0);
+        assertEquals(0, limitador.tentar("a", 0));
+    }
+
+    @Test
+    void tentar_custoAcimaDaRajada_exigeBaldeCheioEDeixaSaldoNegativo() {
+        LimitadorTaxa limitador = new LimitadorTaxa(SEM_REPOSICAO, 5, 1);
+        long intervalo = TimeUnit.SECONDS.toNanos(1000);
+
+        assertEquals(0, limitador.tentarFichas(12));
+
+        // 12 fichas consumidas de um balde de 5: faltam 7 + 1 para a próxima requisição
+        long espera = limitador.tentar();
+        assertTrue(espera > 8 * intervalo - TimeUnit.SECONDS.toNanos(1) && espera <= 8 * intervalo, "espera " + espera);
+    }
+
+    @Test
+    void construtor_recusaTaxaOuRajadaInvalidas() {
+        assertThrows(IllegalArgumentException.class, () -> new LimitadorTaxa(0, 1, 1));
+        assertThrows(IllegalArgumentException.class, () -> new LimitadorTaxa(1, 0, 1));
+    }
+}
@@ -0,0 +1,104 @@
+package br.gov.corregedoria.agentes.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MapaBitsIdsTest {
+
+    @Test
+    void adicionar_cresceSemPerderIdsAnteriores() {
+        MapaBitsIds mapa = new MapaBitsIds(1_000_000);
+        assertEquals(0, mapa.bytes());
+
+        for (long id = 0; id < 100_000; id += 7) {
+            assertTrue(mapa.adicionar(id));
+        }
+        assertTrue(mapa.adicionar(999_999));
+        assertTrue(mapa.adicionar(64));
+        assertTrue(mapa.adicionar(64));
+
+        for (long id = 0; id < 100_000; id++) {
+            assertEquals(id % 7 == 0 || id == 64, mapa.contem(id), "id " + id);
+        }
+        assertTrue(mapa.contem(999_999));
+        assertFalse(mapa.contem(999_998));
+        assertEquals(100_000 / 7 + 1 + 2, mapa.quantidade());
+        assertTrue(mapa.bytes() >= (999_999 / 64 + 1) * 8L);
+    }
+
+    @Test
+    void foraDaFaixa_naoGuardaNemResponde() {
+        MapaBitsIds mapa = new MapaBitsIds(1000);
+
+        assertFalse(mapa.adicionar(1001));
+        assertFalse(mapa.adicionar(-1));
+        assertFalse(mapa.cobre(1001));
+        assertFalse(mapa.contem(1001));
+        assertTrue(mapa.adicionar(1000));
+        assertTrue(mapa.contem(1000));
+        assertEquals(1, mapa.quantidade());
+        assertEquals((1000 / 64 + 1) * 8L, mapa.bytes());
+    }
+
+    @Test
+    void adicionarEContemConcorrentes_naoPerdemIds() throws Exception {
+        int escritores = 4;
+        int porEscritor = 50_000;
+        MapaBitsIds mapa = new MapaBitsIds(escritores * (long) porEscritor);
+        ExecutorService pool = Executors.newFixedThreadPool(escritores + 2);
+        CountDownLatch largada = new CountDownLatch(1);
+        try {
+            List<Future<?>> tarefas = new ArrayList<>();
+            for (int e = 0; e < escritores; e++) {
+                int inicio = e;
+                // IDs intercalados: os escritores disputam as mesmas palavras e o crescimento do array
+                tarefas.add(pool.submit(() -> {
+                    largada.await();
+                    for (long id = inicio; id < escritores * (long) porEscritor; id += escritores) {
+                        mapa.adicionar(id);
+                        assertTrue(mapa.contem(id), "id recém-adicionado " + id);
+                    }
+                    return null;
+                }));
+            }
+            for (int l = 0; l < 2; l++) {
+                // Leitores: um ID visto uma vez não pode desaparecer numa cópia posterior do array
+                tarefas.add(pool.submit(() -> {
+                    largada.await();
+                    long vistos = 0;
+                    while (vistos < escritores * (long) porEscritor) {
+                        if (mapa.contem(vistos)) {
+                            vistos++;
+                            continue;
+                        }
+                        for (long anterior = Math.max(0, vistos - 200); anterior < vistos; anterior++) {
+                            assertTrue(mapa.contem(anterior), "id " + anterior + " sumiu");
+                        }
+                        Thread.onSpinWait();
+                    }
+                    return null;
+                }));
+            }
+            largada.countDown();
+            for (Future<?> tarefa : tarefas) {
+                tarefa.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        assertEquals(escritores * (long) porEscritor, mapa.quantidade());
+        for (long id = 0; id < escritores * (long) porEscritor; id++) {
+            assertTrue(mapa.contem(id), "id " + id);
+        }
+    }
+}
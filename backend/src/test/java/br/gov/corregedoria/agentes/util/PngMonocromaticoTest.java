@@ -0,0 +1,57 @@
+package br.gov.corregedoria.agentes.util;
+
+import com.google.zxing.BarcodeFormat;
+import com.google.zxing.BinaryBitmap;
+import com.google.zxing.client.j2se.BufferedImageLuminanceSource;
+import com.google.zxing.client.j2se.MatrixToImageWriter;
+import com.google.zxing.common.BitMatrix;
+import com.google.zxing.common.HybridBinarizer;
+import com.google.zxing.qrcode.QRCodeReader;
+import com.google.zxing.qrcode.QRCodeWriter;
+import org.junit.jupiter.api.Test;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PngMonocromaticoTest {
+
+    private static final String URL = "https://agentes.tjmg.jus.br/public/verificar/12345";
+
+    @Test
+    void pixelsDecodificadosIguaisAoMatrixToImageWriter() throws Exception {
+        for (int tamanho : new int[]{300, 123, 0}) {
+            BitMatrix matriz = new QRCodeWriter().encode(URL, BarcodeFormat.QR_CODE, tamanho, tamanho);
+
+            BufferedImage obtida = ImageIO.read(new ByteArrayInputStream(PngMonocromatico.codificar(matriz)));
+            ByteArrayOutputStream referencia = new ByteArrayOutputStream();
+            MatrixToImageWriter.writeToStream(matriz, "PNG", referencia);
+            BufferedImage esperada = ImageIO.read(new ByteArrayInputStream(referencia.toByteArray()));
+
+            assertEquals(esperada.getWidth(), obtida.getWidth());
+            assertEquals(esperada.getHeight(), obtida.getHeight());
+            for (int y = 0; y < esperada.getHeight(); y++) {
+                for (int x = 0; x < esperada.getWidth(); x++) {
+                    assertEquals(esperada.getRGB(x, y), obtida.getRGB(x, y), "pixel " + x + "," + y);
+                }
+            }
+        }
+    }
+
+    @Test
+    void reaproveitaBuffersSemMisturarResultados() throws Exception {
+        BitMatrix grande = new QRCodeWriter().encode(URL, BarcodeFormat.QR_CODE, 300, 300);
+        BitMatrix pequena = new QRCodeWriter().encode("x", BarcodeFormat.QR_CODE, 0, 0);
+
+        byte[] primeira = PngMonocromatico.codificar(grande);
+        PngMonocromatico.codificar(pequena);
+        assertArrayEquals(primeira, PngMonocromatico.codificar(grande));
+
+        BufferedImage imagem = ImageIO.read(new ByteArrayInputStream(primeira));
+        BinaryBitmap bitmap = new BinaryBitmap(new HybridBinarizer(new BufferedImageLuminanceSource(imagem)));
+        assertEquals(URL, new QRCodeReader().decode(bitmap).getText());
+    }
+}
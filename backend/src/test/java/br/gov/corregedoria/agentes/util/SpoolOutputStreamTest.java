@@ -0,0 +1,74 @@
+package br.gov.corregedoria.agentes.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.Field;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SpoolOutputStreamTest {
+
+    @Test
+    void abaixoDoLimite_ficaEmMemoria() throws Exception {
+        SpoolOutputStream spool = new SpoolOutputStream(100);
+        spool.write(new byte[]{1, 2, 3});
+        spool.write(4);
+
+        assertFalse(spool.emDisco());
+        assertEquals(4, spool.tamanho());
+        try (InputStream in = spool.abrirLeitura()) {
+            assertArrayEquals(new byte[]{1, 2, 3, 4}, in.readAllBytes());
+        }
+        spool.descartar();
+    }
+
+    @Test
+    void acimaDoLimite_transbordaParaDiscoSemPerderBytes() throws Exception {
+        byte[] dados = new byte[300_000];
+        new Random(7).nextBytes(dados);
+        SpoolOutputStream spool = new SpoolOutputStream(1000);
+        spool.write(dados, 0, 600);
+        assertFalse(spool.emDisco());
+        spool.write(dados, 600, 500);
+        assertTrue(spool.emDisco());
+        for (int i = 1100; i < 2000; i++) {
+            spool.write(dados[i]);
+        }
+        spool.write(dados, 2000, dados.length - 2000);
+
+        assertEquals(dados.length, spool.tamanho());
+        ByteArrayOutputStream copia = new ByteArrayOutputStream();
+        spool.transferirPara(copia);
+        assertArrayEquals(dados, copia.toByteArray());
+        try (InputStream in = spool.abrirLeitura()) {
+            assertArrayEquals(dados, in.readAllBytes());
+        }
+
+        Path arquivo = arquivo(spool);
+        assertTrue(Files.exists(arquivo));
+        spool.descartar();
+        assertFalse(Files.exists(arquivo));
+    }
+
+    @Test
+    void escritaAposLeitura_falha() throws Exception {
+        SpoolOutputStream spool = new SpoolOutputStream(10);
+        spool.write(1);
+        spool.abrirLeitura().close();
+
+        assertThrows(IOException.class, () -> spool.write(2));
+        spool.descartar();
+    }
+
+    private static Path arquivo(SpoolOutputStream spool) throws Exception {
+        Field campo = SpoolOutputStream.class.getDeclaredField("arquivo");
+        campo.setAccessible(true);
+        return (Path) campo.get(spool);
+    }
+}